@@ -0,0 +1,137 @@
+package aplicacion;
+
+import modelo.catalogo.ResumenCatalogo;
+import modelo.inventario.IndiceStock;
+import observador.GestorInventario;
+import observador.ObservadorGerente;
+import observador.ObservadorLogistico;
+import observador.PoliticaSaturacion;
+import util.AppLogic;
+import util.EjecutorAsincrono;
+import util.GestorJPA;
+import util.InicializadorBD;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Arranque escalonado de la infraestructura, fuera del hilo de JavaFX.
+ *
+ * <p>Las fases corren en hilos virtuales en cuanto lo permiten sus
+ * dependencias:</p>
+ * <pre>
+ *   jpa ──► datos ──► stock ──► catálogo
+ *   observadores
+ * </pre>
+ * <p>La ventana de login se muestra sin esperar a ninguna; la autenticación
+ * espera a {@link #listo()}. Cada fase registra su duración, así que el
+ * tiempo hasta la primera ventana no depende del tamaño de la BD.</p>
+ *
+ * <p>Las fases no tienen plazo ni se interrumpen: cortar una migración a
+ * medias puede dejar el esquema o el registro de stock a medio aplicar. Si
+ * una tarda más de {@link AppLogic.ARRANQUE#AVISO_FASE_LENTA_MS} solo se
+ * deja un aviso en el log.</p>
+ */
+public final class Arranque {
+
+    private static final Logger LOGGER = Logger.getLogger(Arranque.class.getName());
+
+    /* --------------------------- Singleton --------------------------- */
+    private static final Arranque INSTANCIA = new Arranque();
+
+    public static Arranque obtenerInstancia() { return INSTANCIA; }
+
+    /* ------------------------------ estado ------------------------------ */
+    private final CompletableFuture<Void> listo = new CompletableFuture<>();
+    private final Map<String, Long> duracionesMs = new LinkedHashMap<>();   // candado propio
+    private boolean iniciado;
+
+    private Arranque() { }
+
+    /* ---------------------------- API pública ---------------------------- */
+
+    /** Lanza las fases de arranque; las llamadas posteriores no hacen nada. */
+    public synchronized Arranque iniciar() {
+        if (iniciado) return this;
+        iniciado = true;
+        long t0 = System.nanoTime();
+
+        // Construye el EntityManagerFactory y migra el esquema
+        CompletableFuture<Void> jpa      = fase("jpa", GestorJPA::getEntityManagerFactory);
+        CompletableFuture<Void> datos    = fase("datos", InicializadorBD::verificarYPoblarDatosIniciales, jpa);
+        // Reaplica el registro de stock pendiente y carga el índice en memoria
+        CompletableFuture<Void> stock    = fase("stock", IndiceStock::obtenerInstancia, datos);
+        CompletableFuture<Void> catalogo = fase("catalogo",
+                () -> ResumenCatalogo.obtenerInstancia().obtenerResumenes(), stock);
+        CompletableFuture<Void> observadores = fase("observadores", Arranque::configurarObservadoresInventario);
+
+        CompletableFuture.allOf(catalogo, observadores).whenComplete((v, ex) -> {
+            long total = (System.nanoTime() - t0) / 1_000_000;
+            if (ex != null) {
+                listo.completeExceptionally(EjecutorAsincrono.desenvolver(ex));
+                return;
+            }
+            LOGGER.info(() -> "Arranque completo en %d ms %s".formatted(total, obtenerDuraciones()));
+            listo.complete(null);
+        });
+        return this;
+    }
+
+    /**
+     * @return futuro que se completa cuando la BD, el stock y el catálogo
+     *         están listos; falla si alguna fase falló
+     */
+    public CompletableFuture<Void> listo() {
+        return listo;
+    }
+
+    /** @return la duración de cada fase terminada, en orden de finalización. */
+    public Map<String, Long> obtenerDuraciones() {
+        synchronized (duracionesMs) {
+            return new LinkedHashMap<>(duracionesMs);
+        }
+    }
+
+    /* ------------------------------ fases ------------------------------ */
+
+    private CompletableFuture<Void> fase(String nombre, Runnable paso, CompletableFuture<?>... previas) {
+        return CompletableFuture.allOf(previas).thenCompose(v -> {
+            CompletableFuture<Void> futuro = EjecutorAsincrono.ejecutarEscritura(() -> {
+                long t0 = System.nanoTime();
+                try {
+                    paso.run();
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.SEVERE, "Falló la fase de arranque " + nombre, ex);
+                    throw ex;
+                }
+                long ms = (System.nanoTime() - t0) / 1_000_000;
+                synchronized (duracionesMs) { duracionesMs.put(nombre, ms); }
+                LOGGER.info(() -> "Fase de arranque %s: %d ms".formatted(nombre, ms));
+            });
+            avisarSiTarda(nombre, futuro);
+            return futuro;
+        });
+    }
+
+    private static void avisarSiTarda(String nombre, CompletableFuture<?> futuro) {
+        long aviso = AppLogic.ARRANQUE.AVISO_FASE_LENTA_MS;
+        CompletableFuture.delayedExecutor(aviso, TimeUnit.MILLISECONDS).execute(() -> {
+            if (!futuro.isDone()) {
+                LOGGER.warning(() -> "La fase de arranque %s lleva más de %d ms; se sigue esperando"
+                        .formatted(nombre, aviso));
+            }
+        });
+    }
+
+    private static void configurarObservadoresInventario() {
+        GestorInventario gestorInventario = GestorInventario.obtenerInstancia();
+        // Las alertas de logística no deben perderse: con la cola llena el publicador espera un poco
+        gestorInventario.anadirObservador(new ObservadorLogistico("CENTRO_DE_DISTRIBUCION_1"),
+                AppLogic.EVENTOS.CAPACIDAD_COLA, PoliticaSaturacion.ESPERAR);
+        gestorInventario.anadirObservador(new ObservadorGerente("Sr. Gerente"));
+    }
+}
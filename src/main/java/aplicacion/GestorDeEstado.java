@@ -1,13 +1,8 @@
 package aplicacion;
 
-import javafx.collections.FXCollections;
-import javafx.collections.ObservableList;
 import modelo.carrito.CarritoCompras;
-import modelo.pedido.Pedido;
 import modelo.usuario.Usuario;
-import servicio.ServicioPedido;
 
-import java.util.List;
 import java.util.logging.Logger;
 
 /**
@@ -16,11 +11,13 @@ import java.util.logging.Logger;
  * <p>Se encarga de mantener:
  * <ul>
  *   <li>Un único {@link CarritoCompras} compartido entre las vistas.</li>
- *   <li>La lista observable de {@link Pedido} existentes.</li>
  *   <li>El {@link Usuario} autenticado en la sesión.</li>
  * </ul>
  * </p>
  *
+ * <p>Los pedidos no forman parte del estado: cada vista los consulta
+ * paginados a {@link servicio.ServicioPedido} cuando los necesita.</p>
+ *
  * <p>La instancia se crea de forma «lazy» y el método
  * {@link #obtenerInstancia()} está sincronizado para garantizar seguridad en
  * entornos multi-hilo.</p>
@@ -33,20 +30,14 @@ public final class GestorDeEstado {
     private static GestorDeEstado instancia;
 
     private final CarritoCompras carrito;
-    private final ObservableList<Pedido> pedidosCreados;
     private Usuario usuarioActual;
 
     /**
      * Constructor privado para impedir la creación directa y garantizar el
-     * patrón Singleton. Inicializa el carrito y carga los pedidos ya
-     * almacenados.
+     * patrón Singleton. Inicializa el carrito.
      */
     private GestorDeEstado() {
         this.carrito = new CarritoCompras();
-
-        ServicioPedido servicioPedido = new ServicioPedido();
-        List<Pedido> pedidos = servicioPedido.obtenerTodosLosPedidos();
-        this.pedidosCreados = FXCollections.observableArrayList(pedidos);
     }
 
     /**
@@ -66,11 +57,6 @@ public final class GestorDeEstado {
         return carrito;
     }
 
-    /** @return lista observable de pedidos recuperados */
-    public ObservableList<Pedido> getPedidosCreados() {
-        return pedidosCreados;
-    }
-
     /** @return usuario autenticado en la sesión */
     public Usuario getUsuarioActual() {
         return usuarioActual;
@@ -2,24 +2,23 @@ package aplicacion;
 
 import javafx.application.Application;
 import javafx.application.Platform;
-import javafx.fxml.FXMLLoader;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Label;
 import javafx.scene.control.TextArea;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
+import modelo.inventario.IndiceStock;
 import observador.GestorInventario;
-import observador.ObservadorGerente;
-import observador.ObservadorLogistico;
+import servicio.ServicioNotificacionesUI;
+import ui.controlador.RegistroVistas;
+import ui.controlador.RegistroVistas.Vista;
+import util.EjecutorAsincrono;
 import util.GestorJPA;
-import util.InicializadorBD;
-import util.Rutas;
 
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.util.ResourceBundle;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -29,8 +28,10 @@ import java.util.logging.Logger;
  *
  * <p>Responsabilidades principales:</p>
  * <ul>
- *   <li>Inicializar la base de datos y registrar observadores del {@link observador.GestorInventario}.</li>
- *   <li>Cargar la vista inicial (pantalla de login) a partir de FXML.</li>
+ *   <li>Mostrar la vista inicial (pantalla de login) sin esperar a la base de
+ *       datos, que se prepara en segundo plano con {@link Arranque}.</li>
+ *   <li>Precargar las vistas de navegación en {@link RegistroVistas} cuando
+ *       la infraestructura está lista.</li>
  *   <li>Establecer un manejador global de excepciones que registre el error y
  *       muestre al usuario una alerta localizada.</li>
  *   <li>Cerrar los recursos de JPA al finalizar la aplicación.</li>
@@ -49,20 +50,31 @@ public final class TiendaApp extends Application {
     @Override
     public void start(Stage stage) {
         bundle = ResourceBundle.getBundle("ui.vista.messages");
-
-        inicializarBaseDeDatos();
-        configurarObservadoresInventario();
         configurarManejadorGlobalExcepciones();
 
+        Arranque arranque = Arranque.obtenerInstancia().iniciar();
         cargarVistaLogin(stage);
+        LOGGER.info(() -> "Ventana de login visible a los %d ms del inicio de la JVM"
+                .formatted(ManagementFactory.getRuntimeMXBean().getUptime()));
+
+        // Mientras el usuario escribe sus credenciales
+        EjecutorAsincrono.alTerminarEnFx(arranque.listo(),
+                v -> RegistroVistas.obtenerInstancia().precargar(Vista.PRINCIPAL, Vista.CHECKOUT, Vista.PEDIDOS),
+                this::mostrarAlertaErrorFatal);
     }
 
     /**
-     * Libera los recursos asociados a JPA antes de que la JVM finalice.
+     * Detiene las tareas asíncronas en curso, vuelca el stock pendiente y
+     * libera los recursos asociados a JPA antes de que la JVM finalice.
      */
     @Override
     public void stop() throws Exception {
         super.stop();
+        EjecutorAsincrono.shutdown();
+        GestorInventario.shutdown();
+        ServicioNotificacionesUI.shutdown();
+        RegistroVistas.obtenerInstancia().registrarEstadisticas();
+        IndiceStock.shutdown();
         GestorJPA.shutdown();
     }
 
@@ -74,16 +86,6 @@ public final class TiendaApp extends Application {
     /*  Inicialización de infraestructura                                     */
     /* ---------------------------------------------------------------------- */
 
-    private void inicializarBaseDeDatos() {
-        InicializadorBD.verificarYPoblarDatosIniciales();
-    }
-
-    private void configurarObservadoresInventario() {
-        GestorInventario gestorInventario = GestorInventario.obtenerInstancia();
-        gestorInventario.anadirObservador(new ObservadorLogistico("CENTRO_DE_DISTRIBUCION_1"));
-        gestorInventario.anadirObservador(new ObservadorGerente("Sr. Gerente"));
-    }
-
     private void configurarManejadorGlobalExcepciones() {
         Thread.currentThread().setUncaughtExceptionHandler((thread, throwable) -> {
             LOGGER.log(Level.SEVERE,
@@ -100,15 +102,7 @@ public final class TiendaApp extends Application {
 
     private void cargarVistaLogin(Stage stage) {
         try {
-            FXMLLoader loader = new FXMLLoader(
-                    getClass().getResource(Rutas.VISTAS.LOGIN), bundle);
-            Parent root = loader.load();
-
-            stage.setTitle(bundle.getString("window.title.login"));
-            stage.setScene(new Scene(root, 600, 500));
-            stage.setResizable(false);
-            stage.centerOnScreen();
-            stage.show();
+            RegistroVistas.obtenerInstancia().mostrar(stage, Vista.LOGIN, null);
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Error al cargar la vista de login", ex);
             mostrarAlertaCargaVista(ex);
@@ -3,18 +3,28 @@ package modelo.catalogo;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
+import modelo.inventario.IndiceStock;
 import modelo.inventario.Inventario;
 import modelo.producto.Producto;
 import modelo.producto.ProductoBase;
+import org.hibernate.jpa.HibernateHints;
+import util.CacheSegundoNivel;
+import util.EjecutorAsincrono;
 import util.GestorJPA;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Singleton responsable de la persistencia y gestión del catálogo de
  * {@link Producto}s.
+ *
+ * <p>Las consultas de lectura se apoyan en la caché de consultas de Hibernate
+ * (ver {@link CacheSegundoNivel}); las escrituras invalidan las regiones
+ * afectadas tras confirmar la transacción y refrescan el
+ * {@link ResumenCatalogo} y la {@link DisponibilidadVariantes} del grupo.</p>
  */
 public final class CatalogoProductos {
 
@@ -48,8 +58,15 @@ public final class CatalogoProductos {
         EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
         try {
             em.getTransaction().begin();
+            String nombreAnterior = nombrePersistido(em, (ProductoBase) producto);
             Producto productoGuardado = em.merge(producto); // devuelve la instancia gestionada
             em.getTransaction().commit();
+            CacheSegundoNivel.invalidarProducto(((ProductoBase) productoGuardado).getId());
+
+            refrescarVistasDeGrupo(productoGuardado.obtenerNombre());
+            if (nombreAnterior != null && !nombreAnterior.equals(productoGuardado.obtenerNombre())) {
+                refrescarVistasDeGrupo(nombreAnterior);
+            }
             return productoGuardado;
         } catch (Exception e) {
             rollbackSilencioso(em);
@@ -65,12 +82,24 @@ public final class CatalogoProductos {
         EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
         try {
             return em.createQuery("SELECT p FROM ProductoBase p", Producto.class)
+                    .setHint(HibernateHints.HINT_CACHEABLE, true)
+                    .setHint(HibernateHints.HINT_CACHE_REGION, CacheSegundoNivel.REGION_CONSULTA_CATALOGO)
                     .getResultList();
         } finally {
             em.close();
         }
     }
 
+    /** @return la variante con ese id (servida desde la caché de segundo nivel si está). */
+    public ProductoBase encontrarPorId(Long id) {
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            return em.find(ProductoBase.class, id);
+        } finally {
+            em.close();
+        }
+    }
+
     /**
      * Elimina un producto (y su inventario asociado) de la base de datos.
      *
@@ -107,6 +136,9 @@ public final class CatalogoProductos {
             }
 
             em.getTransaction().commit();
+            CacheSegundoNivel.invalidarProducto(((ProductoBase) producto).getId());
+            IndiceStock.obtenerInstancia().olvidar(((ProductoBase) producto).getId());
+            refrescarVistasDeGrupo(producto.obtenerNombre());
         } catch (Exception e) {
             rollbackSilencioso(em);
             LOGGER.log(Level.SEVERE, "Error al eliminar producto", e);
@@ -127,16 +159,54 @@ public final class CatalogoProductos {
             TypedQuery<ProductoBase> query = em.createQuery(
                     "SELECT p FROM ProductoBase p WHERE p.nombre = :nombre", ProductoBase.class);
             query.setParameter("nombre", nombre);
+            query.setHint(HibernateHints.HINT_CACHEABLE, true);
+            query.setHint(HibernateHints.HINT_CACHE_REGION, CacheSegundoNivel.REGION_CONSULTA_VARIANTES);
             return query.getResultList();
         } finally {
             em.close();
         }
     }
 
+    /* ---------------------------------------------------------------------- */
+    /*  Versiones asíncronas (hilo virtual, ver EjecutorAsincrono)            */
+    /* ---------------------------------------------------------------------- */
+
+    public CompletableFuture<Producto> guardarProductoAsync(Producto producto) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> guardarProducto(producto));
+    }
+
+    public CompletableFuture<List<Producto>> obtenerTodosLosProductosAsync() {
+        return EjecutorAsincrono.ejecutar(this::obtenerTodosLosProductos);
+    }
+
+    public CompletableFuture<ProductoBase> encontrarPorIdAsync(Long id) {
+        return EjecutorAsincrono.ejecutar(() -> encontrarPorId(id));
+    }
+
+    public CompletableFuture<Void> eliminarProductoAsync(Producto producto) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> eliminarProducto(producto));
+    }
+
+    public CompletableFuture<List<ProductoBase>> encontrarVariantesPorNombreAsync(String nombre) {
+        return EjecutorAsincrono.ejecutar(() -> encontrarVariantesPorNombre(nombre));
+    }
+
     /* ---------------------------------------------------------------------- */
     /*  Helpers                                                               */
     /* ---------------------------------------------------------------------- */
 
+    private void refrescarVistasDeGrupo(String nombre) {
+        DisponibilidadVariantes.obtenerInstancia().invalidar(nombre);
+        ResumenCatalogo.obtenerInstancia().refrescarGrupo(nombre);
+    }
+
+    /* Nombre con el que está guardado el producto antes de un merge (puede haber sido renombrado). */
+    private String nombrePersistido(EntityManager em, ProductoBase producto) {
+        if (producto.getId() == null) return null;
+        ProductoBase actual = em.find(ProductoBase.class, producto.getId());
+        return actual == null ? null : actual.obtenerNombre();
+    }
+
     private void rollbackSilencioso(EntityManager em) {
         try {
             if (em != null && em.getTransaction().isActive()) {
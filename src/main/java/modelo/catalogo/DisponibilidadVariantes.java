@@ -0,0 +1,204 @@
+package modelo.catalogo;
+
+import jakarta.persistence.EntityManager;
+import modelo.inventario.IndiceStock;
+import modelo.producto.ProductoBase;
+import modelo.producto.ProductoCamiseta;
+import modelo.producto.ProductoChaqueta;
+import modelo.producto.ProductoPantalones;
+import util.GestorJPA;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+/**
+ * Matrices de disponibilidad talla × color por nombre de producto, para la
+ * pantalla de personalización. Las variantes que solo difieren en material
+ * (chaquetas) o corte (pantalones) suman su stock en la misma celda, igual
+ * que la selección de la vista, que solo elige talla y color.
+ *
+ * <p>Cada matriz se carga con una sola consulta (las variantes) la primera
+ * vez que se pide y queda en memoria; el stock se lee en cada pregunta del
+ * {@link IndiceStock}, así que las ventas y reposiciones se ven al momento
+ * sin refrescar nada. Los cambios de catálogo descartan la matriz con
+ * {@link #invalidar(String)} para recargarla en el siguiente uso.</p>
+ *
+ * <p>Una variante sin talla o sin color no se puede elegir en la vista: se
+ * deja fuera de la matriz.</p>
+ */
+public final class DisponibilidadVariantes {
+
+    private static final Logger LOGGER = Logger.getLogger(DisponibilidadVariantes.class.getName());
+
+    private static DisponibilidadVariantes instancia;
+
+    private final Map<String, Matriz> porNombre = new ConcurrentHashMap<>();
+
+    private DisponibilidadVariantes() { }
+
+    /** @return instancia única del registro. */
+    public static synchronized DisponibilidadVariantes obtenerInstancia() {
+        if (instancia == null) {
+            instancia = new DisponibilidadVariantes();
+        }
+        return instancia;
+    }
+
+    /* ----------------------------- acceso ------------------------------- */
+
+    /** @return la matriz del producto, cargándola si hace falta. */
+    public Matriz obtenerMatriz(String nombre) {
+        return porNombre.computeIfAbsent(nombre, DisponibilidadVariantes::cargar);
+    }
+
+    /** Descarta la matriz de un producto (variantes añadidas, editadas o borradas). */
+    public void invalidar(String nombre) {
+        if (nombre != null) porNombre.remove(nombre);
+    }
+
+    /* ----------------------------- carga -------------------------------- */
+
+    private static Matriz cargar(String nombre) {
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            return new Matriz(em.createQuery(
+                            "SELECT p FROM ProductoBase p WHERE p.nombre = :nombre ORDER BY p.id", ProductoBase.class)
+                    .setParameter("nombre", nombre)
+                    .getResultList());
+        } finally {
+            em.close();
+        }
+    }
+
+    /* ------------------------- atributos de variante -------------------- */
+
+    public static String talla(ProductoBase p) {
+        return switch (p) {
+            case ProductoCamiseta c   -> c.obtenerTalla();
+            case ProductoChaqueta c   -> c.obtenerTalla();
+            case ProductoPantalones c -> c.obtenerTalla();
+            default -> "";
+        };
+    }
+
+    public static String color(ProductoBase p) {
+        return switch (p) {
+            case ProductoCamiseta c   -> c.obtenerColor();
+            case ProductoChaqueta c   -> c.obtenerColor();
+            case ProductoPantalones c -> c.obtenerColor();
+            default -> "";
+        };
+    }
+
+    /* ------------------------------ matriz ------------------------------ */
+
+    /**
+     * Disponibilidad de las variantes de un producto. Las tallas, colores y
+     * variantes de cada combinación (talla, color) se indexan una vez al
+     * cargar; el stock de cada variante se lee del {@link IndiceStock}, así
+     * que las preguntas se responden sin consultar la BD.
+     */
+    public static final class Matriz {
+
+        private final List<ProductoBase> variantes;
+        private final List<String> tallas;
+        private final Map<String, Integer> indiceTalla = new HashMap<>();
+        private final Map<String, Integer> indiceColor = new HashMap<>();
+        private final Map<String, List<String>> coloresPorTalla = new HashMap<>();
+
+        /* [talla][color] → índices (por id) de las variantes de esa combinación */
+        private final int[][][] variantesCelda;
+
+        private Matriz(List<ProductoBase> todas) {
+            variantes = todas.stream().filter(Matriz::elegible).toList();
+
+            SortedSet<String> tallasOrd  = new TreeSet<>();
+            SortedSet<String> coloresOrd = new TreeSet<>();
+            variantes.forEach(v -> { tallasOrd.add(talla(v)); coloresOrd.add(color(v)); });
+            tallas = List.copyOf(tallasOrd);
+            tallas.forEach(t -> indiceTalla.put(t, indiceTalla.size()));
+            coloresOrd.forEach(c -> indiceColor.put(c, indiceColor.size()));
+
+            variantesCelda = new int[tallas.size()][coloresOrd.size()][];
+
+            Map<String, SortedSet<String>> colores = new HashMap<>();
+            Map<Integer, List<Integer>> porCelda = new LinkedHashMap<>();
+            for (int i = 0; i < variantes.size(); i++) {
+                ProductoBase v = variantes.get(i);
+                int t = indiceTalla.get(talla(v));
+                int c = indiceColor.get(color(v));
+                porCelda.computeIfAbsent(t * coloresOrd.size() + c, k -> new ArrayList<>()).add(i);
+                colores.computeIfAbsent(talla(v), k -> new TreeSet<>()).add(color(v));
+            }
+            colores.forEach((t, cs) -> coloresPorTalla.put(t, List.copyOf(cs)));
+            porCelda.forEach((celda, indices) ->
+                    variantesCelda[celda / coloresOrd.size()][celda % coloresOrd.size()] =
+                            indices.stream().mapToInt(Integer::intValue).toArray());
+        }
+
+        private static boolean elegible(ProductoBase v) {
+            if (talla(v) != null && color(v) != null) return true;
+            LOGGER.warning(() -> "Variante " + v.getId() + " sin talla o color: no se puede elegir");
+            return false;
+        }
+
+        /* ------------------------------ consultas ------------------------------ */
+
+        /** @return todas las variantes, ordenadas por id. */
+        public List<ProductoBase> variantes() { return variantes; }
+
+        /** @return tallas existentes, ordenadas. */
+        public List<String> tallas() { return tallas; }
+
+        /** @return colores existentes para la talla, ordenados (con o sin stock). */
+        public List<String> colores(String talla) {
+            return coloresPorTalla.getOrDefault(talla, List.of());
+        }
+
+        /** @return colores de la talla que tienen al menos una unidad. */
+        public List<String> coloresConStock(String talla) {
+            return colores(talla).stream().filter(c -> hayStock(talla, c)).toList();
+        }
+
+        /**
+         * @return la variante de esa talla y color, si existe: la primera con
+         *         stock o, si ninguna tiene, la primera por id.
+         */
+        public Optional<ProductoBase> variante(String talla, String color) {
+            int[] indices = celda(talla, color);
+            if (indices == null) return Optional.empty();
+            for (int i : indices) {
+                if (stock(variantes.get(i)) > 0) return Optional.of(variantes.get(i));
+            }
+            return Optional.of(variantes.get(indices[0]));
+        }
+
+        public boolean hayStock(String talla, String color) {
+            int[] indices = celda(talla, color);
+            if (indices == null) return false;
+            for (int i : indices) {
+                if (stock(variantes.get(i)) > 0) return true;
+            }
+            return false;
+        }
+
+        public int stock(ProductoBase variante) {
+            return IndiceStock.obtenerInstancia().stock(variante.getId());
+        }
+
+        /** @return la primera variante (por id) con stock. */
+        public Optional<ProductoBase> primeraConStock() {
+            return variantes.stream().filter(v -> stock(v) > 0).findFirst();
+        }
+
+        public int stockTotal() {
+            return variantes.stream().mapToInt(this::stock).sum();
+        }
+
+        private int[] celda(String talla, String color) {
+            Integer t = indiceTalla.get(talla), c = indiceColor.get(color);
+            return t == null || c == null ? null : variantesCelda[t][c];
+        }
+    }
+}
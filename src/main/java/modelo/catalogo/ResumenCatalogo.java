@@ -0,0 +1,158 @@
+package modelo.catalogo;
+
+import jakarta.persistence.EntityManager;
+import modelo.inventario.IndiceStock;
+import util.GestorJPA;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Resumen del catálogo agrupado por nombre de producto (precio mínimo, stock
+ * total y número de variantes), pensado para el listado de la tienda.
+ *
+ * <p>Los datos de catálogo de cada grupo (precio mínimo e ids de sus
+ * variantes) se leen con una única consulta la primera vez y se guardan en
+ * memoria; el stock se suma en cada lectura desde el {@link IndiceStock}, de
+ * modo que las ventas y reposiciones no requieren refresco. Cuando cambia el
+ * catálogo, quien hace el cambio llama a {@link #refrescarGrupo(String)} tras
+ * el commit y solo se recalcula ese grupo (consulta por índice sobre
+ * {@code nombre}). Así el render de celdas nunca consulta la BD.</p>
+ */
+public final class ResumenCatalogo {
+
+    private static final Logger LOGGER = Logger.getLogger(ResumenCatalogo.class.getName());
+
+    private static final String SELECT_VARIANTES = "SELECT p.nombre, p.precioBase, p.id FROM ProductoBase p";
+
+    private static ResumenCatalogo instancia;
+
+    private final Map<String, Grupo> porNombre = new ConcurrentHashMap<>();
+    private volatile boolean cargado;
+
+    private ResumenCatalogo() { }
+
+    /** @return instancia única del resumen. */
+    public static synchronized ResumenCatalogo obtenerInstancia() {
+        if (instancia == null) {
+            instancia = new ResumenCatalogo();
+        }
+        return instancia;
+    }
+
+    /* ----------------------------- lectura ------------------------------ */
+
+    /** @return un resumen por producto, ordenado por nombre. */
+    public List<ResumenProducto> obtenerResumenes() {
+        cargarSiHaceFalta();
+        IndiceStock indice = IndiceStock.obtenerInstancia();
+        return porNombre.values().stream()
+                .sorted(Comparator.comparing(Grupo::nombre))
+                .map(g -> g.resumen(indice))
+                .toList();
+    }
+
+    /** @return el resumen del grupo, o {@code null} si no existe. */
+    public ResumenProducto obtener(String nombre) {
+        cargarSiHaceFalta();
+        Grupo g = porNombre.get(nombre);
+        return g == null ? null : g.resumen(IndiceStock.obtenerInstancia());
+    }
+
+    /* ---------------------------- refresco ------------------------------ */
+
+    /**
+     * Recalcula un grupo tras un cambio de catálogo. Si el grupo ya no tiene
+     * variantes desaparece del resumen. No hace nada si el resumen aún no se
+     * ha cargado.
+     */
+    public void refrescarGrupo(String nombre) {
+        if (!cargado || nombre == null) return;
+        try {
+            porNombre.compute(nombre, (n, anterior) -> consultarGrupo(n));
+        } catch (Exception ex) {
+            // Se descarta el resumen para recargarlo entero en la próxima lectura
+            LOGGER.log(Level.WARNING, "No se pudo refrescar el resumen de " + nombre, ex);
+            invalidar();
+        }
+    }
+
+    /** Descarta todo el resumen; se recarga en la próxima lectura. */
+    public synchronized void invalidar() {
+        cargado = false;
+        porNombre.clear();
+    }
+
+    /* ----------------------------- helpers ------------------------------ */
+
+    private void cargarSiHaceFalta() {
+        if (cargado) return;
+        synchronized (this) {
+            if (cargado) return;
+            EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+            try {
+                agrupar(em.createQuery(SELECT_VARIANTES + " ORDER BY p.id", Object[].class).getResultList())
+                        .forEach(g -> porNombre.put(g.nombre(), g));
+                cargado = true;
+            } finally {
+                em.close();
+            }
+        }
+    }
+
+    private Grupo consultarGrupo(String nombre) {
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            List<Grupo> grupos = agrupar(em.createQuery(
+                            SELECT_VARIANTES + " WHERE p.nombre = :nombre ORDER BY p.id", Object[].class)
+                    .setParameter("nombre", nombre)
+                    .getResultList());
+            return grupos.isEmpty() ? null : grupos.get(0);
+        } finally {
+            em.close();
+        }
+    }
+
+    /* Filas (nombre, precio, id) ordenadas por id → un grupo por nombre. */
+    private static List<Grupo> agrupar(List<Object[]> filas) {
+        Map<String, List<Object[]>> porNombre = new LinkedHashMap<>();
+        filas.forEach(f -> porNombre.computeIfAbsent((String) f[0], k -> new ArrayList<>()).add(f));
+
+        List<Grupo> grupos = new ArrayList<>(porNombre.size());
+        porNombre.forEach((nombre, variantes) -> grupos.add(new Grupo(
+                nombre,
+                variantes.stream().mapToDouble(f -> ((Number) f[1]).doubleValue()).min().orElse(0),
+                variantes.stream().mapToLong(f -> (Long) f[2]).toArray())));
+        return grupos;
+    }
+
+    /* Datos de catálogo de un grupo; {@code ids} ordenados, el primero hace de representante. */
+    private record Grupo(String nombre, double precioMinimo, long[] ids) {
+        ResumenProducto resumen(IndiceStock indice) {
+            return new ResumenProducto(nombre, precioMinimo, indice.stockTotal(ids), ids.length, ids[0]);
+        }
+    }
+
+    /* --------------------------- value object --------------------------- */
+
+    /**
+     * Datos agregados de un producto y sus variantes.
+     *
+     * @param nombre           nombre compartido por las variantes
+     * @param precioMinimo     menor precio base entre las variantes
+     * @param stockTotal       suma de unidades de todas las variantes
+     * @param variantes        número de variantes
+     * @param idRepresentante  id de una variante, para abrir el producto
+     */
+    public record ResumenProducto(String nombre, double precioMinimo, int stockTotal,
+                                  int variantes, Long idRepresentante) {
+
+        public boolean agotado() { return stockTotal <= 0; }
+    }
+}
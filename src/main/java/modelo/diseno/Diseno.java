@@ -0,0 +1,62 @@
+package modelo.diseno;
+
+import jakarta.persistence.Cacheable;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
+import util.CacheDisenos;
+import util.CacheSegundoNivel;
+import util.CodecDiseno;
+
+import java.util.List;
+
+/**
+ * Diseño de un ítem de pedido, guardado una sola vez por contenido.
+ *
+ * <p>La clave es la {@linkplain CodecDiseno#huella huella} del diseño, así
+ * que todos los ítems con el mismo logo o texto (de cualquier cliente)
+ * comparten la fila. Es inmutable: un diseño distinto es otra fila.</p>
+ */
+@Entity
+@Immutable
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = CacheSegundoNivel.REGION_DISENOS)
+@BatchSize(size = 50)
+public class Diseno {
+
+    /** SHA-256 en hexadecimal del diseño sin comprimir. */
+    @Id
+    @Column(length = 64)
+    private String huella;
+
+    /** Zonas codificadas con {@link CodecDiseno}. */
+    @Column(length = 65_535, nullable = false)
+    private byte[] contenido;
+
+    /** Requerido por JPA. */
+    protected Diseno() { }
+
+    private Diseno(String huella, byte[] contenido) {
+        this.huella    = huella;
+        this.contenido = contenido;
+    }
+
+    /** @return el diseño con esas zonas (aún sin persistir). */
+    public static Diseno de(List<? extends ElementoDiseno> zonas) {
+        return new Diseno(CodecDiseno.huella(zonas), CodecDiseno.codificar(zonas));
+    }
+
+    public String getHuella() { return huella; }
+
+    /** @return las zonas codificadas, tal como se guardan. */
+    public byte[] getContenido() { return contenido.clone(); }
+
+    /** @return las zonas decodificadas, compartidas por todos los ítems con este diseño. */
+    public List<GrupoElementosDiseno> getZonas() {
+        return CacheDisenos.obtenerInstancia().zonas(huella, contenido);
+    }
+}
@@ -2,6 +2,10 @@ package modelo.diseno;
 
 /**
  * Componente base del patrón <em>Composite</em> para elementos de diseño.
+ *
+ * <p>Todas las implementaciones son inmutables y con igualdad por contenido:
+ * un árbol de diseño puede compartirse entre productos, carrito e historial
+ * sin copiarlo.</p>
  */
 public interface ElementoDiseno {
 
@@ -9,9 +13,10 @@ public interface ElementoDiseno {
     double obtenerPrecioAdicional();
 
     /**
-     * Crea una copia profunda del elemento.
+     * Copia del elemento. Al ser inmutables basta con devolver la propia
+     * instancia, así que clonar un árbol es O(1).
      *
-     * @return clon independiente de la instancia original
+     * @return elemento equivalente al original
      */
     ElementoDiseno clonar();
 }
@@ -1,9 +1,12 @@
 package modelo.diseno;
 
+import java.util.Objects;
+
 /**
- * Hoja concreta del <em>Composite</em> que representa una imagen.
+ * Hoja concreta del <em>Composite</em> que representa una imagen. Inmutable;
+ * la igualdad es por contenido.
  */
-public class ElementoImagen implements ElementoDiseno {
+public final class ElementoImagen implements ElementoDiseno {
 
     private final String urlImagen;
     private final String descripcion;
@@ -23,8 +26,22 @@ public class ElementoImagen implements ElementoDiseno {
         return precioExtra;
     }
 
+    /** Inmutable: la copia es la propia instancia. */
     @Override
     public ElementoDiseno clonar() {
-        return new ElementoImagen(urlImagen, descripcion, precioExtra);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof ElementoImagen i
+                && Double.compare(precioExtra, i.precioExtra) == 0
+                && Objects.equals(urlImagen, i.urlImagen)
+                && Objects.equals(descripcion, i.descripcion);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(urlImagen, descripcion, precioExtra);
     }
 }
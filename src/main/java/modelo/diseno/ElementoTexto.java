@@ -1,9 +1,12 @@
 package modelo.diseno;
 
+import java.util.Objects;
+
 /**
- * Hoja concreta del <em>Composite</em> que representa un texto.
+ * Hoja concreta del <em>Composite</em> que representa un texto. Inmutable;
+ * la igualdad es por contenido.
  */
-public class ElementoTexto implements ElementoDiseno {
+public final class ElementoTexto implements ElementoDiseno {
 
     private final String texto;
     private final String fuente;
@@ -26,8 +29,23 @@ public class ElementoTexto implements ElementoDiseno {
         return precioExtra;
     }
 
+    /** Inmutable: la copia es la propia instancia. */
     @Override
     public ElementoDiseno clonar() {
-        return new ElementoTexto(texto, fuente, color, precioExtra);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return this == o || o instanceof ElementoTexto t
+                && Double.compare(precioExtra, t.precioExtra) == 0
+                && Objects.equals(texto, t.texto)
+                && Objects.equals(fuente, t.fuente)
+                && Objects.equals(color, t.color);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(texto, fuente, color, precioExtra);
     }
 }
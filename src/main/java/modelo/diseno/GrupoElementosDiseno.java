@@ -5,11 +5,18 @@ import javafx.geometry.Pos;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Componente compuesto que agrupa varios {@link ElementoDiseno}.
+ *
+ * <p>Es inmutable: {@link #conElemento}, {@link #conElementos} y
+ * {@link #sinElementos} devuelven un grupo nuevo que comparte con el original
+ * todos los hijos que no cambian. El hash de contenido y el precio se
+ * calculan una vez y quedan en caché, así que comparar dos diseños suele
+ * resolverse comparando hashes.</p>
  */
-public class GrupoElementosDiseno implements ElementoDiseno {
+public final class GrupoElementosDiseno implements ElementoDiseno {
 
     /* ----------------------------- metadatos layout ----------------------------- */
     private final String nombreGrupo;
@@ -22,10 +29,15 @@ public class GrupoElementosDiseno implements ElementoDiseno {
     private final double ajusteY;      // desplazamiento Y
     private final double escalaContenido;
 
-    private Pos alineacion = Pos.CENTER;
+    private final Pos alineacion;
 
     /* -------------------------------- elementos -------------------------------- */
-    private final List<ElementoDiseno> elementos = new ArrayList<>();
+    private final List<ElementoDiseno> elementos;
+
+    /* ------------------------- cachés (no se serializan) ------------------------ */
+    // Se calculan al primer uso: Gson crea instancias sin pasar por el constructor
+    private transient int    hash;
+    private transient Double precio;
 
     /* --------------------------------- ctor(s) --------------------------------- */
     public GrupoElementosDiseno(String nombre,
@@ -46,6 +58,15 @@ public class GrupoElementosDiseno implements ElementoDiseno {
                                 double w, double h,
                                 double ajusteX, double ajusteY,
                                 double escala) {
+        this(nombre, x, y, w, h, ajusteX, ajusteY, escala, Pos.CENTER, List.of());
+    }
+
+    private GrupoElementosDiseno(String nombre,
+                                 double x, double y,
+                                 double w, double h,
+                                 double ajusteX, double ajusteY,
+                                 double escala, Pos alineacion,
+                                 List<ElementoDiseno> elementos) {
         this.nombreGrupo      = nombre;
         this.layoutX          = x;
         this.layoutY          = y;
@@ -54,6 +75,19 @@ public class GrupoElementosDiseno implements ElementoDiseno {
         this.ajusteX          = ajusteX;
         this.ajusteY          = ajusteY;
         this.escalaContenido  = escala;
+        this.alineacion       = alineacion;
+        this.elementos        = elementos;
+    }
+
+    /** Reconstruye un grupo con todos sus campos (lo usa la deserialización). */
+    public static GrupoElementosDiseno de(String nombre,
+                                          double x, double y,
+                                          double w, double h,
+                                          double ajusteX, double ajusteY,
+                                          double escala, Pos alineacion,
+                                          List<? extends ElementoDiseno> elementos) {
+        return new GrupoElementosDiseno(nombre, x, y, w, h, ajusteX, ajusteY, escala,
+                alineacion, List.copyOf(elementos));
     }
 
     /* ----------------------------- getters layout ------------------------------ */
@@ -69,16 +103,23 @@ public class GrupoElementosDiseno implements ElementoDiseno {
 
     /* --------------------------------- API ------------------------------------- */
 
-    /** Añade un componente (hoja o compuesto) al grupo. */
-    public void anadirElemento(ElementoDiseno elemento) {
-        if (elemento != null) {
-            elementos.add(elemento);
-        }
+    /** @return un grupo igual a este con {@code elemento} añadido al final. */
+    public GrupoElementosDiseno conElemento(ElementoDiseno elemento) {
+        if (elemento == null) return this;
+        List<ElementoDiseno> nuevos = new ArrayList<>(elementos.size() + 1);
+        nuevos.addAll(elementos);
+        nuevos.add(elemento);
+        return conLista(Collections.unmodifiableList(nuevos));
+    }
+
+    /** @return un grupo con el mismo layout y exactamente estos elementos. */
+    public GrupoElementosDiseno conElementos(List<? extends ElementoDiseno> nuevos) {
+        return conLista(List.copyOf(nuevos));
     }
 
-    /** Elimina todos los elementos del grupo. */
-    public void limpiarElementos() {
-        elementos.clear();
+    /** @return un grupo con el mismo layout y sin elementos. */
+    public GrupoElementosDiseno sinElementos() {
+        return elementos.isEmpty() ? this : conLista(List.of());
     }
 
     /** @return vista de solo lectura de los elementos del grupo. */
@@ -90,21 +131,55 @@ public class GrupoElementosDiseno implements ElementoDiseno {
 
     @Override
     public double obtenerPrecioAdicional() {
-        return elementos.stream()
-                .mapToDouble(ElementoDiseno::obtenerPrecioAdicional)
-                .sum();
+        Double p = precio;
+        if (p == null) {
+            p = elementos.stream()
+                    .mapToDouble(ElementoDiseno::obtenerPrecioAdicional)
+                    .sum();
+            precio = p;
+        }
+        return p;
     }
 
+    /** Inmutable: la copia es la propia instancia. */
     @Override
     public ElementoDiseno clonar() {
-        GrupoElementosDiseno clon = new GrupoElementosDiseno(
-                nombreGrupo, layoutX, layoutY,
-                prefWidth, prefHeight,
-                ajusteX, ajusteY,
-                escalaContenido);
-
-        clon.alineacion = this.alineacion;
-        elementos.forEach(e -> clon.anadirElemento(e.clonar()));
-        return clon;
+        return this;
+    }
+
+    /* --------------------------------- igualdad -------------------------------- */
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof GrupoElementosDiseno g) || hashCode() != g.hashCode()) return false;
+        return Double.compare(layoutX, g.layoutX) == 0
+                && Double.compare(layoutY, g.layoutY) == 0
+                && Double.compare(prefWidth, g.prefWidth) == 0
+                && Double.compare(prefHeight, g.prefHeight) == 0
+                && Double.compare(ajusteX, g.ajusteX) == 0
+                && Double.compare(ajusteY, g.ajusteY) == 0
+                && Double.compare(escalaContenido, g.escalaContenido) == 0
+                && Objects.equals(nombreGrupo, g.nombreGrupo)
+                && alineacion == g.alineacion
+                && elementos.equals(g.elementos);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            h = Objects.hash(nombreGrupo, layoutX, layoutY, prefWidth, prefHeight,
+                    ajusteX, ajusteY, escalaContenido, alineacion, elementos);
+            hash = h;
+        }
+        return h;
+    }
+
+    /* --------------------------------- helpers --------------------------------- */
+
+    private GrupoElementosDiseno conLista(List<ElementoDiseno> nuevos) {
+        return new GrupoElementosDiseno(nombreGrupo, layoutX, layoutY, prefWidth, prefHeight,
+                ajusteX, ajusteY, escalaContenido, alineacion, nuevos);
     }
 }
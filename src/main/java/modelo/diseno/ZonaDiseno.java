@@ -0,0 +1,54 @@
+package modelo.diseno;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Catálogo de zonas de diseño predefinidas de cada tipo de producto.
+ *
+ * <p>Cada zona es una plantilla {@link GrupoElementosDiseno} sin elementos.
+ * El {@code id} se guarda en los pedidos en lugar del layout completo, así
+ * que es permanente: si el layout de una zona cambia, debe añadirse una
+ * constante nueva con otro id y conservar la antigua.</p>
+ */
+public enum ZonaDiseno {
+
+    CAMISETA_FRENTE(1,
+            new GrupoElementosDiseno("Frente", 0.72, 0.50, 0.45, 0.25, -40, -35)),
+    CHAQUETA_PECHO_IZQUIERDO(2,
+            new GrupoElementosDiseno("Pecho Izquierdo", 0.48, 0.56, 0.22, 0.22, -14, -37)),
+    PANTALON_MUSLO_DERECHO(3,
+            new GrupoElementosDiseno("Muslo Derecho", 1.36, 0.60, 0.20, 0.35, -141, -15, 0.7));
+
+    private static final Map<Integer, ZonaDiseno>              POR_ID     = new HashMap<>();
+    private static final Map<GrupoElementosDiseno, ZonaDiseno> POR_LAYOUT = new HashMap<>();
+    static {
+        for (ZonaDiseno z : values()) {
+            if (POR_ID.put(z.id, z) != null) throw new ExceptionInInitializerError("Id de zona repetido: " + z.id);
+            POR_LAYOUT.put(z.plantilla, z);
+        }
+    }
+
+    private final int id;
+    private final GrupoElementosDiseno plantilla;
+
+    ZonaDiseno(int id, GrupoElementosDiseno plantilla) {
+        this.id        = id;
+        this.plantilla = plantilla;
+    }
+
+    public int id() { return id; }
+
+    /** @return la zona vacía (inmutable, se puede compartir). */
+    public GrupoElementosDiseno plantilla() { return plantilla; }
+
+    /** @return la zona con ese id, o {@code null} si no existe. */
+    public static ZonaDiseno porId(int id) {
+        return POR_ID.get(id);
+    }
+
+    /** @return la zona cuyo layout coincide con el de {@code grupo}, o {@code null}. */
+    public static ZonaDiseno deLayout(GrupoElementosDiseno grupo) {
+        return POR_LAYOUT.get(grupo.sinElementos());
+    }
+}
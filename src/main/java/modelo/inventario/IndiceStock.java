@@ -0,0 +1,573 @@
+package modelo.inventario;
+
+import jakarta.persistence.EntityManager;
+import modelo.inventario.RegistroIntencionesStock.Intencion;
+import modelo.inventario.RegistroIntencionesStock.Tipo;
+import org.hibernate.query.NativeQuery;
+import util.AppLogic;
+import util.GestorJPA;
+import util.MapaLongInt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Stock autoritativo en memoria, indexado por id de producto.
+ *
+ * <p><b>Lecturas</b>: sin bloqueo. El índice {@code id → celda} es un
+ * {@link MapaLongInt} inmutable publicado en un campo {@code volatile}; solo
+ * se reconstruye cuando aparece o desaparece un producto.</p>
+ *
+ * <p><b>Escrituras</b>: atómicas por producto (CAS sobre la celda). Cada
+ * cambio aceptado se anota en el {@link RegistroIntencionesStock} y se fuerza
+ * a disco antes de devolver, y queda en la cola de pendientes de volcar.</p>
+ *
+ * <p><b>Persistencia diferida</b>: un hilo vuelca cada
+ * {@link AppLogic.STOCK#RETRASO_MAX_MS} ms los cambios pendientes con
+ * {@code UPDATE ... cantidad = cantidad + delta} y, en la misma transacción,
+ * anota en {@code registro_stock} la última secuencia aplicada. Se vuelcan en
+ * orden de secuencia y el volcado se detiene en la primera reserva de un
+ * pedido aún sin confirmar ({@link #confirmar}) ni liberar ({@link #liberar}):
+ * la BD nunca descuenta unidades de un pedido que no existe y la marca nunca
+ * deja atrás una intención sin aplicar.</p>
+ *
+ * <p><b>Recuperación</b>: al arrancar se aplican las intenciones del registro
+ * posteriores a esa marca. Los ajustes y las liberaciones se aplican siempre;
+ * las reservas, solo si su pedido se guardó o se liberó (en cuyo caso la
+ * liberación las compensa).</p>
+ *
+ * <p><b>Un solo proceso</b>: este índice es la fuente de verdad del stock, así
+ * que dos instancias de la aplicación sobre la misma BD venderían cada una su
+ * propia copia. El registro se abre con un bloqueo exclusivo para impedirlo;
+ * {@code AUTO_SERVER} solo sirve para herramientas de consulta externas.</p>
+ */
+public final class IndiceStock {
+
+    private static final Logger LOGGER = Logger.getLogger(IndiceStock.class.getName());
+
+    private static IndiceStock instancia;
+
+    /* ------------------------------ estado ------------------------------ */
+
+    private static final class Celda {
+        final long          productoId;
+        final AtomicInteger stock;
+
+        Celda(long productoId, int stock) {
+            this.productoId = productoId;
+            this.stock      = new AtomicInteger(stock);
+        }
+    }
+
+    /* Cambio anotado en el registro y aún no volcado a la BD */
+    private static final class Pendiente {
+        final long    secuencia;   // la de su última entrada en el registro
+        final Celda[] celdas;
+        final int[]   deltas;
+        boolean listo;             // se puede volcar; protegido por cerrojo
+
+        Pendiente(long secuencia, Celda[] celdas, int[] deltas, boolean listo) {
+            this.secuencia = secuencia;
+            this.celdas    = celdas;
+            this.deltas    = deltas;
+            this.listo     = listo;
+        }
+    }
+
+    private record Tabla(MapaLongInt posiciones, Celda[] celdas) {
+        static Tabla de(Celda[] celdas) {
+            long[] ids = new long[celdas.length];
+            int[]  pos = new int[celdas.length];
+            for (int i = 0; i < celdas.length; i++) {
+                ids[i] = celdas[i].productoId;
+                pos[i] = i;
+            }
+            return new Tabla(MapaLongInt.de(ids, pos), celdas);
+        }
+
+        Celda celda(long productoId) {
+            int i = posiciones.obtener(productoId, -1);
+            return i < 0 ? null : celdas[i];
+        }
+    }
+
+    /**
+     * Resultado de {@link #reservar}: o el stock que queda de cada producto
+     * o el primer producto sin unidades suficientes.
+     */
+    public record Reserva(Map<Long, Integer> stockResultante, Long productoSinStock) {
+        public boolean confirmada() { return productoSinStock == null; }
+    }
+
+    private volatile Tabla tabla;
+
+    /* Serializa el registro, los pendientes y los cambios de tabla */
+    private final Object cerrojo = new Object();
+    private final ArrayDeque<Pendiente> pendientes = new ArrayDeque<>();   // en orden de secuencia
+    private final Map<String, Pendiente> reservasAbiertas = new HashMap<>();
+
+    /* Un único volcado a la vez (el periódico o el del cierre) */
+    private final Object cerrojoVolcado = new Object();
+
+    private final RegistroIntencionesStock registro;
+    private final ScheduledExecutorService volcador;
+
+    private IndiceStock() {
+        try {
+            registro = new RegistroIntencionesStock(Path.of(AppLogic.STOCK.RUTA_REGISTRO));
+        } catch (IOException ex) {
+            throw new UncheckedIOException("No se pudo abrir el registro de stock", ex);
+        }
+        try {
+            recuperar();
+        } catch (IOException | RuntimeException ex) {
+            try {
+                registro.close();   // suelta el bloqueo para poder reintentar
+            } catch (IOException cierre) {
+                ex.addSuppressed(cierre);
+            }
+            if (ex instanceof IOException io) throw new UncheckedIOException("No se pudo recuperar el registro de stock", io);
+            throw (RuntimeException) ex;
+        }
+        tabla = cargar();
+
+        volcador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-volcado");
+            t.setDaemon(true);
+            return t;
+        });
+        volcador.scheduleWithFixedDelay(this::volcarProgramado,
+                AppLogic.STOCK.RETRASO_MAX_MS, AppLogic.STOCK.RETRASO_MAX_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /** @return instancia única; la primera llamada recupera el registro y carga el stock. */
+    public static synchronized IndiceStock obtenerInstancia() {
+        if (instancia == null) {
+            instancia = new IndiceStock();
+        }
+        return instancia;
+    }
+
+    /** Vuelca lo pendiente y cierra el registro. No hace nada si el índice no se llegó a usar. */
+    public static synchronized void shutdown() {
+        if (instancia == null) return;
+        instancia.cerrar();
+        instancia = null;
+    }
+
+    /* ----------------------------- lectura ------------------------------ */
+
+    /** @return unidades del producto (0 si no tiene registro de inventario). */
+    public int stock(long productoId) {
+        Celda c = tabla.celda(productoId);
+        return c == null ? 0 : c.stock.get();
+    }
+
+    /** @return suma de las unidades de los productos indicados. */
+    public int stockTotal(long[] productoIds) {
+        Tabla t = tabla;
+        int total = 0;
+        for (long id : productoIds) {
+            Celda c = t.celda(id);
+            if (c != null) total += c.stock.get();
+        }
+        return total;
+    }
+
+    /* ---------------------------- escritura ----------------------------- */
+
+    /**
+     * Descuenta unidades de varios productos de forma atómica en conjunto:
+     * si alguno no tiene suficientes no se descuenta ninguno.
+     *
+     * @param unidades unidades por id de producto
+     * @param pedido   pedido al que pertenece la reserva, o {@code null} para
+     *                 un descuento suelto. Con pedido, la reserva no se vuelca
+     *                 hasta llamar a {@link #confirmar} (pedido guardado) o a
+     *                 {@link #liberar} (no se guardó); hay que llamar siempre
+     *                 a uno de los dos
+     * @throws UncheckedIOException si no se pudo anotar en el registro (el
+     *         stock queda como estaba)
+     */
+    public Reserva reservar(Map<Long, Integer> unidades, String pedido) {
+        // Orden estable (id ascendente) de las entradas en el registro
+        SortedMap<Long, Integer> ordenadas = new TreeMap<>(unidades);
+        Tabla t = tabla;
+        Celda[] tomadas = new Celda[ordenadas.size()];
+        int[]   deltas  = new int[ordenadas.size()];
+        Map<Long, Integer> resultado = new LinkedHashMap<>();
+
+        int n = 0;
+        for (Map.Entry<Long, Integer> e : ordenadas.entrySet()) {
+            Celda c = t.celda(e.getKey());
+            int restante = c == null ? -1 : tomar(c, e.getValue());
+            if (restante < 0) {
+                devolver(tomadas, deltas, n);
+                return new Reserva(Map.of(), e.getKey());
+            }
+            tomadas[n] = c;
+            deltas[n]  = -e.getValue();
+            resultado.put(e.getKey(), restante);
+            n++;
+        }
+
+        try {
+            anotar(tomadas, deltas, pedido == null ? Tipo.AJUSTE : Tipo.RESERVA, pedido);
+        } catch (UncheckedIOException ex) {
+            devolver(tomadas, deltas, n);
+            throw ex;
+        }
+        return new Reserva(Collections.unmodifiableMap(resultado), null);
+    }
+
+    /** Marca como guardado el pedido de una reserva: sus unidades ya se pueden volcar. */
+    public void confirmar(String pedido) {
+        synchronized (cerrojo) {
+            Pendiente reserva = reservasAbiertas.remove(pedido);
+            if (reserva != null) reserva.listo = true;
+        }
+    }
+
+    /**
+     * Devuelve al stock las unidades de una reserva cuyo pedido no se guardó.
+     * La devolución se anota como liberación, que se aplica siempre al
+     * recuperar, y deja volcar la reserva junto con ella. No falla si el
+     * fsync falla: sin la liberación en disco, la reserva tampoco se aplica.
+     */
+    public void liberar(Map<Long, Integer> unidades, String pedido) {
+        Tabla t = tabla;
+        List<Celda> celdas = new ArrayList<>();
+        List<Integer> deltas = new ArrayList<>();
+        new TreeMap<>(unidades).forEach((id, cantidad) -> {
+            Celda c = t.celda(id);
+            if (c == null) return;
+            c.stock.addAndGet(cantidad);
+            celdas.add(c);
+            deltas.add(cantidad);
+        });
+        anotar(celdas.toArray(Celda[]::new), deltas.stream().mapToInt(Integer::intValue).toArray(),
+                Tipo.LIBERACION, pedido);
+    }
+
+    /** @return stock resultante, o vacío si no hay unidades suficientes o el producto no tiene inventario. */
+    public OptionalInt decrementar(long productoId, int cantidad) {
+        Reserva r = reservar(Map.of(productoId, cantidad), null);
+        return r.confirmada() ? OptionalInt.of(r.stockResultante().get(productoId)) : OptionalInt.empty();
+    }
+
+    /** @return stock resultante, o vacío si el producto no tiene inventario. */
+    public OptionalInt incrementar(long productoId, int cantidad) {
+        Celda c = tabla.celda(productoId);
+        if (c == null) return OptionalInt.empty();
+        int nuevo = c.stock.addAndGet(cantidad);
+        anotarODeshacer(c, cantidad);
+        return OptionalInt.of(nuevo);
+    }
+
+    /** Fija las unidades de un producto (edición manual del inventario). */
+    public OptionalInt fijar(long productoId, int cantidad) {
+        Celda c = tabla.celda(productoId);
+        if (c == null) return OptionalInt.empty();
+        int delta = cantidad - c.stock.getAndSet(cantidad);
+        if (delta != 0) anotarODeshacer(c, delta);
+        return OptionalInt.of(cantidad);
+    }
+
+    /**
+     * Da de alta un producto cuyo registro de inventario acaba de insertarse
+     * en la BD (la cantidad ya está persistida, no queda delta pendiente).
+     */
+    public void registrar(long productoId, int cantidad) {
+        synchronized (cerrojo) {
+            Tabla t = tabla;
+            if (t.celda(productoId) != null) return;
+            Celda[] celdas = Arrays.copyOf(t.celdas(), t.celdas().length + 1);
+            celdas[celdas.length - 1] = new Celda(productoId, cantidad);
+            tabla = Tabla.de(celdas);
+        }
+    }
+
+    /** Da de baja un producto eliminado del catálogo. */
+    public void olvidar(long productoId) {
+        synchronized (cerrojo) {
+            Tabla t = tabla;
+            if (t.celda(productoId) == null) return;
+            tabla = Tabla.de(Arrays.stream(t.celdas())
+                    .filter(c -> c.productoId != productoId)
+                    .toArray(Celda[]::new));
+        }
+    }
+
+    /* ----------------------------- volcado ------------------------------ */
+
+    /**
+     * Aplica en la BD los deltas pendientes. Lo llama el hilo de volcado; es
+     * público para forzarlo (p. ej. antes de una copia de seguridad).
+     */
+    public void volcar() {
+        synchronized (cerrojoVolcado) {
+            List<Pendiente> lote = new ArrayList<>();
+            synchronized (cerrojo) {
+                // En orden: lo posterior a una reserva abierta espera a que se resuelva
+                while (!pendientes.isEmpty() && pendientes.peekFirst().listo) {
+                    lote.add(pendientes.pollFirst());
+                }
+            }
+            if (lote.isEmpty()) return;
+            long hasta = lote.get(lote.size() - 1).secuencia;
+
+            try {
+                aplicarEnBD(lote, hasta);
+            } catch (RuntimeException ex) {
+                // Se reintentará en el siguiente ciclo; la marca no se movió
+                synchronized (cerrojo) {
+                    for (int i = lote.size() - 1; i >= 0; i--) pendientes.addFirst(lote.get(i));
+                }
+                throw ex;
+            }
+
+            synchronized (cerrojo) {
+                try {
+                    if (registro.ultimaSecuencia() == hasta && registro.tamano() > AppLogic.STOCK.TAMANO_MAX_REGISTRO) {
+                        registro.vaciar(hasta);
+                    }
+                } catch (IOException ex) {
+                    LOGGER.log(Level.WARNING, "No se pudo compactar el registro de stock", ex);
+                }
+            }
+        }
+    }
+
+    /* ----------------------------- helpers ------------------------------ */
+
+    /* @return stock restante, o -1 si no había unidades suficientes. */
+    private static int tomar(Celda c, int cantidad) {
+        while (true) {
+            int actual = c.stock.get();
+            if (actual < cantidad) return -1;
+            if (c.stock.compareAndSet(actual, actual - cantidad)) return actual - cantidad;
+        }
+    }
+
+    private static void devolver(Celda[] celdas, int[] deltas, int n) {
+        for (int i = 0; i < n; i++) celdas[i].stock.addAndGet(-deltas[i]);
+    }
+
+    private void anotarODeshacer(Celda c, int delta) {
+        try {
+            anotar(new Celda[] { c }, new int[] { delta }, Tipo.AJUSTE, null);
+        } catch (UncheckedIOException ex) {
+            c.stock.addAndGet(-delta);
+            throw ex;
+        }
+    }
+
+    /*
+     * Anota los deltas en el registro y los encola para volcar, todo bajo el
+     * cerrojo para que el orden de la cola sea el de las secuencias. Una
+     * reserva de pedido queda abierta (no se vuelca) hasta confirmarla o
+     * liberarla; la liberación cierra su reserva en el mismo paso. El fsync se
+     * hace fuera y se agrupa entre hilos.
+     */
+    private void anotar(Celda[] celdas, int[] deltas, Tipo tipo, String pedido) {
+        long[] ids = new long[celdas.length];
+        for (int i = 0; i < celdas.length; i++) ids[i] = celdas[i].productoId;
+
+        long secuencia;
+        synchronized (cerrojo) {
+            if (tipo == Tipo.LIBERACION) {
+                Pendiente reserva = reservasAbiertas.remove(pedido);
+                if (reserva != null) reserva.listo = true;
+            }
+            if (celdas.length == 0) return;
+            try {
+                secuencia = registro.anotar(ids, deltas, tipo, pedido);
+            } catch (IOException ex) {
+                throw new UncheckedIOException("No se pudo anotar el cambio de stock", ex);
+            }
+            Pendiente p = new Pendiente(secuencia, celdas, deltas, tipo != Tipo.RESERVA);
+            pendientes.addLast(p);
+            if (tipo == Tipo.RESERVA) reservasAbiertas.put(pedido, p);
+        }
+
+        try {
+            registro.sincronizar(secuencia);
+        } catch (IOException ex) {
+            if (tipo == Tipo.LIBERACION) {
+                // Sin ella en disco la reserva tampoco se aplica al recuperar: su pedido no se guardó
+                LOGGER.log(Level.WARNING, "No se pudo forzar a disco la liberación del pedido " + pedido, ex);
+                return;
+            }
+            anular(ids, celdas, deltas, tipo, pedido);
+            throw new UncheckedIOException("No se pudo forzar a disco el cambio de stock", ex);
+        }
+    }
+
+    /*
+     * Un cambio sin fsync no es duradero: el llamador lo deshace en memoria al
+     * recibir la excepción. Aquí se encola su inverso, que el volcado aplica
+     * junto con él, y se anota si se puede, por si el original sí llegó al
+     * disco. Una reserva se anula con su liberación.
+     */
+    private void anular(long[] ids, Celda[] celdas, int[] deltas, Tipo tipo, String pedido) {
+        int[] inversos = Arrays.stream(deltas).map(d -> -d).toArray();
+        synchronized (cerrojo) {
+            if (tipo == Tipo.RESERVA) {
+                Pendiente reserva = reservasAbiertas.remove(pedido);
+                if (reserva != null) reserva.listo = true;
+            }
+            long secuencia;
+            try {
+                secuencia = registro.anotar(ids, inversos, tipo == Tipo.RESERVA ? Tipo.LIBERACION : Tipo.AJUSTE, pedido);
+            } catch (IOException ex) {
+                LOGGER.log(Level.SEVERE, "No se pudo anotar la anulación de un cambio de stock", ex);
+                secuencia = registro.ultimaSecuencia();
+            }
+            pendientes.addLast(new Pendiente(secuencia, celdas, inversos, true));
+        }
+    }
+
+    private static void aplicarEnBD(List<Pendiente> lote, long hasta) {
+        Map<Long, Integer> porProducto = new TreeMap<>();
+        for (Pendiente p : lote) {
+            for (int i = 0; i < p.celdas.length; i++) {
+                porProducto.merge(p.celdas[i].productoId, p.deltas[i], Integer::sum);
+            }
+        }
+        porProducto.values().removeIf(delta -> delta == 0);
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            em.getTransaction().begin();
+            aplicarDeltas(em, porProducto);
+            marcarAplicado(em, hasta);
+            em.getTransaction().commit();
+        } catch (RuntimeException ex) {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+            throw ex;
+        } finally {
+            em.close();
+        }
+    }
+
+    private static void aplicarDeltas(EntityManager em, Map<Long, Integer> porProducto) {
+        porProducto.forEach((id, delta) -> em.createQuery(
+                        "UPDATE Inventario i SET i.cantidad = i.cantidad + :delta WHERE i.producto.id = :id")
+                .setParameter("delta", delta)
+                .setParameter("id", id)
+                .executeUpdate());
+    }
+
+    private static void marcarAplicado(EntityManager em, long secuencia) {
+        em.createNativeQuery("UPDATE registro_stock SET ultima_secuencia = ?1 WHERE id = 1")
+                .setParameter(1, secuencia)
+                .unwrap(NativeQuery.class)
+                .addSynchronizedQuerySpace("registro_stock")   // no invalida el resto de la caché L2
+                .executeUpdate();
+    }
+
+    private void volcarProgramado() {
+        try {
+            volcar();
+        } catch (Exception ex) {
+            LOGGER.log(Level.WARNING, "Volcado de stock fallido; se reintentará", ex);
+        }
+    }
+
+    /*
+     * Aplica las intenciones del registro que no llegaron a volcarse antes de
+     * la última parada. Una reserva sin pedido guardado ni liberación es de un
+     * checkout que no llegó a confirmarse: se descarta.
+     */
+    private void recuperar() throws IOException {
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        long aplicada;
+        try {
+            em.getTransaction().begin();
+            aplicada = ((Number) em.createNativeQuery("SELECT ultima_secuencia FROM registro_stock WHERE id = 1")
+                    .getSingleResult()).longValue();
+
+            List<Intencion> sinAplicar = registro.intencionesAlAbrir().stream()
+                    .filter(i -> i.secuencia() > aplicada)
+                    .toList();
+            if (!sinAplicar.isEmpty()) {
+                Set<String> guardados = pedidosGuardados(em, sinAplicar);
+                Set<String> liberados = sinAplicar.stream()
+                        .filter(i -> i.tipo() == Tipo.LIBERACION)
+                        .map(Intencion::pedido)
+                        .collect(Collectors.toSet());
+                Map<Long, Integer> porProducto = new TreeMap<>();
+                sinAplicar.stream()
+                        .filter(i -> i.tipo() != Tipo.RESERVA
+                                || guardados.contains(i.pedido()) || liberados.contains(i.pedido()))
+                        .forEach(i -> porProducto.merge(i.productoId(), i.delta(), Integer::sum));
+
+                aplicarDeltas(em, porProducto);
+                long ultima = sinAplicar.get(sinAplicar.size() - 1).secuencia();
+                marcarAplicado(em, ultima);
+                LOGGER.info(() -> "Stock recuperado del registro: %d intenciones (hasta la secuencia %d)"
+                        .formatted(sinAplicar.size(), ultima));
+            }
+            em.getTransaction().commit();
+        } catch (RuntimeException ex) {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+            throw ex;
+        } finally {
+            em.close();
+        }
+        registro.vaciar(Math.max(aplicada, registro.ultimaSecuencia()));
+    }
+
+    private static Set<String> pedidosGuardados(EntityManager em, List<Intencion> intenciones) {
+        Set<String> ids = intenciones.stream()
+                .filter(i -> i.tipo() == Tipo.RESERVA)
+                .map(Intencion::pedido)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (ids.isEmpty()) return Set.of();
+        return new HashSet<>(em.createQuery("SELECT p.idPedido FROM Pedido p WHERE p.idPedido IN :ids", String.class)
+                .setParameter("ids", ids)
+                .getResultList());
+    }
+
+    private static Tabla cargar() {
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            return Tabla.de(em.createQuery("SELECT i.producto.id, i.cantidad FROM Inventario i", Object[].class)
+                    .getResultStream()
+                    .map(f -> new Celda((Long) f[0], (Integer) f[1]))
+                    .toArray(Celda[]::new));
+        } finally {
+            em.close();
+        }
+    }
+
+    private void cerrar() {
+        volcador.shutdown();
+        try {
+            volcador.awaitTermination(2, TimeUnit.SECONDS);
+            volcar();
+            synchronized (cerrojo) {
+                if (pendientes.isEmpty()) registro.vaciar(registro.ultimaSecuencia());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (Exception ex) {
+            LOGGER.log(Level.SEVERE, "No se pudo volcar el stock al cerrar; se recuperará del registro", ex);
+        } finally {
+            try {
+                registro.close();
+            } catch (IOException ex) {
+                LOGGER.log(Level.WARNING, "Error al cerrar el registro de stock", ex);
+            }
+        }
+    }
+}
@@ -2,6 +2,10 @@ package modelo.inventario;
 
 import jakarta.persistence.*;
 import modelo.producto.ProductoBase;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import util.AppLogic;
+import util.CacheSegundoNivel;
 
 /**
  * Entidad JPA que refleja las existencias de un {@link ProductoBase}.
@@ -10,10 +14,14 @@ import modelo.producto.ProductoBase;
  * disponible en stock.</p>
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheSegundoNivel.REGION_INVENTARIO)
 public class Inventario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seqInventario")
+    @SequenceGenerator(name = "seqInventario", sequenceName = "inventario_seq",
+                       allocationSize = AppLogic.BD.BLOQUE_IDS)
     private Long id;
 
     @OneToOne
@@ -0,0 +1,234 @@
+package modelo.inventario;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * Registro de intenciones de cambio de stock en disco (solo anexado).
+ *
+ * <p>Cada cambio aceptado por {@link IndiceStock} se escribe aquí antes de
+ * confirmarse al llamador, así que sobrevive a una caída aunque el volcado a
+ * la BD aún no haya ocurrido. El fichero empieza con {@link #MAGICO} y cada
+ * entrada tiene el formato:</p>
+ * <pre>
+ *   int  longitud de la carga
+ *   long secuencia | long productoId | int delta | byte tipo | short n | n bytes UTF-8 del pedido
+ *   int  CRC32 de la carga
+ * </pre>
+ * <p>Una entrada incompleta o con CRC incorrecto al final del fichero (escritura
+ * cortada por la caída) se descarta al abrirlo. Un fichero sin cabecera es del
+ * formato anterior, sin {@code tipo}: se lee deduciéndolo del pedido y del
+ * signo del delta.</p>
+ *
+ * <p>El fichero se abre con un bloqueo exclusivo: otro proceso con el mismo
+ * registro no puede arrancar. Las escrituras las serializa
+ * {@link IndiceStock}; {@link #sincronizar} puede llamarse desde varios hilos
+ * y agrupa sus {@code fsync}.</p>
+ */
+final class RegistroIntencionesStock implements Closeable {
+
+    private static final Logger LOGGER = Logger.getLogger(RegistroIntencionesStock.class.getName());
+
+    /** "FST2": cabecera del formato con tipo de intención. */
+    static final int MAGICO = 0x46535432;
+
+    private static final int CABECERA     = Integer.BYTES;
+    private static final int COLA         = Integer.BYTES;
+    private static final int FIJO_LEGADO  = Long.BYTES + Long.BYTES + Integer.BYTES + Short.BYTES;
+    private static final int FIJO         = FIJO_LEGADO + Byte.BYTES;
+
+    /** Qué representa una intención y cómo se trata al recuperar. */
+    enum Tipo {
+        /** Cambio suelto (reposición, edición manual...): se aplica siempre. */
+        AJUSTE(0),
+        /** Unidades reservadas por un pedido: solo cuentan si el pedido se guardó o se liberó. */
+        RESERVA(1),
+        /** Devolución de una reserva cuyo pedido no se guardó: se aplica siempre. */
+        LIBERACION(2);
+
+        private final byte codigo;
+
+        Tipo(int codigo) { this.codigo = (byte) codigo; }
+
+        static Tipo deCodigo(byte codigo) {
+            for (Tipo t : values()) if (t.codigo == codigo) return t;
+            return null;
+        }
+    }
+
+    /** Entrada del registro; {@code pedido} es {@code null} en los {@link Tipo#AJUSTE}. */
+    record Intencion(long secuencia, long productoId, int delta, Tipo tipo, String pedido) { }
+
+    private final FileChannel canal;
+    private final FileLock bloqueo;
+    private final List<Intencion> leidas;
+
+    private long ultimaSecuencia;
+    private volatile long ultimaEscrita;
+
+    private final Object cerrojoSync = new Object();
+    private long sincronizada;
+
+    RegistroIntencionesStock(Path ruta) throws IOException {
+        canal = FileChannel.open(ruta, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            bloqueo = canal.tryLock();
+            if (bloqueo == null) {
+                throw new IOException("El registro de stock " + ruta + " está en uso por otra instancia de la aplicación");
+            }
+            leidas = leerYReparar();
+        } catch (IOException | RuntimeException ex) {
+            canal.close();
+            throw ex;
+        }
+    }
+
+    /* ----------------------------- lectura ------------------------------ */
+
+    /** @return las entradas válidas que había en el fichero al abrirlo. */
+    List<Intencion> intencionesAlAbrir() { return leidas; }
+
+    long ultimaSecuencia() { return ultimaSecuencia; }
+
+    long tamano() throws IOException { return canal.size(); }
+
+    /* ---------------------------- escritura ----------------------------- */
+
+    /**
+     * Anexa una entrada por producto con secuencias consecutivas. No fuerza
+     * el disco: para eso está {@link #sincronizar(long)}.
+     *
+     * @return secuencia de la última entrada escrita
+     */
+    long anotar(long[] productos, int[] deltas, Tipo tipo, String pedido) throws IOException {
+        byte[] pedidoBytes = pedido == null ? new byte[0] : pedido.getBytes(StandardCharsets.UTF_8);
+        int tamEntrada = CABECERA + FIJO + pedidoBytes.length + COLA;
+        ByteBuffer buf = ByteBuffer.allocate(tamEntrada * productos.length);
+        CRC32 crc = new CRC32();
+
+        long seq = ultimaSecuencia;
+        for (int i = 0; i < productos.length; i++) {
+            int inicio = buf.position() + CABECERA;
+            buf.putInt(FIJO + pedidoBytes.length)
+               .putLong(++seq)
+               .putLong(productos[i])
+               .putInt(deltas[i])
+               .put(tipo.codigo)
+               .putShort((short) pedidoBytes.length)
+               .put(pedidoBytes);
+            crc.reset();
+            crc.update(buf.array(), inicio, buf.position() - inicio);
+            buf.putInt((int) crc.getValue());
+        }
+        buf.flip();
+        while (buf.hasRemaining()) canal.write(buf);
+
+        ultimaSecuencia = seq;
+        ultimaEscrita   = seq;
+        return seq;
+    }
+
+    /**
+     * Garantiza que las entradas hasta {@code secuencia} están en disco. Si
+     * otro hilo ya forzó el disco después de escribirlas no repite el
+     * {@code fsync} (commit agrupado).
+     */
+    void sincronizar(long secuencia) throws IOException {
+        synchronized (cerrojoSync) {
+            if (sincronizada >= secuencia) return;
+            long escrita = ultimaEscrita;
+            canal.force(false);
+            sincronizada = escrita;
+        }
+    }
+
+    /**
+     * Vacía el fichero. Solo debe llamarse cuando todas las entradas ya
+     * están aplicadas en la BD; la numeración continúa desde {@code desde}.
+     */
+    void vaciar(long desde) throws IOException {
+        canal.truncate(0);
+        escribirCabecera();
+        canal.force(true);
+        ultimaSecuencia = Math.max(ultimaSecuencia, desde);
+        ultimaEscrita   = ultimaSecuencia;
+        synchronized (cerrojoSync) {
+            sincronizada = ultimaSecuencia;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();   // libera también el bloqueo
+    }
+
+    /* ----------------------------- helpers ------------------------------ */
+
+    private void escribirCabecera() throws IOException {
+        ByteBuffer cabecera = ByteBuffer.allocate(Integer.BYTES).putInt(MAGICO).flip();
+        canal.position(0);
+        while (cabecera.hasRemaining()) canal.write(cabecera);
+    }
+
+    private List<Intencion> leerYReparar() throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate((int) canal.size());
+        while (buf.hasRemaining() && canal.read(buf, buf.position()) > 0) { }
+        buf.flip();
+
+        if (buf.remaining() == 0) {
+            escribirCabecera();
+            canal.force(true);
+            return List.of();
+        }
+        boolean legado = buf.remaining() < Integer.BYTES || buf.getInt(0) != MAGICO;
+        if (!legado) buf.position(Integer.BYTES);
+        int fijo = legado ? FIJO_LEGADO : FIJO;
+
+        List<Intencion> resultado = new ArrayList<>();
+        CRC32 crc = new CRC32();
+        int valido = buf.position();
+        while (buf.remaining() >= CABECERA) {
+            int longitud = buf.getInt();
+            if (longitud < fijo || buf.remaining() < longitud + COLA) break;
+
+            int inicio = buf.position();
+            crc.reset();
+            crc.update(buf.array(), inicio, longitud);
+            long seq      = buf.getLong();
+            long producto = buf.getLong();
+            int  delta    = buf.getInt();
+            Tipo tipo     = legado ? null : Tipo.deCodigo(buf.get());
+            short n       = buf.getShort();
+            if (n != longitud - fijo || (!legado && tipo == null)) break;
+            byte[] pedidoBytes = new byte[n];
+            buf.get(pedidoBytes);
+            if (buf.getInt() != (int) crc.getValue()) break;
+
+            String pedido = pedidoBytes.length == 0 ? null : new String(pedidoBytes, StandardCharsets.UTF_8);
+            if (legado) tipo = pedido == null ? Tipo.AJUSTE : delta < 0 ? Tipo.RESERVA : Tipo.LIBERACION;
+            resultado.add(new Intencion(seq, producto, delta, tipo, pedido));
+            ultimaSecuencia = seq;
+            valido = buf.position();
+        }
+
+        long sobrante = canal.size() - valido;
+        if (sobrante > 0) {
+            LOGGER.warning(() -> "Registro de stock: se descartan " + sobrante + " bytes finales incompletos");
+            canal.truncate(valido);
+        }
+        canal.position(valido);
+        ultimaEscrita = ultimaSecuencia;
+        sincronizada  = ultimaSecuencia;
+        return List.copyOf(resultado);
+    }
+}
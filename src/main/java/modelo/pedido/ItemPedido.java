@@ -1,18 +1,30 @@
 package modelo.pedido;
 
 import jakarta.persistence.*;
+import modelo.diseno.Diseno;
+import modelo.diseno.ElementoDiseno;
+import modelo.diseno.GrupoElementosDiseno;
 import modelo.producto.ProductoBase;
+import util.AppLogic;
+import util.json.GsonUtil;
+
+import java.util.List;
 
 /**
  * Ítem individual dentro de un {@link Pedido}.
  * <p>Almacena la cantidad, el precio unitario al momento de la compra y la
- * personalización aplicada (en formato JSON).</p>
+ * personalización aplicada como referencia a un {@link Diseno}, compartido
+ * con los demás ítems que llevan el mismo diseño. Los ítems antiguos que la
+ * migración no pudo convertir conservan su JSON y se siguen leyendo.</p>
  */
 @Entity
+@Table(indexes = @Index(name = "idx_itempedido_pedido", columnList = "pedido_id"))
 public class ItemPedido {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seqItemPedido")
+    @SequenceGenerator(name = "seqItemPedido", sequenceName = "itempedido_seq",
+                       allocationSize = AppLogic.BD.BLOQUE_IDS)
     private Long id;
 
     /** Muchos ítems pueden referenciar al mismo producto del catálogo. */
@@ -27,11 +39,20 @@ public class ItemPedido {
     private int    cantidad;
     private double precioUnitario;
 
-    /** JSON con los detalles de personalización. */
+    /** Personalización, direccionada por contenido. */
+    @ManyToOne
+    @JoinColumn(name = "diseno_huella")
+    private Diseno diseno;
+
+    /** Personalización en JSON de ítems antiguos; {@code null} en los nuevos. */
     @Lob
     @Column(length = 2048)
     private String personalizacionJson;
 
+    /* Diseño equivalente al JSON antiguo; nunca se persiste */
+    @Transient
+    private Diseno disenoJson;
+
     /** Constructor por defecto requerido por JPA. */
     public ItemPedido() { }
 
@@ -52,6 +73,28 @@ public class ItemPedido {
     public double getPrecioUnitario()             { return precioUnitario; }
     public void setPrecioUnitario(double precio)  { this.precioUnitario = precio; }
 
-    public String getPersonalizacionJson()        { return personalizacionJson; }
-    public void setPersonalizacionJson(String js) { this.personalizacionJson = js; }
+    /**
+     * @return el diseño del ítem; en ítems antiguos guardados en JSON, un
+     *         diseño equivalente sin persistir
+     */
+    public Diseno getDiseno() {
+        if (diseno != null) return diseno;
+        if (disenoJson == null) disenoJson = Diseno.de(GsonUtil.leerZonas(personalizacionJson));
+        return disenoJson;
+    }
+
+    public void setDiseno(Diseno diseno) {
+        this.diseno              = diseno;
+        this.personalizacionJson = null;
+        this.disenoJson          = null;
+    }
+
+    /** @return las zonas de diseño personalizadas (lista vacía si no hay). */
+    public List<GrupoElementosDiseno> getZonasDiseno() {
+        return getDiseno().getZonas();
+    }
+
+    public void setZonasDiseno(List<? extends ElementoDiseno> zonas) {
+        setDiseno(Diseno.de(zonas));
+    }
 }
@@ -2,6 +2,7 @@ package modelo.pedido;
 
 import jakarta.persistence.*;
 import modelo.usuario.Usuario;
+import org.hibernate.annotations.BatchSize;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -14,6 +15,11 @@ import java.util.List;
  * {@link ConstructorPedido}).</p>
  */
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_pedido_fecha",         columnList = "fechaCreacion, idPedido"),
+        @Index(name = "idx_pedido_estado_fecha",  columnList = "estado, fechaCreacion, idPedido"),
+        @Index(name = "idx_pedido_usuario_fecha", columnList = "usuario_id, fechaCreacion, idPedido")
+})
 public class Pedido {
 
     /* ------------------------------ atributos ------------------------------------ */
@@ -29,6 +35,7 @@ public class Pedido {
             cascade = CascadeType.ALL,
             orphanRemoval = true,
             mappedBy = "pedido")
+    @BatchSize(size = 50)
     private List<ItemPedido> items = new ArrayList<>();
 
     private String        direccionEnvio;
@@ -2,6 +2,10 @@ package modelo.producto;
 
 import jakarta.persistence.*;
 import modelo.diseno.ElementoDiseno;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import util.AppLogic;
+import util.CacheSegundoNivel;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -12,14 +16,23 @@ import java.util.List;
  * Gestiona el precio base, la descripción y las personalizaciones mediante
  * composición con {@link ElementoDiseno}.
  * </p>
+ * <p>
+ * Se almacena en la caché de segundo nivel: las subclases comparten la región
+ * de la raíz de la jerarquía.
+ * </p>
  */
 @Entity
+@Table(indexes = @Index(name = "idx_productobase_nombre", columnList = "nombre"))
 @Inheritance(strategy = InheritanceType.JOINED)
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheSegundoNivel.REGION_PRODUCTOS)
 public abstract class ProductoBase implements Producto, Cloneable {
 
     /* ----------------------------- campos JPA ----------------------------- */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seqProductoBase")
+    @SequenceGenerator(name = "seqProductoBase", sequenceName = "productobase_seq",
+                       allocationSize = AppLogic.BD.BLOQUE_IDS)
     private Long id;
 
     protected String nombre;
@@ -29,8 +42,9 @@ public abstract class ProductoBase implements Producto, Cloneable {
     protected String descripcion;
 
     /* ----------------------- personalizaciones en memoria ------------------ */
+    /* Lista inmutable de elementos inmutables: se comparte entre clones */
     @Transient
-    protected List<ElementoDiseno> elementosDiseno = new ArrayList<>();
+    private List<ElementoDiseno> elementosDiseno = List.of();
 
     /* ---------------------------- constructores --------------------------- */
 
@@ -57,17 +71,31 @@ public abstract class ProductoBase implements Producto, Cloneable {
 
     /** Añade un elemento de diseño al producto. */
     public void anadirElementoDiseno(ElementoDiseno elemento) {
-        elementosDiseno.add(elemento);
+        List<ElementoDiseno> nuevos = new ArrayList<>(elementosDiseno);
+        nuevos.add(elemento);
+        elementosDiseno = List.copyOf(nuevos);
+    }
+
+    /**
+     * Sustituye un elemento por otro (p. ej. una zona por su versión
+     * editada); el resto de elementos se conserva tal cual.
+     */
+    public void reemplazarElementoDiseno(ElementoDiseno anterior, ElementoDiseno nuevo) {
+        List<ElementoDiseno> nuevos = new ArrayList<>(elementosDiseno);
+        int i = nuevos.indexOf(anterior);
+        if (i < 0) throw new IllegalArgumentException("El elemento no pertenece al producto");
+        nuevos.set(i, nuevo);
+        elementosDiseno = List.copyOf(nuevos);
     }
 
     /** Elimina todas las personalizaciones actuales. */
     public void limpiarElementosDiseno() {
-        elementosDiseno.clear();
+        elementosDiseno = List.of();
     }
 
-    /** Copia defensiva de las personalizaciones. */
+    /** Personalizaciones del producto (inmutables; no hace falta copiarlas). */
     public List<ElementoDiseno> obtenerElementosDiseno() {
-        return new ArrayList<>(elementosDiseno);
+        return elementosDiseno;
     }
 
     /* ------------------------------ Producto ------------------------------ */
@@ -94,12 +122,8 @@ public abstract class ProductoBase implements Producto, Cloneable {
     @Override
     public Producto clonar() {
         try {
-            ProductoBase copia = (ProductoBase) super.clone();
-            copia.elementosDiseno = new ArrayList<>();
-            for (ElementoDiseno ed : elementosDiseno) {
-                copia.elementosDiseno.add(ed.clonar());
-            }
-            return copia;
+            // El diseño es inmutable: la copia comparte la misma lista
+            return (ProductoBase) super.clone();
         } catch (CloneNotSupportedException ex) {
             throw new AssertionError("Clonación no soportada", ex);
         }
@@ -110,7 +134,7 @@ public abstract class ProductoBase implements Producto, Cloneable {
     /** Inicializa las zonas de diseño tras la carga de la entidad. */
     @PostLoad
     protected void onPostLoad() {
-        elementosDiseno.clear();
+        elementosDiseno = List.of();
         inicializarZonasDeDiseno();
     }
 
@@ -1,7 +1,7 @@
 package modelo.producto;
 
 import jakarta.persistence.Entity;
-import modelo.diseno.GrupoElementosDiseno;
+import modelo.diseno.ZonaDiseno;
 
 /**
  * Variante de producto “Camiseta”.
@@ -32,8 +32,6 @@ public class ProductoCamiseta extends ProductoBase {
 
     @Override
     protected void inicializarZonasDeDiseno() {
-        elementosDiseno.add(
-                new GrupoElementosDiseno("Frente", 0.72, 0.50, 0.45, 0.25, -40, -35)
-        );
+        anadirElementoDiseno(ZonaDiseno.CAMISETA_FRENTE.plantilla());
     }
 }
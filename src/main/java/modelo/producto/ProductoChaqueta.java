@@ -1,7 +1,7 @@
 package modelo.producto;
 
 import jakarta.persistence.Entity;
-import modelo.diseno.GrupoElementosDiseno;
+import modelo.diseno.ZonaDiseno;
 
 /**
  * Variante de producto “Chaqueta”.
@@ -34,8 +34,6 @@ public class ProductoChaqueta extends ProductoBase {
 
     @Override
     protected void inicializarZonasDeDiseno() {
-        elementosDiseno.add(
-                new GrupoElementosDiseno("Pecho Izquierdo", 0.48, 0.56, 0.22, 0.22, -14, -37)
-        );
+        anadirElementoDiseno(ZonaDiseno.CHAQUETA_PECHO_IZQUIERDO.plantilla());
     }
 }
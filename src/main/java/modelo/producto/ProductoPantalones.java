@@ -1,7 +1,7 @@
 package modelo.producto;
 
 import jakarta.persistence.Entity;
-import modelo.diseno.GrupoElementosDiseno;
+import modelo.diseno.ZonaDiseno;
 
 /**
  * Variante de producto “Pantalones”.
@@ -34,8 +34,6 @@ public class ProductoPantalones extends ProductoBase {
 
     @Override
     protected void inicializarZonasDeDiseno() {
-        elementosDiseno.add(
-                new GrupoElementosDiseno("Muslo Derecho", 1.36, 0.60, 0.20, 0.35, -141, -15, 0.7)
-        );
+        anadirElementoDiseno(ZonaDiseno.PANTALON_MUSLO_DERECHO.plantilla());
     }
 }
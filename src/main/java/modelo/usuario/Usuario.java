@@ -2,6 +2,10 @@ package modelo.usuario;
 
 import jakarta.persistence.*;
 import modelo.pedido.Pedido;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import util.AppLogic;
+import util.CacheSegundoNivel;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -11,10 +15,14 @@ import java.util.List;
  */
 @Entity
 @Table(name = "usuarios")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = CacheSegundoNivel.REGION_USUARIOS)
 public class Usuario {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "seqUsuario")
+    @SequenceGenerator(name = "seqUsuario", sequenceName = "usuarios_seq",
+                       allocationSize = AppLogic.BD.BLOQUE_IDS)
     private Long id;
 
     @Column(nullable = false, unique = true)
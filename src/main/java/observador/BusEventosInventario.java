@@ -0,0 +1,153 @@
+package observador;
+
+import util.AppLogic;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Bus de eventos de inventario con una cola acotada y un hilo de despacho por
+ * observador.
+ *
+ * <p>Publicar solo encola: el hilo que publica (p. ej. el checkout) no ejecuta
+ * código de los observadores, y uno lento o atascado no retrasa a los demás.
+ * Cuando la cola de un observador se llena se aplica su
+ * {@link PoliticaSaturacion}. Cada suscripción lleva sus contadores, que se
+ * consultan con {@link GestorInventario#metricas()}.</p>
+ */
+final class BusEventosInventario {
+
+    private static final Logger LOGGER = Logger.getLogger(BusEventosInventario.class.getName());
+
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+
+    /* --------------------------- suscripción ---------------------------- */
+
+    void suscribir(Observador observador, int capacidad, PoliticaSaturacion politica) {
+        Suscripcion s = new Suscripcion(observador, capacidad, politica);
+        suscripciones.add(s);
+        s.hilo.start();
+    }
+
+    /* --------------------------- publicación ---------------------------- */
+
+    /** Encola el evento para cada observador interesado; nunca lo entrega en este hilo. */
+    void publicar(EventoInventario evento) {
+        for (Suscripcion s : suscripciones) {
+            if (s.observador.interesadoEn(evento)) s.encolar(evento);
+        }
+    }
+
+    /* ----------------------------- métricas ----------------------------- */
+
+    List<MetricasSuscriptor> metricas() {
+        return suscripciones.stream().map(Suscripcion::metricas).toList();
+    }
+
+    /* ------------------------------ cierre ------------------------------ */
+
+    /** Detiene los hilos de despacho; los eventos aún en cola se pierden. */
+    void cerrar() {
+        suscripciones.forEach(s -> s.hilo.interrupt());
+        for (Suscripcion s : suscripciones) {
+            try {
+                s.hilo.join(500);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            LOGGER.info(() -> "Eventos de inventario: " + s.metricas());
+        }
+        suscripciones.clear();
+    }
+
+    /* ---------------------- cola de cada observador --------------------- */
+
+    private static final class Suscripcion {
+
+        private final Observador observador;
+        private final PoliticaSaturacion politica;
+        private final BlockingQueue<EventoInventario> cola;
+        private final int capacidad;
+        private final Thread hilo;
+
+        private final LongAdder publicados  = new LongAdder();
+        private final LongAdder entregados  = new LongAdder();
+        private final LongAdder descartados = new LongAdder();
+        private final LongAdder fallidos    = new LongAdder();
+        private final AtomicInteger maximoEnCola = new AtomicInteger();
+
+        Suscripcion(Observador observador, int capacidad, PoliticaSaturacion politica) {
+            this.observador = observador;
+            this.politica   = politica;
+            this.capacidad  = capacidad;
+            this.cola       = new ArrayBlockingQueue<>(capacidad);
+            this.hilo       = Thread.ofPlatform()
+                    .name("eventos-" + observador.nombre())
+                    .daemon()
+                    .unstarted(this::despachar);
+        }
+
+        void encolar(EventoInventario evento) {
+            publicados.increment();
+            boolean encolado = switch (politica) {
+                case DESCARTAR_NUEVO   -> cola.offer(evento);
+                case DESCARTAR_ANTIGUO -> encolarDescartandoAntiguos(evento);
+                case ESPERAR           -> encolarEsperando(evento);
+            };
+            if (encolado) {
+                maximoEnCola.accumulateAndGet(cola.size(), Math::max);
+            } else {
+                descartados.increment();
+                LOGGER.fine(() -> "Cola de " + observador.nombre() + " llena; se descarta " + evento);
+            }
+        }
+
+        private boolean encolarDescartandoAntiguos(EventoInventario evento) {
+            while (!cola.offer(evento)) {
+                if (cola.poll() != null) descartados.increment();
+            }
+            return true;
+        }
+
+        private boolean encolarEsperando(EventoInventario evento) {
+            try {
+                return cola.offer(evento, AppLogic.EVENTOS.ESPERA_MAX_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+
+        private void despachar() {
+            while (!Thread.currentThread().isInterrupted()) {
+                EventoInventario evento;
+                try {
+                    evento = cola.take();
+                } catch (InterruptedException ex) {
+                    return;
+                }
+                try {
+                    observador.actualizar(evento);
+                    entregados.increment();
+                } catch (RuntimeException ex) {
+                    fallidos.increment();
+                    LOGGER.log(Level.WARNING, "El observador " + observador.nombre() + " falló con " + evento, ex);
+                }
+            }
+        }
+
+        MetricasSuscriptor metricas() {
+            return new MetricasSuscriptor(observador.nombre(),
+                    publicados.sum(), entregados.sum(), descartados.sum(), fallidos.sum(),
+                    cola.size(), maximoEnCola.get(), capacidad);
+        }
+    }
+}
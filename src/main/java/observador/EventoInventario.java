@@ -0,0 +1,30 @@
+package observador;
+
+import modelo.producto.ProductoBase;
+
+/**
+ * Eventos de inventario que publica {@link GestorInventario}. La jerarquía
+ * es cerrada, así que los observadores pueden distinguirlos con un
+ * {@code switch} exhaustivo en lugar de interpretar texto.
+ */
+public sealed interface EventoInventario {
+
+    ProductoBase producto();
+
+    default Long productoId() { return producto().getId(); }
+
+    /** Venta confirmada; {@code stockResultante} es el stock tras descontarla. */
+    record ProductoVendido(ProductoBase producto, int cantidad, int stockResultante) implements EventoInventario { }
+
+    /** El stock quedó por debajo del umbral sin llegar a cero. */
+    record StockBajo(ProductoBase producto, int stock) implements EventoInventario { }
+
+    /** El stock llegó a cero. */
+    record ProductoAgotado(ProductoBase producto) implements EventoInventario { }
+
+    /** Reposición aplicada; {@code stockResultante} es el stock tras sumarla. */
+    record StockRepuesto(ProductoBase producto, int cantidad, int stockResultante) implements EventoInventario { }
+
+    /** Venta rechazada por falta de existencias. */
+    record VentaFallida(ProductoBase producto, int cantidad) implements EventoInventario { }
+}
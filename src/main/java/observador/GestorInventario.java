@@ -1,20 +1,29 @@
 package observador;
 
-import modelo.admin.StockProducto;
 import modelo.producto.Producto;
 import modelo.producto.ProductoBase;
+import observador.EventoInventario.*;
 import servicio.ServicioInventario;
 import util.AppLogic;
+import util.EjecutorPulsoFx;
+import util.PublicadorConflado;
 
-import java.util.ArrayList;
 import java.util.List;
-import java.util.ResourceBundle;
+import java.util.OptionalInt;
 import java.util.logging.Logger;
 
 /**
  * Publisher que centraliza las operaciones de stock e informa a los
  * {@link Observador}s suscritos cuando se producen eventos relevantes.
  *
+ * <p>Los eventos son {@link EventoInventario} tipados y se entregan a través
+ * de un {@link BusEventosInventario}: quien vende o repone solo los encola, y
+ * cada observador los procesa en su propio hilo.</p>
+ *
+ * <p>Para la interfaz expone además {@link #nivelesStock()}, un flujo del
+ * stock de cada producto que conflaciona los cambios y los entrega en el
+ * hilo de JavaFX como mucho una vez por pulso.</p>
+ *
  * <p>Implementa el patrón Singleton.</p>
  */
 public final class GestorInventario implements Sujeto {
@@ -26,73 +35,94 @@ public final class GestorInventario implements Sujeto {
         return instancia;
     }
 
+    /** Detiene los hilos de despacho de los observadores. */
+    public static synchronized void shutdown() {
+        if (instancia != null) {
+            instancia.bus.cerrar();
+            instancia.niveles.cerrar();
+            instancia = null;
+        }
+    }
+
     /* --------------------------- atributos --------------------------- */
     private static final Logger LOGGER = Logger.getLogger(GestorInventario.class.getName());
 
-    private final List<Observador> observadores = new ArrayList<>();
+    private final BusEventosInventario bus = new BusEventosInventario();
+    private final PublicadorConflado<Long, Integer> niveles =
+            new PublicadorConflado<>(EjecutorPulsoFx.obtenerInstancia());
     private final ServicioInventario servicioInventario = new ServicioInventario();
-    private final ResourceBundle bundle = ResourceBundle.getBundle("ui.vista.messages");
 
     private static final int UMBRAL_STOCK_BAJO = 3;
 
     private GestorInventario() { }
 
     /* -------------------- gestión de observadores ------------------- */
-    @Override public void anadirObservador(Observador o) { observadores.add(o); }
-
-    /* --------------------------- utilidades -------------------------- */
-    private void notificarObservadores(String texto, Producto prod) {
-        String msg = String.format("%s%s::%s",
-                AppLogic.OBSERVER.STOCK_ALERT_PREFIX,
-                ((ProductoBase) prod).getId(),
-                texto);
-        observadores.forEach(o -> o.actualizar(msg));
+    @Override
+    public void anadirObservador(Observador o) {
+        anadirObservador(o, AppLogic.EVENTOS.CAPACIDAD_COLA, PoliticaSaturacion.DESCARTAR_ANTIGUO);
     }
 
+    @Override
+    public void anadirObservador(Observador o, int capacidad, PoliticaSaturacion politica) {
+        bus.suscribir(o, capacidad, politica);
+    }
+
+    /** @return contadores de entrega de cada observador suscrito. */
+    public List<MetricasSuscriptor> metricas() { return bus.metricas(); }
+
+    /**
+     * @return flujo de lotes {@code id de producto → stock actual} con los
+     *         productos cambiados desde el lote anterior; se entrega en el
+     *         hilo de JavaFX
+     */
+    public PublicadorConflado<Long, Integer> nivelesStock() { return niveles; }
+
     /* ---------------------- operaciones de stock -------------------- */
 
-    public void venderProducto(Producto prod, int cantidad) {
-        servicioInventario.findByProducto((ProductoBase) prod).ifPresent(inv -> {
-            int stockActual = inv.getCantidad();
-            if (stockActual >= cantidad) {
-                int nuevoStock = stockActual - cantidad;
-                inv.setCantidad(nuevoStock);
-                servicioInventario.actualizarInventario(inv);
-
-                LOGGER.info(() -> "Venta registrada: " + cantidad + " de " + prod.obtenerNombre());
-
-                String nombreDetallado = StockProducto.obtenerNombreDetallado(prod);
-
-                if (nuevoStock <= UMBRAL_STOCK_BAJO && nuevoStock > 0) {
-                    notificarObservadores(
-                            String.format(bundle.getString("notif.stock.baja.msg"), nombreDetallado, nuevoStock),
-                            prod);
-                } else if (nuevoStock == 0) {
-                    notificarObservadores(
-                            String.format(bundle.getString("notif.stock.agotado.msg"), nombreDetallado),
-                            prod);
-                }
-            } else {
-                notificarObservadores(
-                        String.format(bundle.getString("notif.stock.fallo_venta.msg"),
-                                StockProducto.obtenerNombreDetallado(prod)),
-                        prod);
-            }
-        });
+    /**
+     * Registra la venta de {@code cantidad} unidades mediante un descuento
+     * atómico (sin lectura previa), de modo que dos terminales no puedan
+     * vender la misma última unidad.
+     *
+     * @return stock resultante, o vacío si no había existencias suficientes
+     */
+    public OptionalInt venderProducto(Producto prod, int cantidad) {
+        OptionalInt nuevoStock = servicioInventario.decrementarStock((ProductoBase) prod, cantidad);
+        if (nuevoStock.isPresent()) {
+            publicarVentaConfirmada(prod, cantidad, nuevoStock.getAsInt());
+        } else {
+            bus.publicar(new VentaFallida((ProductoBase) prod, cantidad));
+        }
+        return nuevoStock;
     }
 
-    public void reponerStock(Producto prod, int cantidad) {
-        servicioInventario.findByProducto((ProductoBase) prod).ifPresent(inv -> {
-            int nuevo = inv.getCantidad() + cantidad;
-            inv.setCantidad(nuevo);
-            servicioInventario.actualizarInventario(inv);
+    /**
+     * Anuncia una venta cuyo descuento de stock ya se confirmó (p. ej. dentro
+     * del checkout). Solo encola los eventos; no espera a los observadores.
+     */
+    public void publicarVentaConfirmada(Producto prod, int cantidad, int nuevoStock) {
+        LOGGER.fine(() -> "Venta registrada: " + cantidad + " de " + prod.obtenerNombre());
+        ProductoBase producto = (ProductoBase) prod;
+        niveles.publicar(producto.getId(), nuevoStock);
+        bus.publicar(new ProductoVendido(producto, cantidad, nuevoStock));
+        publicarNivelDeStock(producto, nuevoStock);
+    }
 
+    public void reponerStock(Producto prod, int cantidad) {
+        servicioInventario.incrementarStock((ProductoBase) prod, cantidad).ifPresent(nuevo -> {
             LOGGER.info(() -> "Stock repuesto para " + prod.obtenerNombre());
-
-            String nombreDetallado = StockProducto.obtenerNombreDetallado(prod);
-            notificarObservadores(
-                    String.format(bundle.getString("notif.stock.normalizado.msg"), nombreDetallado, nuevo),
-                    prod);
+            niveles.publicar(((ProductoBase) prod).getId(), nuevo);
+            bus.publicar(new StockRepuesto((ProductoBase) prod, cantidad, nuevo));
         });
     }
+
+    /* ----------------------- avisos de umbral ----------------------- */
+
+    private void publicarNivelDeStock(ProductoBase producto, int nuevoStock) {
+        if (nuevoStock <= UMBRAL_STOCK_BAJO && nuevoStock > 0) {
+            bus.publicar(new StockBajo(producto, nuevoStock));
+        } else if (nuevoStock == 0) {
+            bus.publicar(new ProductoAgotado(producto));
+        }
+    }
 }
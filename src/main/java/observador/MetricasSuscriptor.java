@@ -0,0 +1,19 @@
+package observador;
+
+/**
+ * Contadores de la suscripción de un observador en un instante dado.
+ *
+ * @param publicados   eventos que le correspondían (pasaron su filtro)
+ * @param entregados   eventos que procesó sin excepción
+ * @param descartados  eventos perdidos por cola llena
+ * @param fallidos     eventos en los que el observador lanzó una excepción
+ * @param maximoEnCola mayor ocupación de la cola observada
+ */
+public record MetricasSuscriptor(String observador,
+                                 long publicados,
+                                 long entregados,
+                                 long descartados,
+                                 long fallidos,
+                                 int  enCola,
+                                 int  maximoEnCola,
+                                 int  capacidad) { }
@@ -2,7 +2,20 @@ package observador;
 
 /**
  * Parte «Subscriber» del patrón <em>Observer</em>.
+ *
+ * <p>Cada observador recibe los eventos en su propio hilo de despacho (ver
+ * {@link BusEventosInventario}), nunca en el hilo que los publica.</p>
  */
 public interface Observador {
-    void actualizar(String mensaje);
+
+    void actualizar(EventoInventario evento);
+
+    /**
+     * Filtro previo a encolar: los eventos que no interesan no ocupan sitio
+     * en la cola del observador.
+     */
+    default boolean interesadoEn(EventoInventario evento) { return true; }
+
+    /** Nombre para el hilo de despacho y las métricas. */
+    default String nombre() { return getClass().getSimpleName(); }
 }
@@ -1,47 +1,42 @@
 package observador;
 
+import modelo.admin.StockProducto;
+import observador.EventoInventario.StockRepuesto;
 import servicio.ServicioNotificacionesUI;
 
+import java.util.ResourceBundle;
 import java.util.logging.Logger;
 
 /**
- * Observador que representa a un gerente y recibe notificaciones generales.
+ * Observador que representa a un gerente; solo le interesan las reposiciones.
  */
 public class ObservadorGerente implements Observador {
 
     private static final Logger LOGGER = Logger.getLogger(ObservadorGerente.class.getName());
 
     private final String nombre;
+    private final ResourceBundle bundle = ResourceBundle.getBundle("ui.vista.messages");
 
     public ObservadorGerente(String nombre) {
         this.nombre = nombre;
     }
 
     @Override
-    public void actualizar(String mensaje) {
-        LOGGER.fine(() -> "Gerente (" + nombre + ") recibió: " + mensaje);
-
-        if (mensaje.startsWith("STOCK_ALERT::")) {
-            despacharAlertaStock(mensaje);
-        } else if (!mensaje.contains("Fallo de venta")) {
-            ServicioNotificacionesUI.obtenerInstancia()
-                    .mostrarNotificacion("Notificación General", mensaje);
-        }
+    public String nombre() { return nombre; }
+
+    @Override
+    public boolean interesadoEn(EventoInventario evento) {
+        return evento instanceof StockRepuesto;
     }
 
-    private void despacharAlertaStock(String mensaje) {
-        try {
-            String textoNotificacion = mensaje.split("::", 3)[2];
-
-            // Solo las reposiciones interesan al gerente
-            if (textoNotificacion.contains("Repuesto")) {
-                ServicioNotificacionesUI.obtenerInstancia()
-                        .mostrarNotificacion("Notificación General", textoNotificacion);
-            }
-        } catch (Exception ex) {
-            LOGGER.warning("Error al parsear mensaje de stock: " + mensaje);
-            ServicioNotificacionesUI.obtenerInstancia()
-                    .mostrarNotificacion("Notificación General", mensaje);
+    @Override
+    public void actualizar(EventoInventario evento) {
+        LOGGER.fine(() -> "Gerente (" + nombre + ") recibió: " + evento);
+
+        if (evento instanceof StockRepuesto e) {
+            ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion("Notificación General",
+                    String.format(bundle.getString("notif.stock.normalizado.msg"),
+                            StockProducto.obtenerNombreDetallado(e.producto()), e.stockResultante()));
         }
     }
 }
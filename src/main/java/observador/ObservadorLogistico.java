@@ -1,8 +1,14 @@
 package observador;
 
+import modelo.admin.StockProducto;
+import observador.EventoInventario.ProductoAgotado;
+import observador.EventoInventario.ProductoVendido;
+import observador.EventoInventario.StockBajo;
+import observador.EventoInventario.StockRepuesto;
+import observador.EventoInventario.VentaFallida;
 import servicio.ServicioNotificacionesUI;
 
-import java.util.logging.Level;
+import java.util.ResourceBundle;
 import java.util.logging.Logger;
 
 /**
@@ -14,34 +20,39 @@ public class ObservadorLogistico implements Observador {
     private static final Logger LOGGER = Logger.getLogger(ObservadorLogistico.class.getName());
 
     private final String nombre;
+    private final ResourceBundle bundle = ResourceBundle.getBundle("ui.vista.messages");
 
     public ObservadorLogistico(String nombre) {
         this.nombre = nombre;
     }
 
     @Override
-    public void actualizar(String mensaje) {
-        if (!mensaje.startsWith("STOCK_ALERT::")) return;
-
-        LOGGER.fine(() -> "Logística (" + nombre + ") recibió: " + mensaje);
-
-        try {
-            String[] partes = mensaje.split("::", 3);
-            String productoId         = partes[1];
-            String textoNotificacion  = partes[2];
-
-            if (textoNotificacion.contains("Alerta de Stock Bajo") ||
-                    textoNotificacion.contains("Producto Agotado")) {
-                ServicioNotificacionesUI.obtenerInstancia()
-                        .notificarAlertaDeStock(productoId,
-                                "Alerta de Inventario",
-                                textoNotificacion,
-                                null);
-            }
-        } catch (Exception ex) {
-            LOGGER.log(Level.WARNING, "Error al parsear mensaje de stock: " + mensaje, ex);
-            ServicioNotificacionesUI.obtenerInstancia()
-                    .mostrarNotificacion("Alerta de Inventario", mensaje);
-        }
+    public String nombre() { return nombre; }
+
+    @Override
+    public boolean interesadoEn(EventoInventario evento) {
+        return evento instanceof StockBajo || evento instanceof ProductoAgotado;
+    }
+
+    @Override
+    public void actualizar(EventoInventario evento) {
+        LOGGER.fine(() -> "Logística (" + nombre + ") recibió: " + evento);
+
+        String nombreDetallado = StockProducto.obtenerNombreDetallado(evento.producto());
+        String texto = switch (evento) {
+            case StockBajo e       -> String.format(bundle.getString("notif.stock.baja.msg"), nombreDetallado, e.stock());
+            case ProductoAgotado e -> String.format(bundle.getString("notif.stock.agotado.msg"), nombreDetallado);
+            // Fuera de interesadoEn; sin default, un evento nuevo no compila hasta decidir qué hacer
+            case ProductoVendido e -> null;
+            case StockRepuesto e   -> null;
+            case VentaFallida e    -> null;
+        };
+        if (texto == null) return;
+
+        ServicioNotificacionesUI.obtenerInstancia()
+                .notificarAlertaDeStock(String.valueOf(evento.productoId()),
+                        bundle.getString("notif.stock.titulo"),
+                        texto,
+                        null);
     }
 }
@@ -0,0 +1,21 @@
+package observador;
+
+/**
+ * Qué hace {@link BusEventosInventario} con un evento cuando la cola del
+ * observador está llena.
+ */
+public enum PoliticaSaturacion {
+
+    /** Se descarta el evento nuevo; la cola conserva los más antiguos. */
+    DESCARTAR_NUEVO,
+
+    /** Se descarta el evento más antiguo de la cola para hacer sitio al nuevo. */
+    DESCARTAR_ANTIGUO,
+
+    /**
+     * El publicador espera a que haya sitio, como mucho
+     * {@code AppLogic.EVENTOS.ESPERA_MAX_MS}; si no lo hay, se descarta el
+     * evento nuevo.
+     */
+    ESPERAR
+}
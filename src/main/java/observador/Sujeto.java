@@ -4,5 +4,13 @@ package observador;
  * Parte «Publisher» del patrón <em>Observer</em>.
  */
 public interface Sujeto {
+
+    /** Suscribe con la capacidad de cola y la política por defecto. */
     void anadirObservador(Observador observador);
+
+    /**
+     * @param capacidad tamaño máximo de la cola de eventos del observador
+     * @param politica  qué hacer cuando esa cola está llena
+     */
+    void anadirObservador(Observador observador, int capacidad, PoliticaSaturacion politica);
 }
@@ -5,6 +5,7 @@ import modelo.diseno.GrupoElementosDiseno;
 import modelo.producto.Producto;
 import modelo.producto.ProductoBase;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.logging.Logger;
 
@@ -21,6 +22,7 @@ public class DisenoOriginador {
     private static final Logger LOGGER = Logger.getLogger(DisenoOriginador.class.getName());
 
     private Producto productoActual; // estado interno gestionado
+    private RecuerdoDiseno ultimoRecuerdo; // base para compartir estructura en el siguiente memento
 
     public DisenoOriginador(Producto productoInicial) {
         this.productoActual = productoInicial.clonar(); // copia defensiva
@@ -37,25 +39,26 @@ public class DisenoOriginador {
     }
 
     public void setElementoEnZona(String nombreZona, ElementoDiseno elemento) {
-        buscarZona(nombreZona).ifPresent(z -> {
-            z.limpiarElementos();
-            z.anadirElemento(elemento);
-        });
+        buscarZona(nombreZona).ifPresent(z ->
+                ((ProductoBase) productoActual).reemplazarElementoDiseno(z, z.conElementos(List.of(elemento))));
     }
 
     public void limpiarZona(String nombreZona) {
-        buscarZona(nombreZona).ifPresent(GrupoElementosDiseno::limpiarElementos);
+        buscarZona(nombreZona).ifPresent(z ->
+                ((ProductoBase) productoActual).reemplazarElementoDiseno(z, z.sinElementos()));
     }
 
     /* ------------------------------ mementos --------------------------------- */
 
     public RecuerdoDiseno guardarEstado() {
         LOGGER.fine(() -> "Guardando estado del producto '" + productoActual.obtenerNombre() + '\'');
-        return new RecuerdoDiseno(productoActual);
+        ultimoRecuerdo = RecuerdoDiseno.de(productoActual, ultimoRecuerdo);
+        return ultimoRecuerdo;
     }
 
     public void restaurarEstado(RecuerdoDiseno recuerdo) {
         this.productoActual = recuerdo.obtenerEstadoProductoGuardado();
+        this.ultimoRecuerdo = recuerdo;
         LOGGER.fine(() -> "Estado del producto '" + productoActual.obtenerNombre() + "' restaurado");
     }
 
@@ -2,6 +2,7 @@ package recuerdo;
 
 import javafx.beans.property.BooleanProperty;
 import javafx.beans.property.SimpleBooleanProperty;
+import util.AppLogic;
 
 import java.util.ArrayDeque;
 import java.util.Deque;
@@ -9,21 +10,50 @@ import java.util.Deque;
 /**
  * Cuida la pila de <em>mementos</em> para operaciones de deshacer/rehacer
  * sobre un diseño.
+ *
+ * <p>El historial está acotado en número de estados y en memoria aproximada
+ * (ver {@link RecuerdoDiseno#bytesPropios()}); al superar cualquiera de los
+ * dos límites se olvidan los estados más antiguos. Guardar un estado idéntico
+ * al actual no hace nada.</p>
  */
 public class HistorialDiseno {
 
     private final Deque<RecuerdoDiseno> pilaRecuerdos = new ArrayDeque<>();
     private final Deque<RecuerdoDiseno> pilaRehacer   = new ArrayDeque<>();
 
+    private final int  profundidadMax;
+    private final long presupuestoBytes;
+    private long bytesRetenidos;
+
     private final BooleanProperty hayDeshacer = new SimpleBooleanProperty(false);
     private final BooleanProperty hayRehacer  = new SimpleBooleanProperty(false);
 
+    public HistorialDiseno() {
+        this(AppLogic.HISTORIAL.PROFUNDIDAD_MAX, AppLogic.HISTORIAL.PRESUPUESTO_BYTES);
+    }
+
+    /**
+     * @param profundidadMax   número máximo de estados deshacibles (≥ 1)
+     * @param presupuestoBytes memoria aproximada máxima del historial
+     */
+    public HistorialDiseno(int profundidadMax, long presupuestoBytes) {
+        this.profundidadMax   = Math.max(1, profundidadMax);
+        this.presupuestoBytes = presupuestoBytes;
+    }
+
     /* ----------------------------- operaciones ----------------------------- */
 
-    public void guardar(RecuerdoDiseno recuerdo) {
+    /** @return false si el estado era idéntico al actual y no se guardó. */
+    public boolean guardar(RecuerdoDiseno recuerdo) {
+        if (recuerdo.mismoEstado(pilaRecuerdos.peek())) return false;
+
         pilaRecuerdos.push(recuerdo);
+        bytesRetenidos += recuerdo.bytesPropios();
+        pilaRehacer.forEach(r -> bytesRetenidos -= r.bytesPropios());
         pilaRehacer.clear();
+        recortar();
         actualizarEstados();
+        return true;
     }
 
     public RecuerdoDiseno deshacer() {
@@ -51,6 +81,14 @@ public class HistorialDiseno {
 
     /* ------------------------------ helpers -------------------------------- */
 
+    /* Olvida los estados más antiguos; el actual siempre se conserva. */
+    private void recortar() {
+        while (pilaRecuerdos.size() > 1 &&
+                (pilaRecuerdos.size() > profundidadMax + 1 || bytesRetenidos > presupuestoBytes)) {
+            bytesRetenidos -= pilaRecuerdos.removeLast().bytesPropios();
+        }
+    }
+
     private void actualizarEstados() {
         hayDeshacer.set(pilaRecuerdos.size() > 1);
         hayRehacer.set(!pilaRehacer.isEmpty());
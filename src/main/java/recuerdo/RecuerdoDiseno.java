@@ -1,23 +1,98 @@
 package recuerdo;
 
+import modelo.diseno.ElementoDiseno;
+import modelo.diseno.ElementoImagen;
+import modelo.diseno.ElementoTexto;
+import modelo.diseno.GrupoElementosDiseno;
 import modelo.producto.Producto;
+import modelo.producto.ProductoBase;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Objects;
+import java.util.Set;
 
 /**
- * <strong>Memento</strong> que almacena una instantánea completa de un
- * {@link Producto}.
+ * <strong>Memento</strong> que almacena una instantánea de un
+ * {@link Producto} y sus personalizaciones.
+ *
+ * <p>El árbol de diseño es inmutable, así que guardar y restaurar son O(1):
+ * el memento comparte con el producto (y con los mementos vecinos) todos los
+ * nodos que no cambiaron. Cada memento solo cuenta como propia la memoria de
+ * los nodos nuevos respecto al anterior.</p>
  */
-public class RecuerdoDiseno {
+public final class RecuerdoDiseno {
+
+    /* Tamaños aproximados (cabecera de objeto + campos) para el presupuesto de memoria */
+    private static final int BYTES_RECUERDO = 48;
+    private static final int BYTES_PRODUCTO = 256;
+    private static final int BYTES_GRUPO    = 112;
+    private static final int BYTES_HOJA     = 48;
 
-    private final Producto estadoProductoGuardado; // copia profunda
+    private final ProductoBase estado;
+    private final long bytesPropios;
 
-    public RecuerdoDiseno(Producto productoAClonar) {
-        this.estadoProductoGuardado = productoAClonar.clonar();
+    private RecuerdoDiseno(ProductoBase estado, long bytesPropios) {
+        this.estado       = estado;
+        this.bytesPropios = bytesPropios;
     }
 
     /**
-     * Devuelve un clon adicional para preservar la inmutabilidad del memento.
+     * Crea la instantánea de {@code producto}; {@code anterior} (puede ser
+     * {@code null}) solo se usa para estimar qué parte es nueva.
      */
+    static RecuerdoDiseno de(Producto producto, RecuerdoDiseno anterior) {
+        ProductoBase estado = (ProductoBase) producto.clonar();
+
+        long bytes = BYTES_RECUERDO;
+        Set<ElementoDiseno> previos = Collections.newSetFromMap(new IdentityHashMap<>());
+        if (anterior != null && mismaVariante(anterior.estado, estado)) {
+            anterior.estado.obtenerElementosDiseno().forEach(e -> recorrer(e, previos));
+        } else {
+            bytes += BYTES_PRODUCTO;
+        }
+        for (ElementoDiseno e : estado.obtenerElementosDiseno()) bytes += bytesNuevos(e, previos);
+        return new RecuerdoDiseno(estado, bytes);
+    }
+
+    /* ----------------------------- consulta ------------------------------ */
+
+    /** Devuelve un producto con el estado guardado (copia O(1), comparte el diseño). */
     public Producto obtenerEstadoProductoGuardado() {
-        return estadoProductoGuardado.clonar();
+        return estado.clonar();
+    }
+
+    /** @return true si ambos representan el mismo estado del diseño. */
+    boolean mismoEstado(RecuerdoDiseno otro) {
+        return otro != null && mismaVariante(estado, otro.estado)
+                && estado.obtenerElementosDiseno().equals(otro.estado.obtenerElementosDiseno());
     }
+
+    /** @return memoria aproximada que ocupa este memento sin contar lo compartido con el anterior. */
+    long bytesPropios() { return bytesPropios; }
+
+    /* ----------------------------- helpers ------------------------------- */
+
+    private static boolean mismaVariante(ProductoBase a, ProductoBase b) {
+        return a.getClass() == b.getClass() && (a.getId() != null ? a.getId().equals(b.getId()) : a == b);
+    }
+
+    private static void recorrer(ElementoDiseno e, Set<ElementoDiseno> visitados) {
+        if (!visitados.add(e)) return;
+        if (e instanceof GrupoElementosDiseno g) g.getElementos().forEach(h -> recorrer(h, visitados));
+    }
+
+    /* Un nodo ya presente en el memento anterior (misma instancia) no cuesta nada: se comparte */
+    private static long bytesNuevos(ElementoDiseno e, Set<ElementoDiseno> previos) {
+        if (previos.contains(e)) return 0;
+        return switch (e) {
+            case GrupoElementosDiseno g -> BYTES_GRUPO + 8L * g.getElementos().size()
+                    + g.getElementos().stream().mapToLong(h -> bytesNuevos(h, previos)).sum();
+            case ElementoTexto t  -> BYTES_HOJA + 2L * (largo(t.getTexto()) + largo(t.getFuente()) + largo(t.getColor()));
+            case ElementoImagen i -> BYTES_HOJA + 2L * (largo(i.getUrlImagen()) + largo(i.getDescripcion()));
+            default -> BYTES_HOJA;
+        };
+    }
+
+    private static int largo(String s) { return Objects.requireNonNullElse(s, "").length(); }
 }
@@ -0,0 +1,25 @@
+package servicio;
+
+import java.time.LocalDateTime;
+
+/**
+ * Criterios opcionales para consultar pedidos; un campo {@code null} no filtra.
+ *
+ * @param estado     estado lógico (ver {@link util.AppLogic.ESTADOS})
+ * @param usuarioId  id del comprador
+ * @param desde      fecha de creación mínima (inclusive)
+ * @param hasta      fecha de creación máxima (exclusive)
+ */
+public record FiltroPedidos(String estado, Long usuarioId, LocalDateTime desde, LocalDateTime hasta) {
+
+    private static final FiltroPedidos TODOS = new FiltroPedidos(null, null, null, null);
+
+    /** @return filtro que no restringe nada. */
+    public static FiltroPedidos todos() { return TODOS; }
+
+    public FiltroPedidos conEstado(String estado)        { return new FiltroPedidos(estado, usuarioId, desde, hasta); }
+    public FiltroPedidos conUsuario(Long usuarioId)      { return new FiltroPedidos(estado, usuarioId, desde, hasta); }
+    public FiltroPedidos entre(LocalDateTime desde, LocalDateTime hasta) {
+        return new FiltroPedidos(estado, usuarioId, desde, hasta);
+    }
+}
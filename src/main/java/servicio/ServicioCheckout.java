@@ -0,0 +1,235 @@
+package servicio;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import modelo.diseno.Diseno;
+import modelo.inventario.IndiceStock;
+import modelo.pedido.ItemPedido;
+import modelo.pedido.Pedido;
+import modelo.producto.Producto;
+import modelo.producto.ProductoBase;
+import modelo.usuario.Usuario;
+import observador.GestorInventario;
+import org.hibernate.exception.ConstraintViolationException;
+import org.hibernate.query.NativeQuery;
+import util.EjecutorAsincrono;
+import util.GestorJPA;
+
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Checkout como una única unidad de trabajo.
+ *
+ * <p>Reserva en el {@link IndiceStock} las unidades de todos los ítems (todas
+ * o ninguna) y después persiste el {@link Pedido}; tras el commit la reserva
+ * se confirma y, si el pedido no llega a guardarse, se libera. Las
+ * intenciones de stock quedan anotadas con el id del pedido y no se vuelcan a
+ * la BD hasta confirmarse, de modo que tras una caída solo se reaplican las de
+ * pedidos guardados. Las notificaciones a los observadores de inventario se
+ * publican solo tras el commit, para no anunciar ventas que luego se
+ * deshacen. Los diseños de los ítems se guardan una sola vez por contenido
+ * ({@link Diseno}).</p>
+ */
+public class ServicioCheckout {
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioCheckout.class.getName());
+
+    /**
+     * Registra la compra de los productos indicados.
+     *
+     * @param usuario     comprador
+     * @param direccion   dirección de envío
+     * @param metodoPago  método de pago elegido
+     * @param productos   productos del carrito (cada uno cuenta como una unidad)
+     * @return el pedido persistido
+     * @throws StockInsuficienteException si algún producto no tiene unidades
+     *         suficientes; en ese caso no se persiste nada
+     */
+    public Pedido confirmarCompra(Usuario usuario, String direccion, String metodoPago,
+                                  List<? extends Producto> productos) {
+        Pedido pedido = construirPedido(usuario, direccion, metodoPago, productos);
+        Map<Long, Integer> unidadesPorProducto = agruparUnidades(pedido);
+
+        IndiceStock indice = IndiceStock.obtenerInstancia();
+        IndiceStock.Reserva reserva = indice.reservar(unidadesPorProducto, pedido.obtenerIdPedido());
+        if (!reserva.confirmada()) {
+            throw new StockInsuficienteException(buscarProducto(pedido, reserva.productoSinStock()));
+        }
+
+        // Toda salida tras reservar confirma o libera: una reserva abierta frena el volcado del stock
+        EntityManager em = null;
+        try {
+            guardarDisenosNuevos(pedido);
+            em = GestorJPA.getEntityManagerFactory().createEntityManager();
+            em.getTransaction().begin();
+            registrarDisenos(em, pedido);
+            em.persist(pedido);
+            em.getTransaction().commit();
+        } catch (RuntimeException ex) {
+            if (em != null) rollbackSilencioso(em);
+            indice.liberar(unidadesPorProducto, pedido.obtenerIdPedido());
+            LOGGER.log(Level.SEVERE, "Error al confirmar la compra", ex);
+            throw ex;
+        } finally {
+            if (em != null) em.close();
+        }
+        indice.confirmar(pedido.obtenerIdPedido());
+
+        publicarVentas(pedido, unidadesPorProducto, reserva.stockResultante());
+        return pedido;
+    }
+
+    /**
+     * {@link #confirmarCompra} en un hilo virtual, sin timeout ni
+     * interrupción ({@link EjecutorAsincrono#ejecutarEscritura}). Los
+     * productos se copian antes de salir del hilo llamador; si falta stock el
+     * futuro falla con {@link StockInsuficienteException}.
+     */
+    public CompletableFuture<Pedido> confirmarCompraAsync(Usuario usuario, String direccion, String metodoPago,
+                                                          List<? extends Producto> productos) {
+        List<Producto> copia = List.copyOf(productos);
+        return EjecutorAsincrono.ejecutarEscritura(() -> confirmarCompra(usuario, direccion, metodoPago, copia));
+    }
+
+    /* ----------------------------- helpers ------------------------------ */
+
+    private Pedido construirPedido(Usuario usuario, String direccion, String metodoPago,
+                                   List<? extends Producto> productos) {
+        String idPedido = "PED_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        Pedido.ConstructorPedido builder = new Pedido.ConstructorPedido(usuario, idPedido)
+                .establecerDireccionEnvio(direccion)
+                .establecerMetodoPago(metodoPago);
+
+        for (Producto p : productos) {
+            ItemPedido it = new ItemPedido();
+            it.setProductoBase((ProductoBase) p);
+            it.setCantidad(1);
+            it.setPrecioUnitario(p.calcularPrecio());
+            it.setZonasDiseno(((ProductoBase) p).obtenerElementosDiseno());
+            builder.anadirItem(it);
+        }
+        return builder.construir();
+    }
+
+    /**
+     * Inserta los diseños de los ítems que aún no están guardados. Llamar
+     * antes de abrir el {@link EntityManager} del pedido: así un checkout
+     * nunca ocupa dos conexiones del pool a la vez.
+     *
+     * <p>Dos checkouts pueden traer a la vez el mismo diseño nuevo, así que
+     * no se hace {@code persist}: cada alta va en su propia transacción con un
+     * {@code MERGE} por clave, y una clave duplicada significa que otro se
+     * adelantó. Si el pedido se deshace, el diseño se queda; es contenido
+     * direccionable y lo aprovechará el siguiente que lo use.</p>
+     */
+    static void guardarDisenosNuevos(Pedido pedido) {
+        Map<String, Diseno> nuevos = new LinkedHashMap<>();
+        pedido.getItems().forEach(it -> nuevos.putIfAbsent(it.getDiseno().getHuella(), it.getDiseno()));
+
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            nuevos.keySet().removeIf(huella -> em.find(Diseno.class, huella) != null);
+        } finally {
+            em.close();
+        }
+        nuevos.values().forEach(ServicioCheckout::insertarSiFalta);
+    }
+
+    /**
+     * Sustituye el diseño de cada ítem por la fila guardada con la misma
+     * huella. Llamar dentro de la transacción que persiste el pedido, después
+     * de {@link #guardarDisenosNuevos}.
+     */
+    static void registrarDisenos(EntityManager em, Pedido pedido) {
+        Map<String, Diseno> gestionados = new HashMap<>();
+        for (ItemPedido it : pedido.getItems()) {
+            it.setDiseno(gestionados.computeIfAbsent(it.getDiseno().getHuella(), huella -> {
+                Diseno existente = em.find(Diseno.class, huella);
+                if (existente == null) throw new IllegalStateException("El diseño " + huella + " no está guardado");
+                return existente;
+            }));
+        }
+    }
+
+    /* Alta idempotente en una transacción aparte; si otro checkout la hizo antes, no hay nada que hacer */
+    private static void insertarSiFalta(Diseno diseno) {
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            em.getTransaction().begin();
+            em.createNativeQuery("MERGE INTO diseno (huella, contenido) KEY (huella) VALUES (?1, ?2)")
+                    .setParameter(1, diseno.getHuella())
+                    .setParameter(2, diseno.getContenido())
+                    .unwrap(NativeQuery.class)
+                    .addSynchronizedEntityClass(Diseno.class)   // no invalida el resto de la caché L2
+                    .executeUpdate();
+            em.getTransaction().commit();
+        } catch (PersistenceException ex) {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+            if (!esClaveDuplicada(ex)) throw ex;
+            LOGGER.log(Level.FINE, "Diseño " + diseno.getHuella() + " insertado por otra transacción", ex);
+        } finally {
+            em.close();
+        }
+    }
+
+    /* Violación de restricción (SQLSTATE clase 23) en algún punto de la cadena de causas */
+    private static boolean esClaveDuplicada(Throwable ex) {
+        for (Throwable t = ex; t != null; t = t.getCause()) {
+            if (t instanceof ConstraintViolationException) return true;
+            if (t instanceof SQLException sql && sql.getSQLState() != null && sql.getSQLState().startsWith("23")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<Long, Integer> agruparUnidades(Pedido pedido) {
+        Map<Long, Integer> unidades = new TreeMap<>();
+        pedido.getItems().forEach(it ->
+                unidades.merge(it.getProductoBase().getId(), it.getCantidad(), Integer::sum));
+        return unidades;
+    }
+
+    private ProductoBase buscarProducto(Pedido pedido, Long productoId) {
+        return pedido.getItems().stream()
+                .map(ItemPedido::getProductoBase)
+                .filter(pb -> pb.getId().equals(productoId))
+                .findFirst()
+                .orElseThrow();
+    }
+
+    private void publicarVentas(Pedido pedido, Map<Long, Integer> unidades, Map<Long, Integer> stock) {
+        GestorInventario gestor = GestorInventario.obtenerInstancia();
+        unidades.forEach((id, cantidad) ->
+                gestor.publicarVentaConfirmada(buscarProducto(pedido, id), cantidad, stock.get(id)));
+    }
+
+    private void rollbackSilencioso(EntityManager em) {
+        try {
+            if (em.getTransaction().isActive()) em.getTransaction().rollback();
+        } catch (Exception ex) {
+            LOGGER.log(Level.SEVERE, "Error en rollback", ex);
+        }
+    }
+
+    /* ---------------------------- excepción ----------------------------- */
+
+    /** Señala que un producto del carrito se quedó sin unidades durante el checkout. */
+    public static class StockInsuficienteException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ProductoBase producto;
+
+        public StockInsuficienteException(ProductoBase producto) {
+            super("Stock insuficiente para el producto " + producto.getId());
+            this.producto = producto;
+        }
+
+        public ProductoBase getProducto() { return producto; }
+    }
+}
@@ -4,17 +4,27 @@ import jakarta.persistence.EntityManager;
 import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 import modelo.carrito.CarritoCompras;
+import modelo.inventario.IndiceStock;
 import modelo.inventario.Inventario;
 import modelo.producto.ProductoBase;
+import org.hibernate.jpa.HibernateHints;
+import util.CacheSegundoNivel;
+import util.EjecutorAsincrono;
 import util.GestorJPA;
 
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Lógica de acceso a datos para el módulo de inventario.
+ *
+ * <p>Las existencias se leen y modifican en el {@link IndiceStock}; la
+ * columna {@code cantidad} de la BD se actualiza en diferido.</p>
  */
 public class ServicioInventario {
 
@@ -28,7 +38,9 @@ public class ServicioInventario {
             TypedQuery<Inventario> q = em.createQuery(
                     "SELECT i FROM Inventario i WHERE i.producto = :prod", Inventario.class);
             q.setParameter("prod", producto);
-            return Optional.of(q.getSingleResult());
+            q.setHint(HibernateHints.HINT_CACHEABLE, true);
+            q.setHint(HibernateHints.HINT_CACHE_REGION, CacheSegundoNivel.REGION_CONSULTA_INVENTARIO);
+            return Optional.of(conStockActual(q.getSingleResult()));
         } catch (NoResultException nre) {
             return Optional.empty();
         } catch (Exception ex) {
@@ -43,16 +55,17 @@ public class ServicioInventario {
         EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
         try {
             return em.createQuery("SELECT i FROM Inventario i", Inventario.class)
-                    .getResultList();
+                    .getResultStream()
+                    .map(ServicioInventario::conStockActual)
+                    .toList();
         } finally {
             em.close();
         }
     }
 
+    /** Lectura en memoria, sin consultar la BD (ver {@link IndiceStock}). */
     public int obtenerStockDeProducto(ProductoBase producto) {
-        return findByProducto(producto)
-                .map(Inventario::getCantidad)
-                .orElse(0);
+        return IndiceStock.obtenerInstancia().stock(producto.getId());
     }
 
     public int obtenerStockDisponible(ProductoBase producto, CarritoCompras carrito) {
@@ -66,32 +79,110 @@ public class ServicioInventario {
 
     /* --------------------------- mutaciones ------------------------- */
 
+    /**
+     * Fija la cantidad de un registro existente. El cambio se aplica en el
+     * {@link IndiceStock} y llega a la BD con el siguiente volcado.
+     */
     public void actualizarInventario(Inventario inventario) {
-        ejecutarTx(em -> em.merge(inventario), "actualizar inventario");
+        IndiceStock.obtenerInstancia().fijar(inventario.getProducto().getId(), inventario.getCantidad());
     }
 
     public void crearRegistroInventario(Inventario inventario) {
-        ejecutarTx(em -> em.persist(inventario), "crear inventario");
+        if (ejecutarTx(em -> em.persist(inventario), "crear inventario")) {
+            CacheSegundoNivel.invalidarInventario(inventario.getId());
+            IndiceStock.obtenerInstancia().registrar(inventario.getProducto().getId(), inventario.getCantidad());
+        }
+    }
+
+    /**
+     * Descuenta stock de forma atómica en el {@link IndiceStock}: la
+     * comprobación de existencias y la resta son un único CAS, por lo que dos
+     * ventas concurrentes nunca pueden dejar el stock en negativo.
+     *
+     * @return stock resultante, o vacío si no había unidades suficientes
+     *         (o el producto no tiene registro de inventario)
+     */
+    public OptionalInt decrementarStock(ProductoBase producto, int cantidad) {
+        try {
+            return IndiceStock.obtenerInstancia().decrementar(producto.getId(), cantidad);
+        } catch (UncheckedIOException ex) {
+            LOGGER.log(Level.SEVERE, "Error al decrementar stock", ex);
+            return OptionalInt.empty();
+        }
+    }
+
+    /** Suma {@code cantidad} unidades de forma atómica y devuelve el stock resultante. */
+    public OptionalInt incrementarStock(ProductoBase producto, int cantidad) {
+        try {
+            return IndiceStock.obtenerInstancia().incrementar(producto.getId(), cantidad);
+        } catch (UncheckedIOException ex) {
+            LOGGER.log(Level.SEVERE, "Error al incrementar stock", ex);
+            return OptionalInt.empty();
+        }
+    }
+
+    /* --------------------------- asíncronas ------------------------- */
+    /* Mismas operaciones en un hilo virtual; ver {@link EjecutorAsincrono}. */
+
+    public CompletableFuture<Optional<Inventario>> findByProductoAsync(ProductoBase producto) {
+        return EjecutorAsincrono.ejecutar(() -> findByProducto(producto));
+    }
+
+    public CompletableFuture<List<Inventario>> obtenerTodoElInventarioAsync() {
+        return EjecutorAsincrono.ejecutar(this::obtenerTodoElInventario);
+    }
+
+    public CompletableFuture<Integer> obtenerStockDeProductoAsync(ProductoBase producto) {
+        return EjecutorAsincrono.ejecutar(() -> obtenerStockDeProducto(producto));
+    }
+
+    public CompletableFuture<Integer> obtenerStockDisponibleAsync(ProductoBase producto, CarritoCompras carrito) {
+        return EjecutorAsincrono.ejecutar(() -> obtenerStockDisponible(producto, carrito));
+    }
+
+    public CompletableFuture<Void> actualizarInventarioAsync(Inventario inventario) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> actualizarInventario(inventario));
+    }
+
+    public CompletableFuture<Void> crearRegistroInventarioAsync(Inventario inventario) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> crearRegistroInventario(inventario));
+    }
+
+    public CompletableFuture<OptionalInt> decrementarStockAsync(ProductoBase producto, int cantidad) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> decrementarStock(producto, cantidad));
+    }
+
+    public CompletableFuture<OptionalInt> incrementarStockAsync(ProductoBase producto, int cantidad) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> incrementarStock(producto, cantidad));
     }
 
     /* --------------------------- helpers ---------------------------- */
 
     private interface AccionTx { void apply(EntityManager em); }
 
-    private void ejecutarTx(AccionTx accion, String descripcion) {
+    /* @return true si la transacción se confirmó. */
+    private boolean ejecutarTx(AccionTx accion, String descripcion) {
         EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
         try {
             em.getTransaction().begin();
             accion.apply(em);
             em.getTransaction().commit();
+            return true;
         } catch (Exception ex) {
             rollbackSilencioso(em);
             LOGGER.log(Level.SEVERE, "Error al " + descripcion, ex);
+            return false;
         } finally {
             em.close();
         }
     }
 
+    /* La columna cantidad va por detrás del índice hasta el siguiente volcado. */
+    private static Inventario conStockActual(Inventario inventario) {
+        inventario.setCantidad(IndiceStock.obtenerInstancia().stock(inventario.getProducto().getId()));
+        return inventario;
+    }
+
     private void rollbackSilencioso(EntityManager em) {
         try {
             if (em.getTransaction().isActive()) em.getTransaction().rollback();
@@ -0,0 +1,407 @@
+package servicio;
+
+import javafx.geometry.Pos;
+import javafx.scene.Node;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.effect.Light;
+import javafx.scene.effect.Lighting;
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import javafx.scene.layout.StackPane;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import javafx.scene.text.TextAlignment;
+import modelo.diseno.Diseno;
+import modelo.diseno.ElementoDiseno;
+import modelo.diseno.ElementoImagen;
+import modelo.diseno.ElementoTexto;
+import modelo.diseno.GrupoElementosDiseno;
+import modelo.producto.ProductoBase;
+import modelo.producto.ProductoCamiseta;
+import modelo.producto.ProductoChaqueta;
+import modelo.producto.ProductoPantalones;
+import util.AppLogic;
+import util.CacheImagenes;
+import util.CodificadorPng;
+import util.EjecutorAsincrono;
+import util.Rutas;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Miniaturas de producto personalizado: prenda base, tinte de color y diseño
+ * compuestos en una sola imagen.
+ *
+ * <p>La clave es el tipo de producto, el color, la huella del
+ * {@link Diseno} y el tamaño, así que pedidos de distintos clientes con el
+ * mismo diseño comparten miniatura. Cada miniatura se compone una vez (con un
+ * {@code snapshot} en el hilo de JavaFX) y queda en una caché LRU en memoria
+ * y como PNG en disco, de modo que volver a abrir un pedido cuesta una
+ * {@link ImageView} por línea en lugar de varias vistas con efectos.</p>
+ *
+ * <p>La caché en disco está acotada: al arrancar, y cada vez que pasa de
+ * {@link AppLogic.MINIATURAS#TAMANO_MAX_DISCO}, se borran las miniaturas sin
+ * usar desde hace {@link AppLogic.MINIATURAS#EDAD_MAX_DIAS} días y después las
+ * de uso más antiguo (la lectura renueva la fecha del archivo).</p>
+ */
+public class ServicioMiniaturas {
+
+    /* --------------------------- Singleton --------------------------- */
+    private static ServicioMiniaturas instancia;
+    public static synchronized ServicioMiniaturas obtenerInstancia() {
+        if (instancia == null) instancia = new ServicioMiniaturas(
+                AppLogic.MINIATURAS.CAPACIDAD_MEMORIA, Path.of(AppLogic.MINIATURAS.DIRECTORIO));
+        return instancia;
+    }
+
+    private static final Logger LOGGER = Logger.getLogger(ServicioMiniaturas.class.getName());
+
+    /* Proporciones de la composición, las mismas que la vista de detalles */
+    private static final double ESCALA_IMG   = 0.80;
+    private static final double ESCALA_TEXTO = 0.20;
+
+    private static final String PROP_CLAVE = ServicioMiniaturas.class.getName() + ".clave";
+
+    /* Temporales de escrituras cortadas: se borran pasado este tiempo */
+    private static final long EDAD_MAX_TEMPORAL_MS = TimeUnit.HOURS.toMillis(1);
+
+    /* ------------------------------ estado ------------------------------ */
+    private final int capacidad;
+    private final Path directorio;
+    private final LinkedHashMap<String, Image> memoria = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<String, CompletableFuture<Image>> enCurso = new HashMap<>();
+
+    private final AtomicLong    bytesEnDisco = new AtomicLong();   // estimación entre podas
+    private final AtomicBoolean podando      = new AtomicBoolean();
+
+    private ServicioMiniaturas(int capacidad, Path directorio) {
+        this.capacidad  = Math.max(1, capacidad);
+        this.directorio = directorio;
+        programarPoda();
+    }
+
+    /* ----------------------- API pública ------------------------------ */
+
+    /**
+     * Muestra en {@code vista} la miniatura de {@code producto} con la
+     * personalización indicada; si no está en memoria, la vista queda vacía
+     * hasta que se lee del disco o se compone (o muestra la imagen de
+     * «no disponible» si falla). Llamar desde el hilo de JavaFX.
+     *
+     * @param diseno diseño personalizado; solo se decodifica si hay que componer
+     * @param lado   ancho y alto de la miniatura en px
+     */
+    public void mostrarEn(ImageView vista, ProductoBase producto, Diseno diseno, double lado) {
+        String clave = clave(producto, diseno, lado);
+        vista.getProperties().put(PROP_CLAVE, clave);
+
+        Image lista = enMemoria(clave);
+        vista.setImage(lista);
+        if (lista != null) return;
+
+        obtener(clave, producto, diseno, lado).thenAcceptAsync(img -> {
+            if (clave.equals(vista.getProperties().get(PROP_CLAVE))) vista.setImage(img);
+        }, EjecutorAsincrono.EN_FX);
+    }
+
+    /* ----------------------- caché memoria / disco -------------------- */
+
+    private synchronized Image enMemoria(String clave) {
+        return memoria.get(clave);
+    }
+
+    private synchronized void guardarEnMemoria(String clave, Image img) {
+        memoria.put(clave, img);
+        var it = memoria.values().iterator();
+        while (memoria.size() > capacidad) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    private synchronized CompletableFuture<Image> obtener(String clave, ProductoBase producto,
+                                                          Diseno diseno, double lado) {
+        CompletableFuture<Image> futuro = enCurso.get(clave);
+        if (futuro != null) return futuro;
+
+        futuro = EjecutorAsincrono.ejecutar(() -> leerDeDisco(clave))
+                .thenCompose(img -> img != null
+                        ? CompletableFuture.completedFuture(img)
+                        : componer(clave, producto, diseno, lado))
+                .whenComplete((img, ex) -> {
+                    synchronized (this) { enCurso.remove(clave); }
+                    if (ex != null) {
+                        LOGGER.log(Level.WARNING, "No se pudo generar la miniatura de " + producto.obtenerNombre(),
+                                EjecutorAsincrono.desenvolver(ex));
+                    } else {
+                        guardarEnMemoria(clave, img);
+                    }
+                })
+                .exceptionally(ex -> CacheImagenes.obtenerInstancia().imagenNoDisponible());
+        if (!futuro.isDone()) enCurso.put(clave, futuro);
+        return futuro;
+    }
+
+    private Image leerDeDisco(String clave) {
+        Path archivo = directorio.resolve(clave + ".png");
+        if (!Files.isRegularFile(archivo)) return null;
+        try (InputStream in = Files.newInputStream(archivo)) {
+            Image img = new Image(in);
+            if (img.isError()) return null;
+            Files.setLastModifiedTime(archivo, FileTime.fromMillis(System.currentTimeMillis()));   // uso reciente
+            return img;
+        } catch (IOException ex) {
+            LOGGER.log(Level.FINE, "Miniatura ilegible en disco: " + archivo, ex);
+            return null;
+        }
+    }
+
+    private void escribirEnDisco(String clave, int[] argb, int ancho, int alto) {
+        try {
+            Files.createDirectories(directorio);
+            Path tmp = Files.createTempFile(directorio, clave, ".tmp");
+            byte[] png = CodificadorPng.codificar(argb, ancho, alto);
+            Files.write(tmp, png);
+            Files.move(tmp, directorio.resolve(clave + ".png"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (bytesEnDisco.addAndGet(png.length) > AppLogic.MINIATURAS.TAMANO_MAX_DISCO) programarPoda();
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "No se pudo guardar la miniatura " + clave, ex);
+        }
+    }
+
+    /* Poda la caché de disco en segundo plano; una sola poda a la vez */
+    private void programarPoda() {
+        if (!podando.compareAndSet(false, true)) return;
+        EjecutorAsincrono.ejecutar(() -> {
+            try {
+                podarDisco();
+            } finally {
+                podando.set(false);
+            }
+        });
+    }
+
+    /*
+     * Borra las miniaturas caducadas y los temporales huérfanos. Si aun así
+     * el directorio pasa del máximo, borra las de uso más antiguo hasta
+     * quedar en un 80 % para no volver a podar con cada miniatura nueva.
+     */
+    private void podarDisco() {
+        if (!Files.isDirectory(directorio)) return;
+        record Archivo(Path ruta, long tamano, long usado) { }
+
+        long ahora = System.currentTimeMillis();
+        long caducidad = ahora - TimeUnit.DAYS.toMillis(AppLogic.MINIATURAS.EDAD_MAX_DIAS);
+        List<Archivo> miniaturas = new ArrayList<>();
+        long total = 0;
+        int borradas = 0;
+        try (DirectoryStream<Path> archivos = Files.newDirectoryStream(directorio)) {
+            for (Path ruta : archivos) {
+                BasicFileAttributes atributos = Files.readAttributes(ruta, BasicFileAttributes.class);
+                if (!atributos.isRegularFile()) continue;
+                long usado = atributos.lastModifiedTime().toMillis();
+                boolean png = ruta.getFileName().toString().endsWith(".png");
+                if (png ? usado < caducidad : usado < ahora - EDAD_MAX_TEMPORAL_MS) {
+                    if (borrar(ruta)) borradas++;
+                } else if (png) {
+                    miniaturas.add(new Archivo(ruta, atributos.size(), usado));
+                    total += atributos.size();
+                }
+            }
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "No se pudo podar la caché de miniaturas en " + directorio, ex);
+            return;
+        }
+
+        if (total > AppLogic.MINIATURAS.TAMANO_MAX_DISCO) {
+            long objetivo = AppLogic.MINIATURAS.TAMANO_MAX_DISCO / 5 * 4;
+            miniaturas.sort(Comparator.comparingLong(Archivo::usado));
+            for (Archivo a : miniaturas) {
+                if (total <= objetivo) break;
+                if (borrar(a.ruta())) {
+                    total -= a.tamano();
+                    borradas++;
+                }
+            }
+        }
+        bytesEnDisco.set(total);
+        if (borradas > 0) {
+            long quedan = total;
+            int n = borradas;
+            LOGGER.info(() -> "Caché de miniaturas podada: %d archivos borrados, quedan %d KB".formatted(n, quedan >> 10));
+        }
+    }
+
+    private static boolean borrar(Path ruta) {
+        try {
+            return Files.deleteIfExists(ruta);
+        } catch (IOException ex) {   // p. ej. en uso en Windows: se reintentará en la próxima poda
+            LOGGER.log(Level.FINE, "No se pudo borrar " + ruta, ex);
+            return false;
+        }
+    }
+
+    /* ---------------------------- composición ---------------------------- */
+
+    /* Espera a tener decodificadas las imágenes y compone en el hilo de JavaFX */
+    private CompletableFuture<Image> componer(String clave, ProductoBase producto, Diseno diseno, double lado) {
+        GrupoElementosDiseno zona = diseno.getZonas().stream()
+                .filter(z -> !z.getElementos().isEmpty())
+                .findFirst().orElse(null);
+
+        CacheImagenes imagenes = CacheImagenes.obtenerInstancia();
+        CompletableFuture<Image> base = imagenes.cargar(rutaImagenBase(producto), lado, lado);
+        CompletableFuture<Image> imagen = zona != null && zona.getElementos().get(0) instanceof ElementoImagen ei
+                ? imagenes.cargar(ei.getUrlImagen(),
+                        lado * zona.getPrefWidth() * ESCALA_IMG * zona.getEscalaContenido(),
+                        lado * zona.getPrefHeight() * ESCALA_IMG * zona.getEscalaContenido())
+                : CompletableFuture.completedFuture(null);
+
+        return base.thenCombineAsync(imagen, (imgBase, imgDiseno) -> {
+            StackPane lienzo = new StackPane();
+            lienzo.setAlignment(Pos.CENTER);
+            lienzo.setPrefSize(lado, lado);
+            lienzo.setMinSize(lado, lado);
+            lienzo.setMaxSize(lado, lado);
+            lienzo.setClip(new Rectangle(lado, lado));   // el diseño desplazado no agranda la imagen
+
+            ImageView prenda = vistaBase(imgBase, lado);
+            ImageView tinte  = vistaBase(imgBase, lado);
+            tinte.setEffect(tinte(colorDe(producto)));
+            lienzo.getChildren().addAll(prenda, tinte);
+            if (zona != null) {
+                Node nodo = crearNodoDeDiseno(zona, imgDiseno, lado);
+                if (nodo != null) lienzo.getChildren().add(nodo);
+            }
+
+            SnapshotParameters parametros = new SnapshotParameters();
+            parametros.setFill(Color.TRANSPARENT);
+            WritableImage img = lienzo.snapshot(parametros, null);
+
+            int ancho = (int) img.getWidth(), alto = (int) img.getHeight();
+            int[] argb = new int[ancho * alto];
+            img.getPixelReader().getPixels(0, 0, ancho, alto, PixelFormat.getIntArgbInstance(), argb, 0, ancho);
+            EjecutorAsincrono.ejecutar(() -> escribirEnDisco(clave, argb, ancho, alto));
+            return (Image) img;
+        }, EjecutorAsincrono.EN_FX);   // snapshot solo en el hilo de JavaFX
+    }
+
+    private static ImageView vistaBase(Image img, double lado) {
+        ImageView iv = new ImageView(img);
+        iv.setPreserveRatio(true);
+        iv.setFitWidth(lado);
+        iv.setFitHeight(lado);
+        return iv;
+    }
+
+    private static Node crearNodoDeDiseno(GrupoElementosDiseno zona, Image imgDiseno, double lado) {
+        ElementoDiseno elemento = zona.getElementos().get(0);
+        double zonaW = lado * zona.getPrefWidth();
+        double zonaH = lado * zona.getPrefHeight();
+
+        Node contenido;
+        if (elemento instanceof ElementoTexto et) {
+            Text txt = new Text(et.getTexto());
+            txt.setFont(Font.font(et.getFuente(), zonaW * ESCALA_TEXTO * zona.getEscalaContenido()));
+            txt.setFill(Color.web(et.getColor()));
+            txt.setWrappingWidth(zonaW);
+            txt.setTextAlignment(TextAlignment.CENTER);
+            contenido = txt;
+        } else if (elemento instanceof ElementoImagen) {
+            ImageView iv = new ImageView(imgDiseno);
+            iv.setPreserveRatio(true);
+            iv.setFitWidth(zonaW * ESCALA_IMG * zona.getEscalaContenido());
+            iv.setFitHeight(zonaH * ESCALA_IMG * zona.getEscalaContenido());
+            contenido = iv;
+        } else {
+            return null;
+        }
+
+        StackPane sp = new StackPane(contenido);
+        sp.setPrefSize(zonaW, zonaH);
+        sp.setMaxSize(zonaW, zonaH);
+        sp.setAlignment(Pos.CENTER);
+        sp.setTranslateX((zona.getLayoutX() - 0.5) * lado + zona.getAjusteX());
+        sp.setTranslateY((zona.getLayoutY() - 0.5) * lado + zona.getAjusteY());
+        return sp;
+    }
+
+    private static Lighting tinte(String color) {
+        if (color == null) return null;
+        try {
+            Color c = Color.web(color.toLowerCase());
+            if (Color.WHITE.equals(c)) return null;
+
+            Lighting l = new Lighting();
+            l.setLight(new Light.Distant(45, 45, c));
+            l.setDiffuseConstant(1.2);
+            l.setSpecularConstant(0.2);
+            l.setSurfaceScale(0);
+            return l;
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+
+    /* ------------------------------ helpers ------------------------------ */
+
+    private static String rutaImagenBase(ProductoBase p) {
+        return switch (p) {
+            case ProductoChaqueta __    -> Rutas.IMAGENES.CHAQUETA_BASE;
+            case ProductoPantalones __  -> Rutas.IMAGENES.PANTALON_BASE;
+            default                     -> Rutas.IMAGENES.CAMISETA_BASE;
+        };
+    }
+
+    private static String colorDe(ProductoBase p) {
+        return switch (p) {
+            case ProductoCamiseta c    -> c.obtenerColor();
+            case ProductoChaqueta c    -> c.obtenerColor();
+            case ProductoPantalones c  -> c.obtenerColor();
+            default                    -> null;
+        };
+    }
+
+    /* SHA-256 de (tipo, color, diseño, lado): sirve también de nombre de archivo */
+    private static String clave(ProductoBase producto, Diseno diseno, double lado) {
+        String contenido = producto.getClass().getSimpleName() + '\0'
+                + Objects.requireNonNullElse(colorDe(producto), "") + '\0'
+                + diseno.getHuella() + '\0'
+                + Math.round(lado);
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(contenido.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {   // SHA-256 es obligatorio en toda JVM
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -11,12 +11,25 @@ import modelo.usuario.Usuario;
 import org.controlsfx.control.Notifications;
 
 import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
- * Fachada que centraliza la creación de notificaciones JavaFX
- * (incluye anti-spam y «debouncing» para alertas de stock).
+ * Fachada que centraliza la creación de notificaciones JavaFX.
+ *
+ * <p>Las notificaciones se agrupan en cubos por categoría (el título, o
+ * {@code STOCK} para las alertas de stock) y ventana propietaria. La primera
+ * de un cubo en reposo se muestra al momento; las que llegan durante la
+ * ventana de agrupación se acumulan y salen juntas al cerrarla, como una
+ * sola notificación resumen («12 variantes con stock bajo o agotado»). Si se
+ * supera el máximo de notificaciones por intervalo, el cubo espera a que haya
+ * hueco en lugar de perder lo acumulado.</p>
+ *
+ * <p>Todo el trabajo diferido corre en un único hilo programado; los métodos
+ * públicos pueden llamarse desde cualquier hilo.</p>
  */
 public class ServicioNotificacionesUI {
 
@@ -27,17 +40,47 @@ public class ServicioNotificacionesUI {
         return instancia;
     }
 
+    /** Detiene el hilo de agrupación; lo pendiente no se muestra. */
+    public static synchronized void shutdown() {
+        if (instancia != null) {
+            instancia.programador.shutdownNow();
+            LOGGER.info(() -> "Notificaciones: " + instancia.estadisticas());
+            instancia = null;
+        }
+    }
+
     /* ----------------------------- log -------------------------------- */
     private static final Logger LOGGER = Logger.getLogger(ServicioNotificacionesUI.class.getName());
 
     /* -------------- cooldown global (anti-spam) ----------------------- */
     private static final int  MAX_NOTIFS_WINDOW = 5;
     private static final long TIME_WINDOW_MS    = 5_000;
-    private final Deque<Long> timestamps        = new ArrayDeque<>();
+    /* Instantes de las últimas MAX_NOTIFS_WINDOW emisiones (búfer circular) */
+    private final long[] ultimasEmisiones = new long[MAX_NOTIFS_WINDOW];
+    private int posEmision;
+
+    /* ------------------- agrupación por categoría --------------------- */
+    private static final long   VENTANA_AGRUPACION_MS = 750;
+    private static final String CATEGORIA_STOCK       = "STOCK";
+
+    private record Clave(String categoria, Window ventana) { }
+
+    private static final class Cubo {
+        String titulo;
+        Node   owner;
+        /* clave de conflación → texto; sin clave, cada notificación es una entrada */
+        final Map<Object, String> textos = new LinkedHashMap<>();
+    }
+
+    /** Contadores acumulados: {@code recibidas = emitidas + suprimidas + pendientes}. */
+    public record Estadisticas(long recibidas, long emitidas, long suprimidas) { }
+
+    private final Map<Clave, Cubo> cubos = new HashMap<>();
+    private long recibidas, emitidas, suprimidas;
 
-    /* ------------- debounce de alertas de stock ---------------------- */
-    private final Map<String, TimerTask> stockTimers = new HashMap<>();
-    private final Timer debouncer = new Timer("NotificationDebouncer", true);
+    private final ScheduledExecutorService programador = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("notificaciones").daemon().factory());
+    private final ResourceBundle bundle = ResourceBundle.getBundle("ui.vista.messages");
 
     private ServicioNotificacionesUI() { }
 
@@ -48,75 +91,147 @@ public class ServicioNotificacionesUI {
     }
 
     public void mostrarNotificacion(String titulo, String texto, Node owner) {
-        if (!permitirNuevaNotificacion()) {
-            LOGGER.fine(() -> "Notificación bloqueada por spam: " + titulo);
-            return;
-        }
-        _displayNotification(titulo, texto, owner);
+        encolar(titulo, null, titulo, texto, owner);
     }
 
+    /**
+     * Alerta de stock de un producto. Dentro de la ventana de agrupación solo
+     * cuenta la última de cada producto, y varias se resumen en una.
+     */
     public void notificarAlertaDeStock(String productoId, String titulo,
                                        String texto, Node owner) {
+        encolar(CATEGORIA_STOCK, productoId, titulo, texto, owner);
+    }
 
-        stockTimers.compute(productoId, (id, viejaTarea) -> {
-            if (viejaTarea != null) viejaTarea.cancel();
-
-            TimerTask nueva = new TimerTask() {
-                @Override public void run() {
-                    Platform.runLater(() -> _displayNotification(titulo, texto, owner));
-                }
-            };
-            debouncer.schedule(nueva, 500);
-            return nueva;
-        });
+    public synchronized Estadisticas estadisticas() {
+        return new Estadisticas(recibidas, emitidas, suprimidas);
     }
 
     /* ----------------------- lógica interna --------------------------- */
 
-    private boolean permitirNuevaNotificacion() {
-        long now = System.currentTimeMillis();
-        timestamps.removeIf(t -> now - t > TIME_WINDOW_MS);
-        if (timestamps.size() >= MAX_NOTIFS_WINDOW) return false;
-        timestamps.add(now);
-        return true;
+    private synchronized void encolar(String categoria, Object claveConflacion,
+                                      String titulo, String texto, Node owner) {
+        recibidas++;
+        Clave clave = new Clave(categoria, ventanaDe(owner));
+        Cubo cubo = cubos.get(clave);
+
+        if (cubo == null) {
+            cubo = new Cubo();
+            cubos.put(clave, cubo);
+            long ahora = System.currentTimeMillis();
+            if (hayPresupuesto(ahora)) {
+                // Cubo en reposo: se muestra ya y se abre la ventana de agrupación
+                emitir(titulo, texto, owner, ahora);
+                programarVaciado(clave, VENTANA_AGRUPACION_MS);
+                return;
+            }
+            programarVaciado(clave, esperaPresupuesto(ahora));
+        }
+
+        cubo.titulo = titulo;
+        cubo.owner  = owner;
+        String anterior = cubo.textos.put(claveConflacion != null ? claveConflacion : new Object(), texto);
+        if (anterior != null) suprimidas++;
     }
 
-    private void _displayNotification(String titulo, String texto, Node ownerNode) {
+    private synchronized void vaciar(Clave clave) {
+        Cubo cubo = cubos.get(clave);
+        if (cubo == null) return;
+        if (cubo.textos.isEmpty()) {
+            cubos.remove(clave);   // ventana cerrada sin nada nuevo: vuelve a reposo
+            return;
+        }
+
+        long ahora = System.currentTimeMillis();
+        if (!hayPresupuesto(ahora)) {
+            programarVaciado(clave, esperaPresupuesto(ahora));
+            return;
+        }
+
+        int n = cubo.textos.size();
+        String ultimo = null;
+        for (String t : cubo.textos.values()) ultimo = t;
+        cubo.textos.clear();
+
+        if (n == 1) {
+            emitir(cubo.titulo, ultimo, cubo.owner, ahora);
+        } else {
+            suprimidas += n - 1;
+            String resumen = CATEGORIA_STOCK.equals(clave.categoria())
+                    ? String.format(bundle.getString("notif.resumen.stock.msg"), n)
+                    : String.format(bundle.getString("notif.resumen.mas.msg"), ultimo, n - 1);
+            emitir(cubo.titulo, resumen, cubo.owner, ahora);
+        }
+        programarVaciado(clave, VENTANA_AGRUPACION_MS);
+    }
+
+    private void programarVaciado(Clave clave, long retrasoMs) {
+        try {
+            programador.schedule(() -> vaciar(clave), retrasoMs, TimeUnit.MILLISECONDS);
+        } catch (RuntimeException ex) {   // cerrando la aplicación
+            LOGGER.log(Level.FINE, "No se pudo programar el vaciado de notificaciones", ex);
+        }
+    }
+
+    private boolean hayPresupuesto(long ahora) {
+        return ahora - ultimasEmisiones[posEmision] >= TIME_WINDOW_MS;
+    }
+
+    private long esperaPresupuesto(long ahora) {
+        return Math.max(VENTANA_AGRUPACION_MS, ultimasEmisiones[posEmision] + TIME_WINDOW_MS - ahora);
+    }
+
+    private void emitir(String titulo, String texto, Node owner, long ahora) {
         Usuario usuario = GestorDeEstado.obtenerInstancia().getUsuarioActual();
         if (titulo.toLowerCase().contains("inventario") &&
                 (usuario == null || !usuario.esAdmin())) {
+            suprimidas++;
             return; // Notificaciones de inventario solo para admins
         }
 
-        Platform.runLater(() -> {
-            try {
-                Notifications builder = Notifications.create()
-                        .title(titulo)
-                        .text(texto)
-                        .graphic(null)
-                        .hideAfter(Duration.seconds(4))
-                        .position(Pos.BOTTOM_LEFT);
-
-                Window anchor = resolverOwner(ownerNode);
-                if (anchor != null) builder.owner(anchor);
-
-                if (titulo.toLowerCase().matches(".*(error|inválida).*")) {
-                    builder.showError();
-                } else {
-                    builder.showInformation();
-                }
-            } catch (Exception ex) {
-                LOGGER.log(Level.WARNING, "Error mostrando notificación", ex);
+        emitidas++;
+        ultimasEmisiones[posEmision] = ahora;
+        posEmision = (posEmision + 1) % MAX_NOTIFS_WINDOW;
+        _displayNotification(titulo, texto, owner);
+    }
+
+    private void _displayNotification(String titulo, String texto, Node ownerNode) {
+        try {
+            Platform.runLater(() -> mostrarPopup(titulo, texto, ownerNode));
+        } catch (IllegalStateException ex) {   // toolkit no iniciado o ya cerrado
+            LOGGER.log(Level.FINE, "JavaFX no disponible; notificación descartada", ex);
+        }
+    }
+
+    private void mostrarPopup(String titulo, String texto, Node ownerNode) {
+        try {
+            Notifications builder = Notifications.create()
+                    .title(titulo)
+                    .text(texto)
+                    .graphic(null)
+                    .hideAfter(Duration.seconds(4))
+                    .position(Pos.BOTTOM_LEFT);
+
+            Window anchor = resolverOwner(ownerNode);
+            if (anchor != null) builder.owner(anchor);
+
+            if (titulo.toLowerCase().matches(".*(error|inválida).*")) {
+                builder.showError();
+            } else {
+                builder.showInformation();
             }
-        });
+        } catch (Exception ex) {
+            LOGGER.log(Level.WARNING, "Error mostrando notificación", ex);
+        }
+    }
+
+    private static Window ventanaDe(Node ownerNode) {
+        return ownerNode != null && ownerNode.getScene() != null ? ownerNode.getScene().getWindow() : null;
     }
 
     private Window resolverOwner(Node ownerNode) {
-        if (ownerNode != null &&
-                ownerNode.getScene() != null &&
-                ownerNode.getScene().getWindow() != null) {
-            return ownerNode.getScene().getWindow();
-        }
+        Window ventana = ventanaDe(ownerNode);
+        if (ventana != null) return ventana;
         return Stage.getWindows().stream().filter(Window::isShowing).findFirst().orElse(null);
     }
 }
@@ -1,11 +1,17 @@
 package servicio;
 
 import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import modelo.pedido.Pedido;
-import org.hibernate.Hibernate;
+import util.EjecutorAsincrono;
 import util.GestorJPA;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,13 +24,85 @@ public class ServicioPedido {
 
     /* ----------------------------- consultas ----------------------------- */
 
-    public List<Pedido> obtenerTodosLosPedidos() {
+    /**
+     * Devuelve una página de pedidos, del más reciente al más antiguo.
+     *
+     * <p>Paginación por <em>keyset</em> sobre ({@code fechaCreacion},
+     * {@code idPedido}): el coste no depende de cuántas páginas se hayan
+     * recorrido. Se resuelve en dos consultas: primero los ids de la página
+     * y después los pedidos con usuario, ítems y productos en un único
+     * fetch join, sin consultas adicionales por pedido.</p>
+     *
+     * @param filtro   criterios de búsqueda
+     * @param despuesDe cursor devuelto por la página anterior, o {@code null}
+     *                 para la primera
+     * @param tamano   número máximo de pedidos
+     */
+    public Pagina obtenerPagina(FiltroPedidos filtro, Cursor despuesDe, int tamano) {
         EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
         try {
-            List<Pedido> pedidos = em.createQuery("SELECT p FROM Pedido p", Pedido.class)
-                    .getResultList();
-            pedidos.forEach(p -> Hibernate.initialize(p.getItems())); // evitar lazy issues
-            return pedidos;
+            StringBuilder jpql = new StringBuilder("SELECT p.idPedido, p.fechaCreacion FROM Pedido p WHERE 1 = 1");
+            Map<String, Object> params = new HashMap<>();
+            aplicarFiltro(filtro, jpql, params);
+            if (despuesDe != null) {
+                jpql.append(" AND (p.fechaCreacion < :cFecha"
+                        + " OR (p.fechaCreacion = :cFecha AND p.idPedido < :cId))");
+                params.put("cFecha", despuesDe.fechaCreacion());
+                params.put("cId", despuesDe.idPedido());
+            }
+            jpql.append(" ORDER BY p.fechaCreacion DESC, p.idPedido DESC");
+
+            TypedQuery<Object[]> q = em.createQuery(jpql.toString(), Object[].class)
+                    .setMaxResults(tamano + 1);
+            params.forEach(q::setParameter);
+            List<Object[]> claves = q.getResultList();
+
+            boolean hayMas = claves.size() > tamano;
+            if (hayMas) claves = claves.subList(0, tamano);
+            if (claves.isEmpty()) return new Pagina(List.of(), null);
+
+            List<String> ids = claves.stream().map(c -> (String) c[0]).toList();
+            Map<String, Pedido> porId = new HashMap<>();
+            em.createQuery("""
+                    SELECT DISTINCT p FROM Pedido p
+                    JOIN FETCH p.usuario
+                    LEFT JOIN FETCH p.items i
+                    LEFT JOIN FETCH i.productoBase
+                    LEFT JOIN FETCH i.diseno
+                    WHERE p.idPedido IN :ids""", Pedido.class)
+                    .setParameter("ids", ids)
+                    .getResultList()
+                    .forEach(p -> porId.put(p.obtenerIdPedido(), p));
+
+            List<Pedido> pedidos = ids.stream().map(porId::get).filter(Objects::nonNull).toList();
+            Object[] ultima = claves.get(claves.size() - 1);
+            Cursor siguiente = hayMas ? new Cursor((LocalDateTime) ultima[1], (String) ultima[0]) : null;
+            return new Pagina(pedidos, siguiente);
+        } finally {
+            em.close();
+        }
+    }
+
+    /**
+     * Historial de un cliente, del pedido más reciente al más antiguo. Usa el
+     * índice {@code (usuario_id, fechaCreacion, idPedido)}, de modo que el
+     * coste depende de los pedidos del usuario y no del total de la tienda.
+     */
+    public Pagina obtenerPedidosDeUsuario(Long usuarioId, Cursor despuesDe, int tamano) {
+        return obtenerPagina(FiltroPedidos.todos().conUsuario(Objects.requireNonNull(usuarioId)), despuesDe, tamano);
+    }
+
+    /** @return número total de pedidos que cumplen el filtro. */
+    public long contarPedidos(FiltroPedidos filtro) {
+        EntityManager em = GestorJPA.getEntityManagerFactory().createEntityManager();
+        try {
+            StringBuilder jpql = new StringBuilder("SELECT COUNT(p) FROM Pedido p WHERE 1 = 1");
+            Map<String, Object> params = new HashMap<>();
+            aplicarFiltro(filtro, jpql, params);
+
+            TypedQuery<Long> q = em.createQuery(jpql.toString(), Long.class);
+            params.forEach(q::setParameter);
+            return q.getSingleResult();
         } finally {
             em.close();
         }
@@ -37,12 +115,65 @@ public class ServicioPedido {
     }
 
     public Pedido guardarNuevoPedido(Pedido pedido) {
-        ejecutarTx(em -> em.persist(pedido), "guardar nuevo pedido");
+        // Fuera de la transacción del pedido: no se ocupan dos conexiones a la vez
+        try {
+            ServicioCheckout.guardarDisenosNuevos(pedido);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.SEVERE, "Error al guardar los diseños del pedido", ex);
+            throw new RuntimeException("Error al guardar nuevo pedido", ex);
+        }
+        ejecutarTx(em -> {
+            ServicioCheckout.registrarDisenos(em, pedido);
+            em.persist(pedido);
+        }, "guardar nuevo pedido");
         return pedido;
     }
 
+    /* ----------------------------- asíncronas --------------------------- */
+    /* Mismas operaciones en un hilo virtual; ver {@link EjecutorAsincrono}. */
+
+    public CompletableFuture<Pagina> obtenerPaginaAsync(FiltroPedidos filtro, Cursor despuesDe, int tamano) {
+        return EjecutorAsincrono.ejecutar(() -> obtenerPagina(filtro, despuesDe, tamano));
+    }
+
+    public CompletableFuture<Pagina> obtenerPedidosDeUsuarioAsync(Long usuarioId, Cursor despuesDe, int tamano) {
+        return EjecutorAsincrono.ejecutar(() -> obtenerPedidosDeUsuario(usuarioId, despuesDe, tamano));
+    }
+
+    public CompletableFuture<Long> contarPedidosAsync(FiltroPedidos filtro) {
+        return EjecutorAsincrono.ejecutar(() -> contarPedidos(filtro));
+    }
+
+    public CompletableFuture<Void> actualizarPedidoAsync(Pedido pedido) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> actualizarPedido(pedido));
+    }
+
+    public CompletableFuture<Pedido> guardarNuevoPedidoAsync(Pedido pedido) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> guardarNuevoPedido(pedido));
+    }
+
     /* ----------------------------- helpers ------------------------------ */
 
+    private static void aplicarFiltro(FiltroPedidos f, StringBuilder jpql, Map<String, Object> params) {
+        if (f == null) return;
+        if (f.estado() != null) {
+            jpql.append(" AND p.estado = :estado");
+            params.put("estado", f.estado());
+        }
+        if (f.usuarioId() != null) {
+            jpql.append(" AND p.usuario.id = :usuarioId");
+            params.put("usuarioId", f.usuarioId());
+        }
+        if (f.desde() != null) {
+            jpql.append(" AND p.fechaCreacion >= :desde");
+            params.put("desde", f.desde());
+        }
+        if (f.hasta() != null) {
+            jpql.append(" AND p.fechaCreacion < :hasta");
+            params.put("hasta", f.hasta());
+        }
+    }
+
     private interface AccionTx { void apply(EntityManager em); }
 
     private void ejecutarTx(AccionTx accion, String desc) {
@@ -67,4 +198,23 @@ public class ServicioPedido {
             LOGGER.log(Level.SEVERE, "Error en rollback", ex);
         }
     }
+
+    /* --------------------------- value objects --------------------------- */
+
+    /**
+     * Posición de la última fila servida; la siguiente página empieza justo
+     * después.
+     */
+    public record Cursor(LocalDateTime fechaCreacion, String idPedido) { }
+
+    /**
+     * Resultado de {@link #obtenerPagina}.
+     *
+     * @param pedidos    pedidos de la página, en orden
+     * @param siguiente  cursor para pedir la página siguiente, o {@code null}
+     *                   si esta es la última
+     */
+    public record Pagina(List<Pedido> pedidos, Cursor siguiente) {
+        public boolean hayMas() { return siguiente != null; }
+    }
 }
@@ -5,10 +5,12 @@ import jakarta.persistence.NoResultException;
 import jakarta.persistence.TypedQuery;
 import modelo.usuario.Usuario;
 import org.mindrot.jbcrypt.BCrypt;
+import util.EjecutorAsincrono;
 import util.GestorJPA;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -77,6 +79,37 @@ public class ServicioUsuario {
         }, "eliminar usuario");
     }
 
+    /* -------------------------- asíncronas ------------------------------ */
+    /* Mismas operaciones en un hilo virtual; ver {@link EjecutorAsincrono}. */
+
+    public CompletableFuture<Usuario> registrarUsuarioAsync(String nombreUsuario, String password) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> registrarUsuario(nombreUsuario, password));
+    }
+
+    public CompletableFuture<Optional<Usuario>> autenticarUsuarioAsync(String nombreUsuario, String password) {
+        return EjecutorAsincrono.ejecutar(() -> autenticarUsuario(nombreUsuario, password));
+    }
+
+    public CompletableFuture<Optional<Usuario>> buscarPorNombreUsuarioAsync(String nombreUsuario) {
+        return EjecutorAsincrono.ejecutar(() -> buscarPorNombreUsuario(nombreUsuario));
+    }
+
+    public CompletableFuture<List<Usuario>> obtenerTodosLosUsuariosAsync() {
+        return EjecutorAsincrono.ejecutar(this::obtenerTodosLosUsuarios);
+    }
+
+    public CompletableFuture<Void> actualizarUsuarioAsync(Usuario usuario) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> actualizarUsuario(usuario));
+    }
+
+    public CompletableFuture<Void> eliminarUsuarioAsync(Usuario usuario) {
+        return EjecutorAsincrono.ejecutarEscritura(() -> eliminarUsuario(usuario));
+    }
+
+    public CompletableFuture<String> hashearPasswordAsync(String password) {
+        return EjecutorAsincrono.ejecutar(() -> hashearPassword(password));
+    }
+
     /* -------------------------- helpers TX ------------------------------ */
 
     private interface AccionTx { void apply(EntityManager em); }
@@ -2,13 +2,9 @@ package ui.controlador;
 
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.stage.Stage;
-import util.Rutas;
 
 import java.io.IOException;
 import java.net.URL;
@@ -48,16 +44,8 @@ public class AdminControlador implements Initializable {
     @FXML
     void regresarPrincipal(ActionEvent e) {
         try {
-            FXMLLoader loader = new FXMLLoader(
-                    getClass().getResource(Rutas.VISTAS.PRINCIPAL), bundle);
-            Parent root = loader.load();
-
             Stage stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-            stage.setScene(new Scene(root, 1_000, 700));
-            stage.setTitle(bundle.getString("window.title.principal"));
-            stage.setResizable(false);
-            stage.centerOnScreen();
-            stage.show();
+            RegistroVistas.obtenerInstancia().mostrar(stage, RegistroVistas.Vista.PRINCIPAL, null);
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Error al cargar la vista principal", ex);
         }
@@ -6,22 +6,40 @@ import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
+import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
+import javafx.stage.Window;
 import modelo.admin.StockProducto;
+import modelo.inventario.Inventario;
 import modelo.producto.Producto;
 import observador.GestorInventario;
 import servicio.ServicioInventario;
 import servicio.ServicioNotificacionesUI;
+import util.EjecutorAsincrono;
 
 import java.net.URL;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Controlador de la pestaña “Inventario” del panel de administración.
+ *
+ * <p>La tabla se carga entera al abrir la pestaña y después sigue los cambios
+ * de stock con {@link GestorInventario#nivelesStock()}: una venta o una
+ * reposición masiva actualiza solo las filas afectadas, en un único lote por
+ * pulso.</p>
  */
 public class AdminInventarioControlador implements Initializable {
 
+    private static final Logger LOGGER = Logger.getLogger(AdminInventarioControlador.class.getName());
+
     /* ---------------------- componentes FXML ---------------------- */
     @FXML private TableView<StockProducto>     tablaInventario;
     @FXML private TableColumn<StockProducto, Long>    colId;
@@ -35,7 +53,10 @@ public class AdminInventarioControlador implements Initializable {
 
     /* --------------------------- lógica --------------------------- */
     private ObservableList<StockProducto> stockObservables;
+    private final Map<Long, StockProducto> filasPorId = new HashMap<>();
     private ResourceBundle bundle;
+    private CompletableFuture<List<Inventario>> cargaEnCurso;
+    private Flow.Subscription suscripcionStock;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
@@ -61,6 +82,17 @@ public class AdminInventarioControlador implements Initializable {
         refrescarTablaInventario();
         tablaInventario.setItems(stockObservables);
 
+        suscripcionStock = GestorInventario.obtenerInstancia().nivelesStock().suscribir(this::aplicarNivelesStock);
+        // Al navegar la ventana cambia de escena pero la tabla sigue en la suya:
+        // se cancela cuando la escena deja de estar en una ventana visible
+        tablaInventario.sceneProperty()
+                .flatMap(Scene::windowProperty)
+                .flatMap(Window::showingProperty)
+                .orElse(false)
+                .addListener((obs, seVeia, seVe) -> {
+                    if (seVeia && !seVe) suscripcionStock.cancel();
+                });
+
         tablaInventario.getSelectionModel().selectedItemProperty().addListener((obs, o, n) -> {
             boolean sel = n != null;
             btnReponerStock.setDisable(!sel);
@@ -99,18 +131,65 @@ public class AdminInventarioControlador implements Initializable {
         }
 
         Producto prod = item.getProductoOriginal();
-        GestorInventario.obtenerInstancia().reponerStock(prod, cantidad);
+        Node origen = (Node) e.getSource();
+        btnReponerStock.setDisable(true);
 
-        txtCantidadReponer.clear();
-        refrescarTablaInventario();
-        tablaInventario.getSelectionModel().clearSelection();
+        CompletableFuture<Void> reposicion =
+                EjecutorAsincrono.ejecutarEscritura(() -> GestorInventario.obtenerInstancia().reponerStock(prod, cantidad));
+        EjecutorAsincrono.alVencerEnFx(reposicion, () ->
+                ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
+                        bundle.getString("admin.inventario.notif.incierto.title"),
+                        bundle.getString("admin.inventario.notif.incierto.msg"),
+                        origen));
+        EjecutorAsincrono.alTerminarEnFx(reposicion,
+                ok -> {
+                    // La fila se actualiza sola con el flujo de niveles de stock
+                    txtCantidadReponer.clear();
+                    tablaInventario.getSelectionModel().clearSelection();
+                },
+                ex -> {
+                    LOGGER.log(Level.SEVERE, "Error al reponer stock", ex);
+                    btnReponerStock.setDisable(tablaInventario.getSelectionModel().isEmpty());
+                    notificarErrorDeCarga(origen);
+                });
     }
 
     /* ----------------------- refrescar tabla ---------------------- */
+
+    /**
+     * Recarga la tabla en segundo plano. Una recarga pedida mientras otra
+     * sigue en curso cancela la anterior.
+     */
     public void refrescarTablaInventario() {
-        stockObservables.clear();
-        new ServicioInventario().obtenerTodoElInventario()
-                .forEach(inv -> stockObservables.add(
-                        new StockProducto(inv.getProducto(), inv.getCantidad())));
+        if (cargaEnCurso != null) cargaEnCurso.cancel(true);
+
+        cargaEnCurso = new ServicioInventario().obtenerTodoElInventarioAsync();
+        EjecutorAsincrono.alTerminarEnFx(cargaEnCurso,
+                inventario -> {
+                    stockObservables.setAll(inventario.stream()
+                            .map(inv -> new StockProducto(inv.getProducto(), inv.getCantidad()))
+                            .toList());
+                    filasPorId.clear();
+                    stockObservables.forEach(fila -> filasPorId.put(fila.getId(), fila));
+                },
+                ex -> {
+                    LOGGER.log(Level.SEVERE, "Error al cargar el inventario", ex);
+                    notificarErrorDeCarga(tablaInventario);
+                });
+    }
+
+    /* Llega en el hilo de JavaFX con los productos cambiados desde el último pulso. */
+    private void aplicarNivelesStock(Map<Long, Integer> niveles) {
+        niveles.forEach((id, stock) -> {
+            StockProducto fila = filasPorId.get(id);
+            if (fila != null) fila.setStock(stock);
+        });
+    }
+
+    private void notificarErrorDeCarga(Node owner) {
+        ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
+                bundle.getString("admin.inventario.notif.error.title"),
+                bundle.getString("admin.inventario.notif.error_servicio.msg"),
+                owner);
     }
 }
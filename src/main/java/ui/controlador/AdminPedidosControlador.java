@@ -4,12 +4,12 @@ import aplicacion.GestorDeEstado;
 import comando.*;
 import estado.ContextoEstadoPedido;
 import javafx.application.Platform;
+import javafx.collections.FXCollections;
+import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
@@ -17,10 +17,11 @@ import javafx.stage.Stage;
 import modelo.pedido.Pedido;
 import modelo.usuario.Usuario;
 import observador.GestorInventario;
+import servicio.FiltroPedidos;
 import servicio.ServicioNotificacionesUI;
 import servicio.ServicioPedido;
 import servicio.ServicioUsuario;
-import util.Rutas;
+import util.AppLogic;
 
 import java.io.IOException;
 import java.net.URL;
@@ -44,6 +45,9 @@ public class AdminPedidosControlador implements Initializable {
 
     /* --------------------------------- FXML -------------------------------------- */
     @FXML private ListView<Pedido> listaTodosPedidos;
+    @FXML private ComboBox<String> comboFiltroEstado;
+    @FXML private Label  lblResumenPedidos;
+    @FXML private Button btnCargarMas;
     @FXML private Button btnProcesarPedido;
     @FXML private Button btnEnviarPedido;
     @FXML private Button btnEntregarPedido;
@@ -55,6 +59,12 @@ public class AdminPedidosControlador implements Initializable {
     private final ServicioUsuario  servicioUsuario  = new ServicioUsuario();
     private final ServicioPedido   servicioPedido   = new ServicioPedido();
 
+    /* ------------------------------- paginación ---------------------------------- */
+    private final ObservableList<Pedido> pedidos = FXCollections.observableArrayList();
+    private FiltroPedidos          filtroActual = FiltroPedidos.todos();
+    private ServicioPedido.Cursor  cursorSiguiente;
+    private long                   totalPedidos;
+
     private ResourceBundle bundle;
 
     /* ----------------------------------------------------------------------------- */
@@ -77,10 +87,11 @@ public class AdminPedidosControlador implements Initializable {
 
     private void configurarPestanaPedidos() {
 
-        listaTodosPedidos.setItems(GestorDeEstado.obtenerInstancia().getPedidosCreados());
+        listaTodosPedidos.setItems(pedidos);
 
-        GestorDeEstado.obtenerInstancia().getPedidosCreados()
-                .forEach(p -> contextosPedidos.put(p.obtenerIdPedido(), new ContextoEstadoPedido(p)));
+        comboFiltroEstado.getItems().setAll(bundle.getString("admin.pedidos.filtro.todos"),
+                AppLogic.ESTADOS.PENDIENTE, AppLogic.ESTADOS.PROCESANDO, AppLogic.ESTADOS.ENVIADO,
+                AppLogic.ESTADOS.ENTREGADO, AppLogic.ESTADOS.CANCELADO);
 
         listaTodosPedidos.setCellFactory(lv -> new ListCell<>() {
             @Override protected void updateItem(Pedido item, boolean empty) {
@@ -111,6 +122,42 @@ public class AdminPedidosControlador implements Initializable {
                 .addListener((obs, o, n) -> actualizarEstadoBotones(n));
 
         actualizarEstadoBotones(null);
+        // Dispara handleFiltrarPorEstado, que carga la primera página
+        comboFiltroEstado.getSelectionModel().selectFirst();
+    }
+
+    /* ----------------------------------------------------------------------------- */
+    /*  Paginación y filtro                                                          */
+    /* ----------------------------------------------------------------------------- */
+
+    @FXML void handleFiltrarPorEstado(ActionEvent e) {
+        int idx = comboFiltroEstado.getSelectionModel().getSelectedIndex();
+        filtroActual = FiltroPedidos.todos().conEstado(idx <= 0 ? null : comboFiltroEstado.getValue());
+        recargarPedidos();
+    }
+
+    @FXML void handleCargarMas(ActionEvent e) {
+        cargarSiguientePagina();
+    }
+
+    /** Vuelve a la primera página del filtro actual. */
+    private void recargarPedidos() {
+        pedidos.clear();
+        contextosPedidos.clear();
+        cursorSiguiente = null;
+        totalPedidos = servicioPedido.contarPedidos(filtroActual);
+        cargarSiguientePagina();
+    }
+
+    private void cargarSiguientePagina() {
+        ServicioPedido.Pagina pagina = servicioPedido.obtenerPagina(
+                filtroActual, cursorSiguiente, AppLogic.PAGINACION.PEDIDOS_POR_PAGINA);
+        pedidos.addAll(pagina.pedidos());
+        cursorSiguiente = pagina.siguiente();
+
+        btnCargarMas.setDisable(!pagina.hayMas());
+        lblResumenPedidos.setText(String.format(
+                bundle.getString("admin.pedidos.resumen"), pedidos.size(), totalPedidos));
     }
 
     /* ----------------------------------------------------------------------------- */
@@ -274,15 +321,13 @@ public class AdminPedidosControlador implements Initializable {
     private void abrirVentanaDeDetalles(Pedido pedido) {
         if (pedido == null) return;
         try {
-            FXMLLoader loader = new FXMLLoader(
-                    getClass().getResource(Rutas.VISTAS.DETALLES_PEDIDO), bundle);
-            Parent root = loader.load();
-            DetallesPedidoControlador ctrl = loader.getController();
-            ctrl.setPedido(pedido);
+            RegistroVistas.Cargada<DetallesPedidoControlador> vista =
+                    RegistroVistas.obtenerInstancia().cargar(RegistroVistas.Vista.DETALLES_PEDIDO);
+            vista.controlador().setPedido(pedido);
 
             Stage st = new Stage();
             st.setTitle(bundle.getString("admin.pedidos.detalles.title"));
-            st.setScene(new Scene(root));
+            st.setScene(new Scene(vista.raiz()));
             st.setResizable(false);
             st.centerOnScreen();
             st.show();
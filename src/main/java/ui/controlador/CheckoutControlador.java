@@ -1,35 +1,27 @@
 package ui.controlador;
 
 import aplicacion.GestorDeEstado;
-import com.google.gson.Gson;
 import javafx.application.Platform;
 import javafx.collections.FXCollections;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.stage.Stage;
 import modelo.carrito.CarritoCompras;
-import modelo.pedido.ItemPedido;
 import modelo.pedido.Pedido;
 import modelo.producto.Producto;
-import modelo.producto.ProductoBase;
 import modelo.usuario.Usuario;
-import observador.GestorInventario;
+import servicio.ServicioCheckout;
 import servicio.ServicioNotificacionesUI;
-import servicio.ServicioPedido;
-import util.Rutas;
-import util.json.GsonUtil;
+import util.EjecutorAsincrono;
 
 import java.io.IOException;
 import java.net.URL;
 import java.time.YearMonth;
 import java.util.ResourceBundle;
-import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -38,8 +30,11 @@ import java.util.stream.IntStream;
 /**
  * Flujo de checkout: valida el formulario de pago, crea el {@link Pedido} y
  * actualiza el stock e histórico globales.
+ *
+ * <p>La vista se reutiliza; el formulario se vacía al ocultarla para no
+ * conservar los datos de la tarjeta.</p>
  */
-public class CheckoutControlador implements Initializable {
+public class CheckoutControlador implements Initializable, VistaReutilizable {
 
     private static final Logger LOGGER = Logger.getLogger(CheckoutControlador.class.getName());
 
@@ -56,7 +51,7 @@ public class CheckoutControlador implements Initializable {
     /* ----------------------------- lógica ----------------------------- */
     private CarritoCompras carrito;
     private Usuario        usuarioActual;
-    private final ServicioPedido servicioPedido = new ServicioPedido();
+    private final ServicioCheckout servicioCheckout = new ServicioCheckout();
     private ResourceBundle bundle;
 
     /* ------------------------------------------------------------------ */
@@ -74,6 +69,23 @@ public class CheckoutControlador implements Initializable {
         validarFormulario();
     }
 
+    @Override
+    public void alMostrar() {
+        usuarioActual = GestorDeEstado.obtenerInstancia().getUsuarioActual();
+        validarFormulario();
+    }
+
+    @Override
+    public void alOcultar() {
+        for (TextField campo : new TextField[] { txtNumeroTarjeta, txtNombre, txtApellido, txtCiudad,
+                txtDireccion, txtCodigoPostal, txtTelefono, txtCVV }) {   // txtPais es fijo
+            campo.clear();
+        }
+        comboMetodoPago.setValue(null);
+        comboMesExpiracion.setValue(null);
+        comboAnioExpiracion.setValue(null);
+    }
+
     public void setDatosCompra(double total) {
         lblTotalPagar.setText("S/%.2f".formatted(total));
     }
@@ -137,62 +149,53 @@ public class CheckoutControlador implements Initializable {
 
     @FXML
     void handlePagarAhora(ActionEvent e) {
-        try {
-            String idPedido = "PED_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
-            String direccion = "%s, %s, %s".formatted(
-                    txtDireccion.getText(), txtCiudad.getText(), txtCodigoPostal.getText());
-
-            Pedido.ConstructorPedido builder = new Pedido.ConstructorPedido(usuarioActual, idPedido)
-                    .establecerDireccionEnvio(direccion)
-                    .establecerMetodoPago(comboMetodoPago.getValue());
-
-            Gson gson = GsonUtil.getGson();
-
-            for (Producto p : carrito.obtenerProductos()) {
-                ItemPedido it = new ItemPedido();
-                it.setProductoBase((ProductoBase) p);
-                it.setCantidad(1);
-                it.setPrecioUnitario(p.calcularPrecio());
-                it.setPersonalizacionJson(gson.toJson(((ProductoBase) p).obtenerElementosDiseno()));
-                builder.anadirItem(it);
-            }
-
-            Pedido nuevo = builder.construir();
-            servicioPedido.guardarNuevoPedido(nuevo);
-            GestorDeEstado.obtenerInstancia().getPedidosCreados().add(nuevo);
-
-            nuevo.getItems().forEach(it ->
-                    GestorInventario.obtenerInstancia()
-                            .venderProducto(it.getProductoBase(), it.getCantidad()));
+        String direccion = "%s, %s, %s".formatted(
+                txtDireccion.getText(), txtCiudad.getText(), txtCodigoPostal.getText());
 
-            carrito.vaciarCarrito();
-            navegarPrincipalConExito(e, nuevo);
+        // Evita un segundo pedido mientras el primero sigue en curso, aunque tarde
+        btnPagar.setDisable(true);
 
-        } catch (Exception ex) {
-            LOGGER.log(Level.SEVERE, "Error en el proceso de pago", ex);
-            ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
-                    bundle.getString("checkout.notif.error.title"),
-                    bundle.getString("checkout.notif.error.msg"),
-                    (Node) e.getSource());
-        }
+        CompletableFuture<Pedido> compra = servicioCheckout.confirmarCompraAsync(
+                usuarioActual, direccion, comboMetodoPago.getValue(), carrito.obtenerProductos());
+        // La compra no tiene timeout: si tarda, solo se avisa de que aún no se sabe si se registró
+        EjecutorAsincrono.alVencerEnFx(compra, () ->
+                ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
+                        bundle.getString("checkout.notif.incierto.title"),
+                        bundle.getString("checkout.notif.incierto.msg"),
+                        (Node) e.getSource()));
+        EjecutorAsincrono.alTerminarEnFx(compra,
+                nuevo -> {
+                    carrito.vaciarCarrito();
+                    navegarPrincipalConExito(e, nuevo);
+                },
+                ex -> {
+                    validarFormulario();
+                    if (ex instanceof ServicioCheckout.StockInsuficienteException sin) {
+                        LOGGER.info(() -> "Compra rechazada: " + sin.getMessage());
+                        ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
+                                bundle.getString("checkout.notif.sin_stock.title"),
+                                bundle.getString("checkout.notif.sin_stock.msg").formatted(sin.getProducto().obtenerNombre()),
+                                (Node) e.getSource());
+                    } else {
+                        LOGGER.log(Level.SEVERE, "Error en el proceso de pago", ex);
+                        ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
+                                bundle.getString("checkout.notif.error.title"),
+                                bundle.getString("checkout.notif.error.msg"),
+                                (Node) e.getSource());
+                    }
+                });
     }
 
     private void navegarPrincipalConExito(ActionEvent e, Pedido p) {
         Platform.runLater(() -> {
             try {
-                FXMLLoader loader = new FXMLLoader(getClass().getResource(Rutas.VISTAS.PRINCIPAL), bundle);
-                Parent root = loader.load();
-
                 Stage stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-                stage.setScene(new Scene(root, 1_000, 700));
-                stage.setResizable(false);
-                stage.centerOnScreen();
-                stage.show();
+                RegistroVistas.obtenerInstancia().mostrar(stage, RegistroVistas.Vista.PRINCIPAL, null);
 
                 ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
                         bundle.getString("checkout.notif.exito.title"),
                         bundle.getString("checkout.notif.exito.msg").formatted(p.obtenerIdPedido()),
-                        root);
+                        stage.getScene().getRoot());
             } catch (IOException ex) {
                 LOGGER.log(Level.SEVERE, "Error al volver a la pantalla principal", ex);
             }
@@ -206,15 +209,8 @@ public class CheckoutControlador implements Initializable {
     @FXML
     void handleVolver(ActionEvent e) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(Rutas.VISTAS.PRINCIPAL), bundle);
-            Parent root = loader.load();
-
             Stage stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-            stage.setScene(new Scene(root, 1_000, 700));
-            stage.setTitle(bundle.getString("window.title.principal"));
-            stage.setResizable(false);
-            stage.centerOnScreen();
-            stage.show();
+            RegistroVistas.obtenerInstancia().mostrar(stage, RegistroVistas.Vista.PRINCIPAL, null);
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Error de navegación al volver", ex);
             ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
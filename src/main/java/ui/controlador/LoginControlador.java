@@ -1,33 +1,30 @@
 package ui.controlador;
 
+import aplicacion.Arranque;
 import aplicacion.GestorDeEstado;
 import javafx.application.Platform;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.Label;
 import javafx.scene.control.PasswordField;
 import javafx.scene.control.TextField;
 import javafx.stage.Stage;
-import modelo.usuario.Usuario;
 import servicio.ServicioUsuario;
-import util.Rutas;
+import util.EjecutorAsincrono;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.Optional;
 import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Controlador de la ventana de inicio de sesión.
  */
-public class LoginControlador implements Initializable {
+public class LoginControlador implements Initializable, VistaReutilizable {
 
     private static final Logger LOGGER = Logger.getLogger(LoginControlador.class.getName());
     private static final int    MAX_INTENTOS = 3;
@@ -47,6 +44,20 @@ public class LoginControlador implements Initializable {
         bundle = resourceBundle;
     }
 
+    /** Tras cerrar sesión el formulario vuelve a su estado inicial. */
+    @Override
+    public void alMostrar() {
+        txtUsuario.clear();
+        lblError.setText("");
+        intentosRestantes = MAX_INTENTOS;
+    }
+
+    /** La contraseña no se queda en memoria mientras la vista está oculta. */
+    @Override
+    public void alOcultar() {
+        txtPassword.clear();
+    }
+
     /* ------------------------------------------------------------------- */
     /*  Login                                                              */
     /* ------------------------------------------------------------------- */
@@ -60,20 +71,43 @@ public class LoginControlador implements Initializable {
             return;
         }
 
-        Optional<Usuario> auth = servicioUsuario.autenticarUsuario(nombre, password);
-        if (auth.isPresent()) {
-            GestorDeEstado.obtenerInstancia().setUsuarioActual(auth.get());
-            LOGGER.info(() -> "Login exitoso para " + nombre);
-            navegarAPrincipal(event);
-        } else {
-            gestionarIntentoFallido(event);
-        }
+        Node boton = (Node) event.getSource();
+        bloquearFormulario(boton, true);
+
+        // La BD se prepara en segundo plano: autenticar solo cuando esté lista
+        CompletableFuture<Void> listo = Arranque.obtenerInstancia().listo();
+        lblError.setText(listo.isDone() ? "" : bundle.getString("login.info.preparando"));
+
+        EjecutorAsincrono.alTerminarEnFx(
+                listo.thenCompose(v -> servicioUsuario.autenticarUsuarioAsync(nombre, password)),
+                auth -> {
+                    bloquearFormulario(boton, false);
+                    lblError.setText("");
+                    if (auth.isPresent()) {
+                        GestorDeEstado.obtenerInstancia().setUsuarioActual(auth.get());
+                        LOGGER.info(() -> "Login exitoso para " + nombre);
+                        navegarAPrincipal(event);
+                    } else {
+                        gestionarIntentoFallido(event);
+                    }
+                },
+                ex -> {
+                    bloquearFormulario(boton, false);
+                    LOGGER.log(Level.SEVERE, "Error al autenticar a " + nombre, ex);
+                    lblError.setText(bundle.getString("login.error.servicio"));
+                });
     }
 
     /* ------------------------------------------------------------------- */
     /*  Helpers                                                            */
     /* ------------------------------------------------------------------- */
 
+    private void bloquearFormulario(Node boton, boolean bloquear) {
+        txtUsuario.setDisable(bloquear);
+        txtPassword.setDisable(bloquear);
+        boton.setDisable(bloquear);
+    }
+
     private void gestionarIntentoFallido(ActionEvent event) {
         intentosRestantes--;
         txtPassword.clear();
@@ -106,15 +140,8 @@ public class LoginControlador implements Initializable {
 
     private void navegarAPrincipal(ActionEvent event) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(Rutas.VISTAS.PRINCIPAL), bundle);
-            Parent root = loader.load();
-
             Stage stage = (Stage) ((Node) event.getSource()).getScene().getWindow();
-            stage.setScene(new Scene(root, 1_000, 700));
-            stage.setTitle(bundle.getString("window.title.principal"));
-            stage.setResizable(false);
-            stage.centerOnScreen();
-            stage.show();
+            RegistroVistas.obtenerInstancia().mostrar(stage, RegistroVistas.Vista.PRINCIPAL, null);
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Error al cargar vista principal", ex);
             lblError.setText(bundle.getString("login.error.navegacion"));
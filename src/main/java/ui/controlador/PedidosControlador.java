@@ -3,45 +3,51 @@ package ui.controlador;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Button;
 import javafx.scene.control.ListView;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
 import javafx.stage.Stage;
 import modelo.pedido.Pedido;
 import modelo.usuario.Usuario;
-import util.Rutas;
+import servicio.ServicioPedido;
+import util.AppLogic;
 
 import java.io.IOException;
 import java.net.URL;
-import java.util.List;
 import java.util.ResourceBundle;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * Muestra los pedidos del usuario autenticado y permite ver su detalle.
  */
-public class PedidosControlador implements Initializable {
+public class PedidosControlador implements Initializable, VistaReutilizable {
 
     private static final Logger LOGGER = Logger.getLogger(PedidosControlador.class.getName());
 
     /* ----------------------------- FXML ----------------------------- */
     @FXML private ListView<Pedido> listaPedidos;
+    @FXML private Button           btnCargarMas;
 
     /* --------------------------- recursos --------------------------- */
     private ResourceBundle bundle;
+    private final ServicioPedido servicioPedido = new ServicioPedido();
+
+    /* -------------------------- paginación -------------------------- */
+    private final ObservableList<Pedido> pedidos = FXCollections.observableArrayList();
+    private Long                  usuarioId;
+    private ServicioPedido.Cursor cursorSiguiente;
 
     @Override
     public void initialize(URL url, ResourceBundle resourceBundle) {
         bundle = resourceBundle;
 
         VBox.setVgrow(listaPedidos, Priority.ALWAYS);
+        listaPedidos.setItems(pedidos);
 
         listaPedidos.setCellFactory(lv -> new javafx.scene.control.ListCell<>() {
             @Override protected void updateItem(Pedido item, boolean empty) {
@@ -59,16 +65,38 @@ public class PedidosControlador implements Initializable {
         });
     }
 
+    /** Los pedidos se vuelven a pedir en {@link #setUsuario} al mostrarse. */
+    @Override
+    public void alOcultar() {
+        pedidos.clear();
+        usuarioId       = null;
+        cursorSiguiente = null;
+        btnCargarMas.setVisible(false);
+    }
+
     /**
-     * Filtra los pedidos para el usuario y los muestra.
+     * Muestra la primera página de pedidos del usuario, del más reciente al
+     * más antiguo; el resto se pide con «Cargar más».
      */
-    public void setPedidos(ObservableList<Pedido> todos, Usuario usuario) {
+    public void setUsuario(Usuario usuario) {
         if (usuario == null) return;
-        List<Pedido> propios = todos.stream()
-                .filter(p -> p.getUsuario() != null &&
-                        p.getUsuario().getId().equals(usuario.getId()))
-                .collect(Collectors.toList());
-        listaPedidos.setItems(FXCollections.observableArrayList(propios));
+        usuarioId = usuario.getId();
+        pedidos.clear();
+        cursorSiguiente = null;
+        cargarSiguientePagina();
+    }
+
+    @FXML
+    private void handleCargarMas(javafx.event.ActionEvent e) {
+        cargarSiguientePagina();
+    }
+
+    private void cargarSiguientePagina() {
+        ServicioPedido.Pagina pagina = servicioPedido.obtenerPedidosDeUsuario(
+                usuarioId, cursorSiguiente, AppLogic.PAGINACION.PEDIDOS_POR_PAGINA);
+        pedidos.addAll(pagina.pedidos());
+        cursorSiguiente = pagina.siguiente();
+        btnCargarMas.setVisible(pagina.hayMas());
     }
 
     /* ------------------------- navegación -------------------------- */
@@ -76,15 +104,13 @@ public class PedidosControlador implements Initializable {
     private void abrirVentanaDeDetalles(Pedido pedido) {
         if (pedido == null) return;
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(Rutas.VISTAS.DETALLES_PEDIDO), bundle);
-            Parent root = loader.load();
-
-            DetallesPedidoControlador ctrl = loader.getController();
-            ctrl.setPedido(pedido);
+            RegistroVistas.Cargada<DetallesPedidoControlador> vista =
+                    RegistroVistas.obtenerInstancia().cargar(RegistroVistas.Vista.DETALLES_PEDIDO);
+            vista.controlador().setPedido(pedido);
 
             Stage st = new Stage();
             st.setTitle(bundle.getString("pedidos.window.title.detalles"));
-            st.setScene(new Scene(root));
+            st.setScene(new Scene(vista.raiz()));
             st.initOwner(listaPedidos.getScene().getWindow());
             st.setResizable(false);
             st.centerOnScreen();
@@ -97,15 +123,8 @@ public class PedidosControlador implements Initializable {
     @FXML
     private void regresarPrincipal(javafx.event.ActionEvent e) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(Rutas.VISTAS.PRINCIPAL), bundle);
-            Parent root = loader.load();
-
             Stage stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-            stage.setScene(new Scene(root, 1_000, 700));
-            stage.setTitle(bundle.getString("window.title.principal"));
-            stage.setResizable(false);
-            stage.centerOnScreen();
-            stage.show();
+            RegistroVistas.obtenerInstancia().mostrar(stage, RegistroVistas.Vista.PRINCIPAL, null);
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Error al volver a la vista principal", ex);
         }
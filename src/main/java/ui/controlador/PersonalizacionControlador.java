@@ -10,15 +10,11 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
-import javafx.scene.Scene;
 import javafx.scene.control.*;
-import javafx.scene.image.Image;
 import javafx.scene.image.ImageView;
 import javafx.scene.layout.Pane;
 import javafx.scene.layout.StackPane;
@@ -29,7 +25,7 @@ import javafx.scene.text.Text;
 import javafx.scene.text.TextAlignment;
 import javafx.stage.Stage;
 import modelo.carrito.CarritoCompras;
-import modelo.catalogo.CatalogoProductos;
+import modelo.catalogo.DisponibilidadVariantes;
 import modelo.diseno.ElementoDiseno;
 import modelo.diseno.ElementoImagen;
 import modelo.diseno.ElementoTexto;
@@ -40,6 +36,7 @@ import recuerdo.HistorialDiseno;
 import recuerdo.RecuerdoDiseno;
 import servicio.ServicioInventario;
 import servicio.ServicioNotificacionesUI;
+import util.CacheImagenes;
 import util.Rutas;
 
 import java.io.IOException;
@@ -88,7 +85,7 @@ public class PersonalizacionControlador implements Initializable {
     private final HistorialDiseno                historialDiseno = new HistorialDiseno();
     private Pane                                 contenedorDeZona;
     private GrupoElementosDiseno                 zonaDeDisenoUnica;
-    private List<ProductoBase>                   variantesDisponibles;
+    private DisponibilidadVariantes.Matriz       matriz;
     private boolean                              isUpdatingCombos;
     private ResourceBundle                       bundle;
 
@@ -121,14 +118,9 @@ public class PersonalizacionControlador implements Initializable {
     /* ---------------------------------------------------------------- */
 
     public void setProducto(Producto producto) {
-        ServicioInventario svc = new ServicioInventario();
-        variantesDisponibles = CatalogoProductos.obtenerInstancia()
-                .encontrarVariantesPorNombre(producto.obtenerNombre());
+        matriz = DisponibilidadVariantes.obtenerInstancia().obtenerMatriz(producto.obtenerNombre());
 
-        ProductoBase inicial = variantesDisponibles.stream()
-                .filter(v -> svc.obtenerStockDeProducto(v) > 0)
-                .findFirst()
-                .orElse((ProductoBase) producto);
+        ProductoBase inicial = matriz.primeraConStock().orElse((ProductoBase) producto);
 
         disenoOriginador = new DisenoOriginador(inicial);
         historialDiseno.guardar(disenoOriginador.guardarEstado());
@@ -143,16 +135,21 @@ public class PersonalizacionControlador implements Initializable {
     private void actualizarVistaDesdeOriginador() {
         Producto prod = disenoOriginador.getProducto();
         actualizarVistaParaProducto((ProductoBase) prod);
-
-        zonaDeDisenoUnica = ((ProductoBase) prod).obtenerElementosDiseno().isEmpty()
-                ? null
-                : (GrupoElementosDiseno) ((ProductoBase) prod).obtenerElementosDiseno().get(0);
+        leerZonaDelOriginador();
 
         actualizarPanelDeHerramientas();
         refrescarVistaPrevia();
         actualizarDesgloseDePrecio();
     }
 
+    /* Las zonas son inmutables: tras cada edición hay que volver a leerla del originador */
+    private void leerZonaDelOriginador() {
+        ProductoBase prod = (ProductoBase) disenoOriginador.getProducto();
+        zonaDeDisenoUnica = prod.obtenerElementosDiseno().isEmpty()
+                ? null
+                : (GrupoElementosDiseno) prod.obtenerElementosDiseno().get(0);
+    }
+
     private void actualizarVistaParaProducto(ProductoBase producto) {
         isUpdatingCombos = true;
         this.productoEnPersonalizacion = producto.clonar();
@@ -161,11 +158,11 @@ public class PersonalizacionControlador implements Initializable {
         comboColor.setVisible(false); comboColor.getItems().clear();
 
         if (producto instanceof ProductoCamiseta cam) {
-            configurarCombos(cam.obtenerTalla(), cam.obtenerColor(), ProductoCamiseta.class);
+            configurarCombos(cam.obtenerTalla(), cam.obtenerColor());
         } else if (producto instanceof ProductoChaqueta cha) {
-            configurarCombos(cha.obtenerTalla(), cha.obtenerColor(), ProductoChaqueta.class);
+            configurarCombos(cha.obtenerTalla(), cha.obtenerColor());
         } else if (producto instanceof ProductoPantalones pan) {
-            configurarCombos(pan.obtenerTalla(), pan.obtenerColor(), ProductoPantalones.class);
+            configurarCombos(pan.obtenerTalla(), pan.obtenerColor());
         }
 
         lblNombreProducto.setText(bundle.getString("personalizacion.label.nombre_producto")
@@ -177,20 +174,12 @@ public class PersonalizacionControlador implements Initializable {
         isUpdatingCombos = false;
     }
 
-    private <T extends ProductoBase> void configurarCombos(String tallaSel,
-                                                           String colorSel,
-                                                           Class<T> type) {
+    private void configurarCombos(String tallaSel, String colorSel) {
 
         comboTalla.setVisible(true);
         comboColor.setVisible(true);
 
-        comboTalla.setItems(FXCollections.observableArrayList(
-                variantesDisponibles.stream()
-                        .filter(type::isInstance)
-                        .map(p -> obtenerAtributo(p, "talla"))
-                        .distinct()
-                        .sorted()
-                        .toList()));
+        comboTalla.setItems(FXCollections.observableArrayList(matriz.tallas()));
 
         poblarColoresParaTalla(tallaSel);
 
@@ -206,12 +195,7 @@ public class PersonalizacionControlador implements Initializable {
     /** Llena comboColor con los colores de la talla dada sin provocar IndexOutOfBounds */
     private void poblarColoresParaTalla(String talla) {
 
-        List<String> nuevos = variantesDisponibles.stream()
-                .filter(pb -> obtenerAtributo(pb, "talla").equals(talla))
-                .map(pb -> obtenerAtributo(pb, "color"))
-                .distinct()
-                .sorted()
-                .toList();
+        List<String> nuevos = matriz.colores(talla);
 
         String colorActual = comboColor.getValue();
 
@@ -230,21 +214,14 @@ public class PersonalizacionControlador implements Initializable {
     }
 
     private void ajustarSeleccionSiSinStock() {
-        ServicioInventario svc = new ServicioInventario();
-
         String tallaSel  = comboTalla.getValue();
         String colorSel  = comboColor.getValue();
 
-        if (tallaSel != null && colorSel != null) {
-            Optional<ProductoBase> actual = encontrarVariante(tallaSel, colorSel);
-            if (actual.isPresent() && svc.obtenerStockDeProducto(actual.get()) > 0) {
-                return;
-            }
+        if (tallaSel != null && colorSel != null && matriz.hayStock(tallaSel, colorSel)) {
+            return;
         }
 
-        Optional<ProductoBase> conStock = variantesDisponibles.stream()
-                .filter(pb -> svc.obtenerStockDeProducto(pb) > 0)
-                .findFirst();
+        Optional<ProductoBase> conStock = matriz.primeraConStock();
 
         if (conStock.isPresent()) {
             isUpdatingCombos = true;
@@ -342,21 +319,26 @@ public class PersonalizacionControlador implements Initializable {
     }
 
     private ElementoDiseno crearElementoDesdeUI(String tipo, Node owner) {
+        ElementoDiseno elemento = elementoDelFormulario(tipo);
+        if (elemento == null && "Texto".equals(tipo)) {
+            notificar("personalizacion.notif.error.sin_contenido_texto", owner);
+        } else if (elemento == null && "Imagen".equals(tipo)) {
+            notificar("personalizacion.notif.error.sin_contenido_imagen", owner);
+        }
+        return elemento;
+    }
+
+    /** @return el elemento que describe el formulario, o {@code null} si está incompleto. */
+    private ElementoDiseno elementoDelFormulario(String tipo) {
         if ("Texto".equals(tipo)) {
             String txt = txtTextoPersonalizado.getText().trim();
-            if (txt.isEmpty()) {
-                notificar("personalizacion.notif.error.sin_contenido_texto", owner);
-                return null;
-            }
+            if (txt.isEmpty()) return null;
             return fabricaPersonalizacion.crearElementoTexto(
                     txt, txtFuenteTexto.getValue(), colorToHex(txtColorTexto.getValue()), PRECIO_EXTRA_TEXTO);
         }
         if ("Imagen".equals(tipo)) {
             String name = selectorDeImagen.getValue();
-            if (name == null || name.isBlank()) {
-                notificar("personalizacion.notif.error.sin_contenido_imagen", owner);
-                return null;
-            }
+            if (name == null || name.isBlank()) return null;
             return fabricaPersonalizacion.crearElementoImagen(
                     Rutas.IMAGENES.RUTA_DISENOS + name, name, PRECIO_EXTRA_IMAGEN);
         }
@@ -367,6 +349,7 @@ public class PersonalizacionControlador implements Initializable {
     void eliminarDiseno(ActionEvent e) {
         disenoOriginador.limpiarZona(zonaDeDisenoUnica.getNombreGrupo());
         historialDiseno.guardar(disenoOriginador.guardarEstado());
+        leerZonaDelOriginador();
         refrescarVistaPrevia();
         actualizarPanelDeHerramientas();
         actualizarDesgloseDePrecio();
@@ -386,9 +369,10 @@ public class PersonalizacionControlador implements Initializable {
                 : (productoEnPersonalizacion instanceof ProductoPantalones) ? Rutas.IMAGENES.PANTALON_BASE
                 : Rutas.IMAGENES.CAMISETA_BASE;
 
-        Image base = new Image(getClass().getResourceAsStream(rutaBase));
-        imagenProducto.setImage(base);
-        imagenColorOverlay.setImage(base);
+        // Se decodifica al tamaño máximo de la vista previa; ambas vistas comparten la imagen
+        CacheImagenes imagenes = CacheImagenes.obtenerInstancia();
+        imagenes.mostrarEn(imagenProducto, rutaBase, MAX_PREVIEW, MAX_PREVIEW);
+        imagenes.mostrarEn(imagenColorOverlay, rutaBase, MAX_PREVIEW, MAX_PREVIEW);
 
         imagenProducto.setPreserveRatio(true);
         imagenColorOverlay.setPreserveRatio(true);
@@ -460,12 +444,7 @@ public class PersonalizacionControlador implements Initializable {
 
     private Node crearPreviewImagen(ElementoImagen ei, double w, double h) {
         ImageView iv = new ImageView();
-        try {
-            iv.setImage(new Image(getClass().getResourceAsStream(ei.getUrlImagen())));
-        } catch (Exception ex) {
-            iv.setImage(new Image(Rutas.IMAGENES.ERROR_PLACEHOLDER));
-            LOGGER.log(Level.WARNING, "Imagen de diseño no encontrada: " + ei.getUrlImagen(), ex);
-        }
+        CacheImagenes.obtenerInstancia().mostrarEn(iv, ei.getUrlImagen(), w * ESCALA_IMG, h * ESCALA_IMG);
         iv.setPreserveRatio(true);
         iv.setFitWidth(w * ESCALA_IMG);
         iv.setFitHeight(h * ESCALA_IMG);
@@ -511,7 +490,7 @@ public class PersonalizacionControlador implements Initializable {
 
         ProductoBase pb = (ProductoBase) productoEnPersonalizacion;
         pb.limpiarElementosDiseno();
-        pb.anadirElementoDiseno(zonaDeDisenoUnica.clonar());
+        pb.anadirElementoDiseno(zonaDeDisenoUnica);
 
         carrito.anadirProducto(productoEnPersonalizacion);
         regresarPrincipal(e, true);
@@ -530,27 +509,13 @@ public class PersonalizacionControlador implements Initializable {
         return a.showAndWait().filter(b -> b == ButtonType.OK).isPresent();
     }
 
+    /* Compara el formulario con el diseño aplicado; la igualdad de elementos es por contenido */
     private boolean hayCambiosSinGuardar() {
-        String tipo = tipoDeDisenoSelector.getValue();
+        ElementoDiseno enFormulario = elementoDelFormulario(tipoDeDisenoSelector.getValue());
         boolean vacia = zonaDeDisenoUnica == null || zonaDeDisenoUnica.getElementos().isEmpty();
 
-        if (vacia) {
-            return "Texto".equals(tipo) ? !txtTextoPersonalizado.getText().trim().isEmpty()
-                    : "Imagen".equals(tipo) ? selectorDeImagen.getValue() != null
-                    : false;
-        }
-
-        ElementoDiseno el = zonaDeDisenoUnica.getElementos().get(0);
-        if (el instanceof ElementoTexto et && "Texto".equals(tipo)) {
-            return !(et.getTexto().equals(txtTextoPersonalizado.getText().trim()) &&
-                    et.getFuente().equals(txtFuenteTexto.getValue()) &&
-                    et.getColor().equalsIgnoreCase(colorToHex(txtColorTexto.getValue())));
-        }
-        if (el instanceof ElementoImagen ei && "Imagen".equals(tipo)) {
-            String sel = selectorDeImagen.getValue();
-            return sel != null && !ei.getUrlImagen().endsWith('/' + sel);
-        }
-        return true;
+        if (vacia) return enFormulario != null;
+        return !zonaDeDisenoUnica.getElementos().get(0).equals(enFormulario);
     }
 
     private void mostrarControles(boolean texto) {
@@ -593,18 +558,14 @@ public class PersonalizacionControlador implements Initializable {
 
     private void regresarPrincipal(ActionEvent e, boolean notif) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(Rutas.VISTAS.PRINCIPAL), bundle);
-            Parent root = loader.load();
             Stage stage = (Stage) ((Node) e.getSource()).getScene().getWindow();
-            stage.setScene(new Scene(root, 1_000, 700));
-            stage.centerOnScreen();
-            stage.show();
+            RegistroVistas.obtenerInstancia().mostrar(stage, RegistroVistas.Vista.PRINCIPAL, null);
 
             if (notif) {
                 ServicioNotificacionesUI.obtenerInstancia().mostrarNotificacion(
                         bundle.getString("personalizacion.notif.confirmacion.title"),
                         bundle.getString("personalizacion.notif.confirmacion.msg"),
-                        root);
+                        stage.getScene().getRoot());
             }
         } catch (IOException ex) {
             LOGGER.log(Level.SEVERE, "Error al volver a la vista principal", ex);
@@ -676,16 +637,13 @@ public class PersonalizacionControlador implements Initializable {
                 return;
             }
 
-            ServicioInventario svc = new ServicioInventario();
-            Optional<ProductoBase> seleccion = encontrarVariante(tallaSeleccionada, colorSeleccionado);
+            Optional<ProductoBase> seleccion = matriz.variante(tallaSeleccionada, colorSeleccionado);
 
-            if (seleccion.isPresent() && svc.obtenerStockDeProducto(seleccion.get()) > 0) {
+            if (seleccion.isPresent() && matriz.stock(seleccion.get()) > 0) {
                 disenoOriginador.setProducto(seleccion.get());
                 actualizarVistaDesdeOriginador();
             } else {
-                variantesDisponibles.stream()
-                        .filter(pb -> svc.obtenerStockDeProducto(pb) > 0)
-                        .findFirst()
+                matriz.primeraConStock()
                         .ifPresentOrElse(alternativa -> {
                             comboTalla.setValue(obtenerAtributo(alternativa, "talla"));
                             poblarColoresParaTalla(obtenerAtributo(alternativa, "talla"));
@@ -706,21 +664,10 @@ public class PersonalizacionControlador implements Initializable {
         }
     }
 
-    private Optional<ProductoBase> encontrarVariante(String talla, String color) {
-        return variantesDisponibles.stream()
-                .filter(pb -> obtenerAtributo(pb, "talla").equals(talla) &&
-                        obtenerAtributo(pb, "color").equals(color))
-                .findFirst();
-    }
-
     private String obtenerAtributo(ProductoBase p, String attr) {
         return switch (attr) {
-            case "talla" -> (p instanceof ProductoCamiseta c) ? c.obtenerTalla()
-                    : (p instanceof ProductoChaqueta c) ? c.obtenerTalla()
-                    : (p instanceof ProductoPantalones c) ? c.obtenerTalla() : "";
-            case "color" -> (p instanceof ProductoCamiseta c) ? c.obtenerColor()
-                    : (p instanceof ProductoChaqueta c) ? c.obtenerColor()
-                    : (p instanceof ProductoPantalones c) ? c.obtenerColor() : "";
+            case "talla" -> DisponibilidadVariantes.talla(p);
+            case "color" -> DisponibilidadVariantes.color(p);
             default -> "";
         };
     }
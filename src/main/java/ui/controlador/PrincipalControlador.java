@@ -1,47 +1,49 @@
 package ui.controlador;
 
 import aplicacion.GestorDeEstado;
+import javafx.application.Platform;
 import javafx.beans.binding.Bindings;
 import javafx.collections.FXCollections;
 import javafx.collections.ListChangeListener;
 import javafx.event.ActionEvent;
 import javafx.fxml.FXML;
-import javafx.fxml.FXMLLoader;
 import javafx.fxml.Initializable;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Node;
-import javafx.scene.Parent;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
 import modelo.carrito.CarritoCompras;
 import modelo.catalogo.CatalogoProductos;
+import modelo.catalogo.ResumenCatalogo;
+import modelo.catalogo.ResumenCatalogo.ResumenProducto;
 import modelo.producto.Producto;
-import modelo.producto.ProductoBase;
 import modelo.usuario.Usuario;
-import servicio.ServicioInventario;
 import servicio.ServicioNotificacionesUI;
-import util.Rutas;
+import ui.controlador.RegistroVistas.Vista;
 
 import java.io.IOException;
 import java.net.URL;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**
  * Vista principal para navegación del cliente, carrito y acceso a panel de
  * administración (según rol).
+ *
+ * <p>La vista se reutiliza entre navegaciones: el usuario y el catálogo se
+ * vuelven a leer en {@link #alMostrar()}.</p>
  */
-public class PrincipalControlador implements Initializable {
+public class PrincipalControlador implements Initializable, VistaReutilizable {
 
     private static final Logger LOGGER = Logger.getLogger(PrincipalControlador.class.getName());
 
     /* ------------------------------ FXML ------------------------------ */
-    @FXML private ListView<Producto> listaProductos;
+    @FXML private ListView<ResumenProducto> listaProductos;
     @FXML private ListView<Producto> listaCarrito;
     @FXML private Label  lblTotalCarrito;
     @FXML private Button btnPersonalizar, btnPanelAdmin, btnVaciarCarrito;
@@ -51,6 +53,9 @@ public class PrincipalControlador implements Initializable {
     private Usuario        usuarioActual;
     private ResourceBundle bundle;
 
+    private final ListChangeListener<Producto> alCambiarCarrito = c -> actualizarTotalCarrito();
+    private boolean carritoEnlazado;
+
     /* ------------------------------------------------------------------ */
     /*  Inicialización                                                    */
     /* ------------------------------------------------------------------ */
@@ -58,20 +63,52 @@ public class PrincipalControlador implements Initializable {
     public void initialize(URL url, ResourceBundle resourceBundle) {
         bundle = resourceBundle;
 
-        carrito       = GestorDeEstado.obtenerInstancia().getCarrito();
-        usuarioActual = GestorDeEstado.obtenerInstancia().getUsuarioActual();
-        btnPanelAdmin.setVisible(usuarioActual != null && usuarioActual.esAdmin());
+        carrito = GestorDeEstado.obtenerInstancia().getCarrito();
+        leerUsuario();
 
         configurarListadoProductos();
         configurarCeldasCarrito();
 
-        listaCarrito.setItems(carrito.obtenerProductos());
+        btnVaciarCarrito.managedProperty().bind(btnVaciarCarrito.visibleProperty());
+        btnPersonalizar.disableProperty().bind(listaProductos.getSelectionModel().selectedItemProperty().isNull());
+
+        // Una precarga llega aquí fuera del hilo de JavaFX; entonces enlaza alMostrar
+        if (Platform.isFxApplicationThread()) enlazarCarrito();
+    }
+
+    /** El usuario puede haber cambiado (cierre de sesión) y el stock (compras). */
+    @Override
+    public void alMostrar() {
+        leerUsuario();
+        cargarResumenes();
+        listaProductos.getSelectionModel().clearSelection();
+        enlazarCarrito();
         actualizarTotalCarrito();
-        carrito.obtenerProductos().addListener((ListChangeListener<? super Producto>) c -> actualizarTotalCarrito());
+    }
+
+    /** Oculta, la vista deja de escuchar al carrito compartido. */
+    @Override
+    public void alOcultar() {
+        if (!carritoEnlazado) return;
+        carritoEnlazado = false;
+        carrito.obtenerProductos().removeListener(alCambiarCarrito);
+        btnVaciarCarrito.visibleProperty().unbind();
+        listaCarrito.setItems(null);
+    }
 
+    /* El carrito es de todas las vistas: solo se escucha desde el hilo de JavaFX. */
+    private void enlazarCarrito() {
+        if (carritoEnlazado) return;
+        carritoEnlazado = true;
+        listaCarrito.setItems(carrito.obtenerProductos());
+        carrito.obtenerProductos().addListener(alCambiarCarrito);
         btnVaciarCarrito.visibleProperty().bind(Bindings.isNotEmpty(carrito.obtenerProductos()));
-        btnVaciarCarrito.managedProperty().bind(btnVaciarCarrito.visibleProperty());
-        btnPersonalizar.disableProperty().bind(listaProductos.getSelectionModel().selectedItemProperty().isNull());
+        actualizarTotalCarrito();
+    }
+
+    private void leerUsuario() {
+        usuarioActual = GestorDeEstado.obtenerInstancia().getUsuarioActual();
+        btnPanelAdmin.setVisible(usuarioActual != null && usuarioActual.esAdmin());
     }
 
     /* ------------------------------------------------------------------ */
@@ -79,43 +116,29 @@ public class PrincipalControlador implements Initializable {
     /* ------------------------------------------------------------------ */
 
     private void configurarListadoProductos() {
-        CatalogoProductos catalogo = CatalogoProductos.obtenerInstancia();
-        List<Producto> productos = catalogo.obtenerTodosLosProductos();
-
-        Map<String, List<Producto>> agrupados = productos.stream()
-                .collect(Collectors.groupingBy(Producto::obtenerNombre));
-        List<Producto> representantes = agrupados.values().stream()
-                .map(l -> l.get(0))
-                .toList();
-
-        listaProductos.setItems(FXCollections.observableArrayList(representantes));
-        configurarCeldasProducto(agrupados);
+        cargarResumenes();
+        configurarCeldasProducto();
     }
 
-    private void configurarCeldasProducto(Map<String, List<Producto>> agrupados) {
-        ServicioInventario svc = new ServicioInventario();
+    private void cargarResumenes() {
+        List<ResumenProducto> resumenes = ResumenCatalogo.obtenerInstancia().obtenerResumenes();
+        listaProductos.setItems(FXCollections.observableArrayList(resumenes));
+    }
 
+    /* Las celdas solo leen el resumen ya calculado: nunca consultan la BD. */
+    private void configurarCeldasProducto() {
         listaProductos.setCellFactory(lv -> new ListCell<>() {
-            @Override protected void updateItem(Producto item, boolean empty) {
+            @Override protected void updateItem(ResumenProducto item, boolean empty) {
                 super.updateItem(item, empty);
                 if (empty || item == null) {
                     setText(null); setDisable(false); getStyleClass().remove("producto-agotado");
                     return;
                 }
 
-                List<Producto> variantes = agrupados.get(item.obtenerNombre());
-                double precioMin = variantes.stream()
-                        .mapToDouble(p -> ((ProductoBase) p).getPrecioBase())
-                        .min().orElse(0);
-
-                int stockTotal = variantes.stream()
-                        .mapToInt(v -> svc.obtenerStockDeProducto((ProductoBase) v))
-                        .sum();
-
                 setText(bundle.getString("principal.list.producto_desde").formatted(
-                        item.obtenerNombre(), precioMin));
+                        item.nombre(), item.precioMinimo()));
 
-                boolean agotado = stockTotal <= 0;
+                boolean agotado = item.agotado();
                 setDisable(agotado);
                 if (agotado) getStyleClass().add("producto-agotado");
                 else         getStyleClass().remove("producto-agotado");
@@ -159,31 +182,32 @@ public class PrincipalControlador implements Initializable {
             notificar("Carrito Vacío", "Añade productos antes de proceder al pago.", (Node) e.getSource());
             return;
         }
-        cargarVista(Rutas.VISTAS.CHECKOUT, 600, 700, "window.title.checkout", e,
-                ctrl -> ((CheckoutControlador) ctrl).setDatosCompra(carrito.calcularTotal()));
+        this.<CheckoutControlador>cargarVista(Vista.CHECKOUT, e,
+                ctrl -> ctrl.setDatosCompra(carrito.calcularTotal()));
     }
 
     @FXML
     private void mostrarMisPedidos(ActionEvent e) {
-        cargarVista(Rutas.VISTAS.PEDIDOS, 1_000, 700, "window.title.mis_pedidos", e,
-                ctrl -> ((PedidosControlador) ctrl)
-                        .setPedidos(GestorDeEstado.obtenerInstancia().getPedidosCreados(), usuarioActual));
+        this.<PedidosControlador>cargarVista(Vista.PEDIDOS, e,
+                ctrl -> ctrl.setUsuario(usuarioActual));
     }
 
     @FXML
     private void personalizarProducto(ActionEvent e) {
-        Producto seleccionado = listaProductos.getSelectionModel().getSelectedItem();
+        ResumenProducto resumen = listaProductos.getSelectionModel().getSelectedItem();
+        if (resumen == null) return;
+        Producto seleccionado = CatalogoProductos.obtenerInstancia().encontrarPorId(resumen.idRepresentante());
         if (seleccionado == null) return;
 
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(Rutas.VISTAS.PERSONALIZACION), bundle);
-            Parent root = loader.load();
-            PersonalizacionControlador pc = loader.getController();
+            RegistroVistas.Cargada<PersonalizacionControlador> vista =
+                    RegistroVistas.obtenerInstancia().cargar(Vista.PERSONALIZACION);
+            PersonalizacionControlador pc = vista.controlador();
             pc.setProducto(seleccionado);
 
             Stage st = new Stage();
             st.setTitle(bundle.getString("window.title.personalizacion").formatted(seleccionado.obtenerNombre()));
-            st.setScene(new Scene(root, 1_000, 750));
+            st.setScene(new Scene(vista.raiz(), 1_000, 750));
             st.setResizable(false);
             st.setOnShown(ev -> { pc.refrescarLayoutInicial(); st.centerOnScreen(); });
             st.show();
@@ -209,35 +233,26 @@ public class PrincipalControlador implements Initializable {
 
     @FXML
     private void mostrarPanelAdmin(ActionEvent e) {
-        cargarVista(Rutas.VISTAS.ADMIN, 1_000, 700, "window.title.admin", e, null);
+        cargarVista(Vista.ADMIN, e, null);
     }
 
     @FXML
     private void handleCerrarSesion(ActionEvent e) {
         GestorDeEstado.obtenerInstancia().setUsuarioActual(null);
-        cargarVista(Rutas.VISTAS.LOGIN, 600, 500, "window.title.login", e, null);
+        cargarVista(Vista.LOGIN, e, null);
     }
 
     /* ------------------------------------------------------------------ */
     /*  Helpers                                                           */
     /* ------------------------------------------------------------------ */
 
-    private void cargarVista(String fxml, int w, int h, String titleKey,
-                             ActionEvent e, java.util.function.Consumer<Object> onLoaded) {
+    private <C> void cargarVista(Vista vista, ActionEvent e, Consumer<C> onLoaded) {
         try {
-            FXMLLoader loader = new FXMLLoader(getClass().getResource(fxml), bundle);
-            Parent root = loader.load();
-            if (onLoaded != null) onLoaded.accept(loader.getController());
-
             Stage st = (Stage) ((Node) e.getSource()).getScene().getWindow();
-            st.setScene(new Scene(root, w, h));
-            st.setTitle(bundle.getString(titleKey));
-            st.setResizable(false);
-            st.centerOnScreen();
-            st.show();
+            RegistroVistas.obtenerInstancia().mostrar(st, vista, onLoaded);
         } catch (IOException ex) {
-            LOGGER.log(Level.SEVERE, "Error cargando vista: " + fxml, ex);
-            notificarCarga(fxml, e);
+            LOGGER.log(Level.SEVERE, "Error cargando vista: " + vista, ex);
+            notificarCarga(vista.name().toLowerCase(), e);
         }
     }
 
@@ -0,0 +1,286 @@
+package ui.controlador;
+
+import javafx.event.EventHandler;
+import javafx.fxml.FXMLLoader;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.stage.Stage;
+import javafx.stage.Window;
+import javafx.stage.WindowEvent;
+import util.EjecutorAsincrono;
+import util.Rutas;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ResourceBundle;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Registro de las vistas FXML de la aplicación.
+ *
+ * <p>Las vistas de navegación (login, principal, checkout y pedidos) se
+ * cargan una sola vez y se reutilizan con su escena: volver a ellas no
+ * vuelve a leer el FXML ni a construir el grafo de nodos. Sus controladores
+ * implementan {@link VistaReutilizable} para refrescar los datos al
+ * mostrarse. Las vistas que dependen de un producto o pedido concreto, o que
+ * pueden estar abiertas varias veces, se cargan de nuevo cada vez.</p>
+ *
+ * <p>Las vistas reutilizables se pueden {@linkplain #precargar precargar} en
+ * segundo plano (p. ej. mientras el usuario inicia sesión). Cada carga queda
+ * cronometrada en {@link #obtenerEstadisticas()}. Salvo la precarga, todo se
+ * usa desde el hilo de JavaFX; por eso un controlador precargado no debe
+ * escuchar estado compartido en {@code initialize}, sino en
+ * {@link VistaReutilizable#alMostrar()}.</p>
+ *
+ * <p>Si una vista reutilizable se pide mientras sigue abierta en otra ventana
+ * se muestra una copia. La copia no se reutiliza, pero su
+ * {@link VistaReutilizable#alOcultar()} se llama igual: al sustituirla otra
+ * vista o al cerrarse su ventana.</p>
+ */
+public final class RegistroVistas {
+
+    private static final Logger LOGGER = Logger.getLogger(RegistroVistas.class.getName());
+
+    /* --------------------------- Singleton --------------------------- */
+    private static final RegistroVistas INSTANCIA = new RegistroVistas();
+
+    public static RegistroVistas obtenerInstancia() { return INSTANCIA; }
+
+    /* ------------------------------ vistas ------------------------------ */
+
+    /** Vistas de {@link Rutas.VISTAS}, con el tamaño y título de su ventana. */
+    public enum Vista {
+        LOGIN          (Rutas.VISTAS.LOGIN,             600, 500, "window.title.login",       true),
+        PRINCIPAL      (Rutas.VISTAS.PRINCIPAL,       1_000, 700, "window.title.principal",   true),
+        CHECKOUT       (Rutas.VISTAS.CHECKOUT,          600, 700, "window.title.checkout",    true),
+        PEDIDOS        (Rutas.VISTAS.PEDIDOS,         1_000, 700, "window.title.mis_pedidos", true),
+        ADMIN          (Rutas.VISTAS.ADMIN,           1_000, 700, "window.title.admin",       false),
+        PERSONALIZACION(Rutas.VISTAS.PERSONALIZACION, 1_000, 750, null,                       false),
+        DETALLES_PEDIDO(Rutas.VISTAS.DETALLES_PEDIDO,     0,   0, null,                       false);
+
+        private final String  fxml;
+        private final int     ancho, alto;
+        private final String  claveTitulo;
+        private final boolean reutilizable;
+
+        Vista(String fxml, int ancho, int alto, String claveTitulo, boolean reutilizable) {
+            this.fxml         = fxml;
+            this.ancho        = ancho;
+            this.alto         = alto;
+            this.claveTitulo  = claveTitulo;
+            this.reutilizable = reutilizable;
+        }
+
+        public boolean esReutilizable() { return reutilizable; }
+    }
+
+    /** Raíz y controlador de una vista recién cargada. */
+    public record Cargada<C>(Parent raiz, C controlador) { }
+
+    /** Cargas y reutilizaciones de una vista, con sus tiempos de carga. */
+    public record Estadistica(Vista vista, int cargas, int reutilizaciones, long ultimaMs, long mediaMs) {
+        @Override public String toString() {
+            return "%-15s cargas=%d reutilizaciones=%d última=%d ms media=%d ms"
+                    .formatted(vista, cargas, reutilizaciones, ultimaMs, mediaMs);
+        }
+    }
+
+    /* ------------------------------ estado ------------------------------ */
+    private final ResourceBundle bundle = ResourceBundle.getBundle("ui.vista.messages");
+    private final Map<Vista, Entrada> entradas = new EnumMap<>(Vista.class);
+    private final Map<Vista, CompletableFuture<Entrada>> precargas = new EnumMap<>(Vista.class);
+    private final Map<Vista, Contadores> contadores = new EnumMap<>(Vista.class);   // candado propio
+    private final List<Entrada> copias = new ArrayList<>();
+
+    private RegistroVistas() { }
+
+    /* ---------------------------- API pública ---------------------------- */
+
+    /**
+     * Muestra {@code vista} en {@code stage}, reutilizándola si ya estaba
+     * cargada.
+     *
+     * @param preparar recibe el controlador antes de mostrar la ventana
+     *                 (puede ser {@code null})
+     * @return el controlador de la vista
+     * @throws IOException si hubo que cargar el FXML y falló
+     */
+    @SuppressWarnings("unchecked")
+    public <C> C mostrar(Stage stage, Vista vista, Consumer<? super C> preparar) throws IOException {
+        Entrada entrada = obtenerEntrada(stage, vista);
+        ocultarActual(stage, entrada);
+
+        if (entrada.pendienteRefresco && entrada.controlador instanceof VistaReutilizable r) r.alMostrar();
+        entrada.pendienteRefresco = vista.reutilizable;
+
+        C controlador = (C) entrada.controlador;
+        if (preparar != null) preparar.accept(controlador);
+
+        stage.setScene(entrada.escena(vista));
+        if (vista.claveTitulo != null) stage.setTitle(bundle.getString(vista.claveTitulo));
+        stage.setResizable(false);
+        stage.centerOnScreen();
+        stage.show();
+        return controlador;
+    }
+
+    /**
+     * Carga una copia nueva de la vista, sin reutilizar ni guardar nada;
+     * para vistas que se abren en su propia ventana.
+     */
+    @SuppressWarnings("unchecked")
+    public <C> Cargada<C> cargar(Vista vista) throws IOException {
+        Entrada entrada = cargarEntrada(vista, false);
+        return new Cargada<>(entrada.raiz, (C) entrada.controlador);
+    }
+
+    /**
+     * Carga en segundo plano las vistas reutilizables indicadas que aún no
+     * estén cargadas. Llamar desde el hilo de JavaFX.
+     */
+    public void precargar(Vista... vistas) {
+        for (Vista vista : vistas) {
+            if (!vista.reutilizable || entradas.containsKey(vista) || precargas.containsKey(vista)) continue;
+            precargas.put(vista, EjecutorAsincrono.ejecutar(() -> cargarEntrada(vista, true))
+                    .whenComplete((e, ex) -> {
+                        if (ex != null) LOGGER.log(Level.WARNING, "No se pudo precargar la vista " + vista,
+                                EjecutorAsincrono.desenvolver(ex));
+                    }));
+        }
+    }
+
+    /** @return las cargas y tiempos de cada vista cargada alguna vez. */
+    public Map<Vista, Estadistica> obtenerEstadisticas() {
+        Map<Vista, Estadistica> resultado = new LinkedHashMap<>();
+        synchronized (contadores) {
+            contadores.forEach((vista, c) -> resultado.put(vista, c.instantanea(vista)));
+        }
+        return resultado;
+    }
+
+    /** Vuelca las estadísticas al log (nivel INFO). */
+    public void registrarEstadisticas() {
+        obtenerEstadisticas().values().forEach(e -> LOGGER.info(e::toString));
+    }
+
+    /* ------------------------------ entradas ------------------------------ */
+
+    private Entrada obtenerEntrada(Stage stage, Vista vista) throws IOException {
+        if (!vista.reutilizable) return cargarEntrada(vista, false);
+
+        Entrada entrada = entradas.get(vista);
+        if (entrada == null) {
+            CompletableFuture<Entrada> precarga = precargas.remove(vista);
+            // Esperar a una precarga en curso nunca tarda más que cargar de nuevo
+            if (precarga != null) entrada = precarga.exceptionally(ex -> null).join();
+            if (entrada == null) entrada = cargarEntrada(vista, false);
+            entradas.put(vista, entrada);
+        } else {
+            synchronized (contadores) { contar(vista).reutilizaciones++; }
+        }
+
+        Window anterior = entrada.escena != null ? entrada.escena.getWindow() : null;
+        if (anterior != null && anterior != stage) {
+            // Una escena solo puede estar en una ventana: si la otra sigue
+            // abierta se usa una copia; si se cerró, se le quita la escena.
+            if (anterior.isShowing()) return copia(stage, vista);
+            ((Stage) anterior).setScene(null);
+        }
+        return entrada;
+    }
+
+    private void ocultarActual(Stage stage, Entrada siguiente) {
+        Scene actual = stage.getScene();
+        if (actual == null) return;
+        for (Entrada e : entradas.values()) {
+            if (e != siguiente && e.escena == actual && e.controlador instanceof VistaReutilizable r) {
+                r.alOcultar();
+            }
+        }
+        for (Entrada e : List.copyOf(copias)) {
+            if (e != siguiente && e.escena == actual) descartarCopia(e);
+        }
+    }
+
+    /* ------------------------------ copias ------------------------------ */
+
+    private Entrada copia(Stage stage, Vista vista) throws IOException {
+        Entrada copia = cargarEntrada(vista, false);
+        copia.ventana  = stage;
+        copia.alCerrar = ev -> descartarCopia(copia);
+        stage.addEventHandler(WindowEvent.WINDOW_HIDDEN, copia.alCerrar);
+        copias.add(copia);
+        return copia;
+    }
+
+    private void descartarCopia(Entrada copia) {
+        if (!copias.remove(copia)) return;
+        copia.ventana.removeEventHandler(WindowEvent.WINDOW_HIDDEN, copia.alCerrar);
+        if (copia.controlador instanceof VistaReutilizable r) r.alOcultar();
+    }
+
+    private Entrada cargarEntrada(Vista vista, boolean precarga) throws IOException {
+        long t0 = System.nanoTime();
+        FXMLLoader loader = new FXMLLoader(RegistroVistas.class.getResource(vista.fxml), bundle);
+        Parent raiz = loader.load();
+        long ns = System.nanoTime() - t0;
+
+        synchronized (contadores) {
+            Contadores c = contar(vista);
+            c.cargas++;
+            c.totalNs += ns;
+            c.ultimaNs = ns;
+        }
+        LOGGER.info(() -> "Vista %s cargada en %d ms%s"
+                .formatted(vista, ns / 1_000_000, precarga ? " (precarga)" : ""));
+
+        Entrada entrada = new Entrada(raiz, loader.getController());
+        entrada.pendienteRefresco = precarga;   // cargada sin la sesión actual
+        return entrada;
+    }
+
+    /* Llamar con el candado de {@code contadores} */
+    private Contadores contar(Vista vista) {
+        return contadores.computeIfAbsent(vista, v -> new Contadores());
+    }
+
+    /* ------------------------------ tipos ------------------------------ */
+
+    private static final class Entrada {
+        final Parent raiz;
+        final Object controlador;
+        Scene   escena;                 // se crea en el hilo de JavaFX al mostrarse
+        boolean pendienteRefresco;
+        Stage   ventana;                // solo en las copias
+        EventHandler<WindowEvent> alCerrar;
+
+        Entrada(Parent raiz, Object controlador) {
+            this.raiz        = raiz;
+            this.controlador = controlador;
+        }
+
+        Scene escena(Vista vista) {
+            if (escena == null) {
+                escena = vista.ancho > 0 ? new Scene(raiz, vista.ancho, vista.alto) : new Scene(raiz);
+            }
+            return escena;
+        }
+    }
+
+    private static final class Contadores {
+        int  cargas, reutilizaciones;
+        long totalNs, ultimaNs;
+
+        Estadistica instantanea(Vista vista) {
+            return new Estadistica(vista, cargas, reutilizaciones,
+                    ultimaNs / 1_000_000, cargas == 0 ? 0 : totalNs / cargas / 1_000_000);
+        }
+    }
+}
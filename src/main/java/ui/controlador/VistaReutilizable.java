@@ -0,0 +1,23 @@
+package ui.controlador;
+
+/**
+ * Controlador de una vista que {@link RegistroVistas} conserva entre
+ * navegaciones en lugar de volver a cargar su FXML.
+ *
+ * <p>Como {@code initialize} solo se ejecuta una vez, el estado que dependa
+ * de la sesión (usuario, stock, formularios) debe refrescarse aquí.</p>
+ */
+public interface VistaReutilizable {
+
+    /**
+     * Antes de volver a mostrar la vista, o de mostrar por primera vez una
+     * vista precargada: recarga los datos que puedan haber cambiado.
+     */
+    default void alMostrar() { }
+
+    /**
+     * Cuando otra vista la sustituye en su ventana: descarta los datos que
+     * no deben quedarse en memoria mientras está oculta.
+     */
+    default void alOcultar() { }
+}
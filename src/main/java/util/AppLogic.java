@@ -20,9 +20,48 @@ public final class AppLogic {
     }
 
     /* --------------------------- observer ----------------------------- */
-    public static final class OBSERVER {
-        private OBSERVER() { }
-        public static final String STOCK_ALERT_PREFIX = "STOCK_ALERT::";
+    public static final class EVENTOS {
+        private EVENTOS() { }
+        /** Capacidad por defecto de la cola de eventos de cada observador. */
+        public static final int  CAPACIDAD_COLA = Integer.getInteger("formium.eventos.capacidad", 256);
+        /** Espera máxima del publicador con la política ESPERAR antes de descartar. */
+        public static final long ESPERA_MAX_MS  = Long.getLong("formium.eventos.espera_max", 50L);
+    }
+
+    /* ------------------- historial de personalización ------------------ */
+    public static final class HISTORIAL {
+        private HISTORIAL() { }
+        /** Estados que se pueden deshacer como máximo. */
+        public static final int  PROFUNDIDAD_MAX   = Integer.getInteger("formium.historial.profundidad", 100);
+        /** Memoria aproximada máxima del historial de un diseño. */
+        public static final long PRESUPUESTO_BYTES = Long.getLong("formium.historial.presupuesto", 256L * 1024);
+    }
+
+    /* ---------------------- imágenes decodificadas --------------------- */
+    public static final class IMAGENES {
+        private IMAGENES() { }
+        /** Memoria máxima de píxeles decodificados en {@code CacheImagenes}. */
+        public static final long PRESUPUESTO_BYTES = Long.getLong("formium.imagenes.presupuesto", 32L * 1024 * 1024);
+    }
+
+    /* ----------------------- diseños de pedidos ----------------------- */
+    public static final class DISENOS {
+        private DISENOS() { }
+        /** Diseños decodificados que se conservan en memoria ({@code CacheDisenos}). */
+        public static final int CAPACIDAD_DECODIFICADOS = Integer.getInteger("formium.disenos.capacidad", 512);
+    }
+
+    /* ------------------- miniaturas de productos personalizados ------------------- */
+    public static final class MINIATURAS {
+        private MINIATURAS() { }
+        /** Miniaturas compuestas que se conservan en memoria. */
+        public static final int    CAPACIDAD_MEMORIA = Integer.getInteger("formium.miniaturas.capacidad", 256);
+        /** Directorio de la caché en disco, junto a la BD. */
+        public static final String DIRECTORIO        = System.getProperty("formium.miniaturas.directorio", "./tienda_db.miniaturas");
+        /** Tamaño máximo de la caché en disco; al superarlo se borran las menos usadas. */
+        public static final long   TAMANO_MAX_DISCO  = Long.getLong("formium.miniaturas.tamano_max", 64L << 20);
+        /** Días sin usarse tras los que una miniatura en disco se borra. */
+        public static final long   EDAD_MAX_DIAS     = Long.getLong("formium.miniaturas.edad_max_dias", 30L);
     }
 
     /* ------------------------- tipos de producto ---------------------- */
@@ -39,6 +78,66 @@ public final class AppLogic {
         public static final String NOMBRE_DETALLADO_PRODUCTO = "%s (%s - %s)";
     }
 
+    /* ------------------- conexión y pool JDBC (HikariCP) -------------- */
+    /**
+     * Parámetros de conexión y del pool. Los valores numéricos pueden
+     * sobrescribirse con propiedades de sistema ({@code -Dformium.pool.max=20}).
+     */
+    public static final class BD {
+        private BD() { }
+        public static final String URL      =
+                "jdbc:h2:file:./tienda_db;MODE=LEGACY;DATABASE_TO_LOWER=TRUE;AUTO_SERVER=TRUE";
+        public static final String USUARIO  = "sa";
+        public static final String PASSWORD = "";
+
+        public static final String POOL_NOMBRE               = "FormiumPool";
+        public static final int    POOL_MIN_INACTIVAS        = Integer.getInteger("formium.pool.min", 2);
+        public static final int    POOL_MAX                  = Integer.getInteger("formium.pool.max", 10);
+        public static final long   TIMEOUT_ADQUISICION_MS    = Long.getLong("formium.pool.timeout_adquisicion", 5_000L);
+        public static final long   TIMEOUT_VALIDACION_MS     = Long.getLong("formium.pool.timeout_validacion", 2_000L);
+        public static final long   TIEMPO_INACTIVIDAD_MAX_MS = Long.getLong("formium.pool.inactividad_max", 300_000L);
+        public static final long   VIDA_MAXIMA_MS            = Long.getLong("formium.pool.vida_maxima", 1_800_000L);
+
+        /** Si es {@code true}, Hibernate valida al arrancar que el esquema migrado coincide con las entidades. */
+        public static final boolean VALIDAR_ESQUEMA          = Boolean.getBoolean("formium.bd.validar_esquema");
+
+        /** Ids que cada secuencia reserva por viaje a la BD (allocationSize). */
+        public static final int    BLOQUE_IDS                = 50;
+    }
+
+    /* ------------------- stock en memoria (IndiceStock) ---------------- */
+    public static final class STOCK {
+        private STOCK() { }
+        /** Registro de intenciones de cambio de stock, junto a la BD. */
+        public static final String RUTA_REGISTRO        = System.getProperty("formium.stock.registro", "./tienda_db.stock.log");
+        /** Retraso máximo entre un cambio de stock y su volcado a la BD. */
+        public static final long   RETRASO_MAX_MS       = Long.getLong("formium.stock.retraso_max", 250L);
+        /** Tamaño a partir del cual el registro se vacía tras un volcado completo. */
+        public static final long   TAMANO_MAX_REGISTRO  = 1L << 20;
+    }
+
+    /* ---------------------- servicios asíncronos ---------------------- */
+    public static final class ASINCRONO {
+        private ASINCRONO() { }
+        /** Plazo por defecto de las lecturas asíncronas; en escrituras solo avisa al usuario. */
+        public static final long TIMEOUT_MS = Long.getLong("formium.async.timeout", 15_000L);
+        /** Espera máxima a las escrituras en curso al cerrar la aplicación. */
+        public static final long ESPERA_ESCRITURAS_CIERRE_MS = Long.getLong("formium.async.espera_cierre", 30_000L);
+    }
+
+    /* ---------------------------- arranque ---------------------------- */
+    public static final class ARRANQUE {
+        private ARRANQUE() { }
+        /** Duración de una fase de arranque a partir de la cual se avisa en el log; no la corta. */
+        public static final long AVISO_FASE_LENTA_MS = Long.getLong("formium.arranque.aviso_lenta", 30_000L);
+    }
+
+    /* --------------------------- paginación --------------------------- */
+    public static final class PAGINACION {
+        private PAGINACION() { }
+        public static final int PEDIDOS_POR_PAGINA = 50;
+    }
+
     /* -------------------- datos iniciales de la BD -------------------- */
     public static final class INIT_DATA {
         private INIT_DATA() { }
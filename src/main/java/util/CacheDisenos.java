@@ -0,0 +1,58 @@
+package util;
+
+import modelo.diseno.GrupoElementosDiseno;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Diseños de pedido ya decodificados, por huella de contenido.
+ *
+ * <p>Los diseños son inmutables y se comparten entre pedidos y clientes, así
+ * que cada uno se decodifica una sola vez mientras siga en la caché. Se
+ * expulsa el usado hace más tiempo al superar
+ * {@link AppLogic.DISENOS#CAPACIDAD_DECODIFICADOS}.</p>
+ */
+public final class CacheDisenos {
+
+    /* --------------------------- Singleton --------------------------- */
+    private static final CacheDisenos INSTANCIA = new CacheDisenos(AppLogic.DISENOS.CAPACIDAD_DECODIFICADOS);
+
+    public static CacheDisenos obtenerInstancia() { return INSTANCIA; }
+
+    /* ------------------------------ estado ------------------------------ */
+    private final int capacidad;
+    private final LinkedHashMap<String, List<GrupoElementosDiseno>> entradas;
+
+    private CacheDisenos(int capacidad) {
+        this.capacidad = Math.max(1, capacidad);
+        this.entradas  = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<GrupoElementosDiseno>> e) {
+                return size() > CacheDisenos.this.capacidad;
+            }
+        };
+    }
+
+    /* ---------------------------- API pública ---------------------------- */
+
+    /**
+     * @param huella    huella del diseño ({@link CodecDiseno#huella})
+     * @param contenido el diseño codificado, por si no está en caché
+     * @return las zonas decodificadas (inmutables)
+     * @throws IllegalArgumentException si {@code contenido} no es válido
+     */
+    public List<GrupoElementosDiseno> zonas(String huella, byte[] contenido) {
+        synchronized (entradas) {
+            List<GrupoElementosDiseno> zonas = entradas.get(huella);
+            if (zonas != null) return zonas;
+        }
+        // Decodificar fuera del candado; dos hilos a la vez solo repiten trabajo
+        List<GrupoElementosDiseno> zonas = CodecDiseno.decodificar(contenido);
+        synchronized (entradas) {
+            entradas.putIfAbsent(huella, zonas);
+        }
+        return zonas;
+    }
+}
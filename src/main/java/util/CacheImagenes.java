@@ -0,0 +1,190 @@
+package util;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.ImageView;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Caché de imágenes decodificadas (bases de producto y diseños).
+ *
+ * <p>La clave es la ruta del recurso y el tamaño pedido: cada imagen se
+ * decodifica ya escalada a ese tamaño, redondeado hacia arriba a múltiplos
+ * de {@link #PASO_TAMANO} px para que tamaños casi iguales compartan entrada.
+ * La caché está acotada por la memoria de los píxeles decodificados
+ * (ancho × alto × 4 bytes) y expulsa la entrada usada hace más tiempo.</p>
+ *
+ * <p>La decodificación corre fuera del hilo de JavaFX; mientras tanto la
+ * vista muestra la misma imagen a otro tamaño si ya estaba en caché. Un
+ * recurso ausente o ilegible se sustituye por una imagen incluida en la
+ * aplicación, sin acceder a la red.</p>
+ */
+public final class CacheImagenes {
+
+    private static final Logger LOGGER = Logger.getLogger(CacheImagenes.class.getName());
+
+    /* --------------------------- Singleton --------------------------- */
+    private static final CacheImagenes INSTANCIA = new CacheImagenes(AppLogic.IMAGENES.PRESUPUESTO_BYTES);
+
+    public static CacheImagenes obtenerInstancia() { return INSTANCIA; }
+
+    /** Granularidad del tamaño pedido, en píxeles. */
+    static final int PASO_TAMANO = 32;
+
+    /* Propiedad de la ImageView con la clave que debe mostrar (descarta cargas obsoletas) */
+    private static final String PROP_CLAVE = CacheImagenes.class.getName() + ".clave";
+
+    /** Ruta del recurso y tamaño de decodificación; 0 = tamaño natural. */
+    private record Clave(String ruta, int ancho, int alto) { }
+
+    /** Contadores acumulados y memoria ocupada. */
+    public record Estadisticas(long aciertos, long fallos, long expulsiones,
+                               int entradas, long bytes) { }
+
+    /* ------------------------------ estado ------------------------------ */
+    private final long presupuestoBytes;
+    private final LinkedHashMap<Clave, Image> entradas = new LinkedHashMap<>(32, 0.75f, true);
+    private final Map<Clave, CompletableFuture<Image>> enCurso = new HashMap<>();
+    private long bytes, aciertos, fallos, expulsiones;
+
+    private volatile Image noDisponible;
+
+    private CacheImagenes(long presupuestoBytes) {
+        this.presupuestoBytes = presupuestoBytes;
+    }
+
+    /* ---------------------------- API pública ---------------------------- */
+
+    /**
+     * Muestra la imagen en {@code vista}. Si no está decodificada se muestra
+     * un sustituto y la vista se actualiza al terminar; si entretanto se pide
+     * otra imagen para la misma vista, la carga antigua se ignora. Llamar
+     * desde el hilo de JavaFX.
+     *
+     * @param ancho ancho de visualización en px (0 = tamaño natural)
+     * @param alto  alto de visualización en px (0 = tamaño natural)
+     */
+    public void mostrarEn(ImageView vista, String ruta, double ancho, double alto) {
+        Clave clave = clave(ruta, ancho, alto);
+        vista.getProperties().put(PROP_CLAVE, clave);
+
+        Image lista = obtenerSiCargada(clave);
+        if (lista != null) {
+            vista.setImage(lista);
+            return;
+        }
+        vista.setImage(sustituto(clave));
+        cargar(clave).thenAcceptAsync(img -> {
+            if (clave.equals(vista.getProperties().get(PROP_CLAVE))) vista.setImage(img);
+        }, EjecutorAsincrono.EN_FX);
+    }
+
+    /**
+     * Devuelve la imagen decodificada al tamaño pedido. El futuro nunca falla:
+     * si el recurso no se puede leer se completa con {@link #imagenNoDisponible()}.
+     */
+    public CompletableFuture<Image> cargar(String ruta, double ancho, double alto) {
+        Clave clave = clave(ruta, ancho, alto);
+        Image lista = obtenerSiCargada(clave);
+        return lista != null ? CompletableFuture.completedFuture(lista) : cargar(clave);
+    }
+
+    /** Imagen incluida en la aplicación para recursos ausentes o corruptos. */
+    public Image imagenNoDisponible() {
+        Image img = noDisponible;
+        if (img == null) {
+            try {
+                img = decodificar(new Clave(Rutas.IMAGENES.NO_DISPONIBLE, 0, 0));
+            } catch (IOException ex) {   // solo si el empaquetado está roto
+                throw new UncheckedIOException(ex);
+            }
+            noDisponible = img;
+        }
+        return img;
+    }
+
+    public synchronized Estadisticas estadisticas() {
+        return new Estadisticas(aciertos, fallos, expulsiones, entradas.size(), bytes);
+    }
+
+    /* -------------------------- lógica interna -------------------------- */
+
+    private synchronized Image obtenerSiCargada(Clave clave) {
+        Image img = entradas.get(clave);
+        if (img != null) aciertos++;
+        return img;
+    }
+
+    private synchronized CompletableFuture<Image> cargar(Clave clave) {
+        CompletableFuture<Image> futuro = enCurso.get(clave);
+        if (futuro != null) return futuro;
+
+        fallos++;
+        CompletableFuture<Image> nuevo = EjecutorAsincrono.ejecutar(() -> decodificar(clave))
+                .exceptionally(ex -> {
+                    LOGGER.log(Level.WARNING, "No se pudo decodificar " + clave.ruta(),
+                            EjecutorAsincrono.desenvolver(ex));
+                    return null;
+                })
+                .thenApply(img -> guardar(clave, img));
+        if (!nuevo.isDone()) enCurso.put(clave, nuevo);
+        return nuevo;
+    }
+
+    private synchronized Image guardar(Clave clave, Image img) {
+        enCurso.remove(clave);
+        if (img == null) return imagenNoDisponible();   // los fallos no se cachean
+
+        Image previa = entradas.put(clave, img);
+        if (previa != null) bytes -= bytesDe(previa);
+        bytes += bytesDe(img);
+
+        // Expulsa las menos usadas; la recién guardada se conserva aunque no quepa
+        Iterator<Image> it = entradas.values().iterator();
+        while (bytes > presupuestoBytes && entradas.size() > 1) {
+            bytes -= bytesDe(it.next());
+            it.remove();
+            expulsiones++;
+        }
+        return img;
+    }
+
+    /* Otra resolución de la misma ruta ya decodificada, o nada */
+    private synchronized Image sustituto(Clave clave) {
+        for (Map.Entry<Clave, Image> e : entradas.entrySet()) {
+            if (e.getKey().ruta().equals(clave.ruta())) return e.getValue();
+        }
+        return null;
+    }
+
+    private static Image decodificar(Clave clave) throws IOException {
+        try (InputStream in = CacheImagenes.class.getResourceAsStream(clave.ruta())) {
+            if (in == null) throw new IOException("Recurso no encontrado: " + clave.ruta());
+            Image img = new Image(in, clave.ancho(), clave.alto(), true, true);
+            if (img.isError()) throw new IOException("Imagen ilegible: " + clave.ruta(), img.getException());
+            return img;
+        }
+    }
+
+    private static Clave clave(String ruta, double ancho, double alto) {
+        return new Clave(ruta, redondear(ancho), redondear(alto));
+    }
+
+    private static int redondear(double px) {
+        if (!(px > 0)) return 0;
+        return (int) Math.ceil(px / PASO_TAMANO) * PASO_TAMANO;
+    }
+
+    private static long bytesDe(Image img) {
+        return 4L * (long) img.getWidth() * (long) img.getHeight();
+    }
+}
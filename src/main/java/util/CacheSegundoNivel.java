@@ -0,0 +1,112 @@
+package util;
+
+import jakarta.persistence.Cache;
+import modelo.inventario.Inventario;
+import modelo.producto.ProductoBase;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * Punto único de acceso a la caché de segundo nivel de Hibernate.
+ *
+ * <p>Define los nombres de región (que deben coincidir con
+ * {@code ehcache.xml}), ofrece invalidación explícita tras las escrituras del
+ * catálogo e inventario y expone aciertos/fallos por región.</p>
+ */
+public final class CacheSegundoNivel {
+
+    private static final Logger LOGGER = Logger.getLogger(CacheSegundoNivel.class.getName());
+
+    /* ----------------------------- regiones ----------------------------- */
+    public static final String REGION_PRODUCTOS           = "formium.producto";
+    public static final String REGION_INVENTARIO          = "formium.inventario";
+    public static final String REGION_USUARIOS            = "formium.usuario";
+    public static final String REGION_DISENOS             = "formium.diseno";
+    public static final String REGION_CONSULTA_CATALOGO   = "formium.consulta.catalogo";
+    public static final String REGION_CONSULTA_VARIANTES  = "formium.consulta.variantes";
+    public static final String REGION_CONSULTA_INVENTARIO = "formium.consulta.inventario";
+
+    private CacheSegundoNivel() { }
+
+    /* --------------------------- invalidación --------------------------- */
+
+    /**
+     * Invalida un producto, su inventario y las consultas de catálogo que
+     * pudieran contenerlo. Debe llamarse tras confirmar la transacción.
+     */
+    public static void invalidarProducto(Long productoId) {
+        Cache cache = GestorJPA.getEntityManagerFactory().getCache();
+        if (productoId != null) cache.evict(ProductoBase.class, productoId);
+        cache.evict(Inventario.class);
+        evictarConsultas(REGION_CONSULTA_CATALOGO, REGION_CONSULTA_VARIANTES, REGION_CONSULTA_INVENTARIO);
+    }
+
+    /** Invalida un registro de inventario y las consultas de stock. */
+    public static void invalidarInventario(Long inventarioId) {
+        Cache cache = GestorJPA.getEntityManagerFactory().getCache();
+        if (inventarioId != null) cache.evict(Inventario.class, inventarioId);
+        else                      cache.evict(Inventario.class);
+        evictarConsultas(REGION_CONSULTA_INVENTARIO);
+    }
+
+    private static void evictarConsultas(String... regiones) {
+        org.hibernate.Cache cache = sessionFactory().getCache();
+        for (String region : regiones) cache.evictQueryRegion(region);
+    }
+
+    /* --------------------------- estadísticas --------------------------- */
+
+    /** @return aciertos, fallos e inserciones de cada región, en orden alfabético. */
+    public static Map<String, EstadisticaRegion> obtenerEstadisticas() {
+        Statistics stats = sessionFactory().getStatistics();
+        Map<String, EstadisticaRegion> resultado = new LinkedHashMap<>();
+        Arrays.stream(stats.getSecondLevelCacheRegionNames()).sorted().forEach(region -> {
+            CacheRegionStatistics r = stats.getCacheRegionStatistics(region);
+            if (r != null) {
+                resultado.put(region, new EstadisticaRegion(
+                        region, r.getHitCount(), r.getMissCount(), r.getPutCount()));
+            }
+        });
+        return resultado;
+    }
+
+    /** Vuelca las estadísticas al log (nivel INFO). */
+    public static void registrarEstadisticas() {
+        obtenerEstadisticas().values().forEach(e -> LOGGER.info(e::toString));
+    }
+
+    private static SessionFactory sessionFactory() {
+        return GestorJPA.getEntityManagerFactory().unwrap(SessionFactory.class);
+    }
+
+    /* --------------------------- value object --------------------------- */
+
+    /**
+     * Contadores de una región de caché.
+     *
+     * @param region       nombre de la región
+     * @param aciertos     lecturas servidas desde caché
+     * @param fallos       lecturas que tuvieron que ir a la BD
+     * @param inserciones  entradas añadidas a la región
+     */
+    public record EstadisticaRegion(String region, long aciertos, long fallos, long inserciones) {
+
+        /** @return proporción de aciertos en [0, 1]; 0 si no hubo lecturas. */
+        public double ratioAciertos() {
+            long total = aciertos + fallos;
+            return total == 0 ? 0 : (double) aciertos / total;
+        }
+
+        @Override
+        public String toString() {
+            return "%s: aciertos=%d, fallos=%d, inserciones=%d, ratio=%.1f%%"
+                    .formatted(region, aciertos, fallos, inserciones, ratioAciertos() * 100);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package util;
+
+import javafx.geometry.Pos;
+import modelo.diseno.ElementoDiseno;
+import modelo.diseno.ElementoImagen;
+import modelo.diseno.ElementoTexto;
+import modelo.diseno.GrupoElementosDiseno;
+import modelo.diseno.ZonaDiseno;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Codificación binaria compacta de la personalización de un pedido.
+ *
+ * <p>Formato (versión 1):</p>
+ * <pre>
+ *   versión:u8  flags:u8  cuerpo         (flag 0x01: cuerpo comprimido con zlib)
+ *   cuerpo   = n:varint elemento×n
+ *   elemento = 1 idZona:varint n:varint elemento×n          zona de {@link ZonaDiseno}
+ *            | 2 nombre x y w h ajusteX ajusteY escala alineacion n:varint elemento×n
+ *            | 3 texto fuente color precio:f64
+ *            | 4 url descripcion precio:f64
+ *   cadena   = (longitud+1):varint utf8    (0 = null)
+ * </pre>
+ *
+ * <p>Las zonas del catálogo se guardan por id en lugar de repetir todo su
+ * layout, y el cuerpo solo se comprime si es grande y sale más pequeño. La
+ * codificación es canónica: el mismo diseño produce siempre los mismos bytes.
+ * Un cambio de formato debe subir {@link #VERSION} y seguir leyendo las
+ * anteriores.</p>
+ */
+public final class CodecDiseno {
+
+    public static final int VERSION = 1;
+
+    private static final int FLAG_DEFLATE     = 0x01;
+    private static final int UMBRAL_COMPRESION = 128;          // bytes de cuerpo
+    private static final int MAX_DESCOMPRIMIDO = 1 << 20;      // defensa ante datos corruptos
+
+    private static final int TAG_ZONA   = 1;
+    private static final int TAG_GRUPO  = 2;
+    private static final int TAG_TEXTO  = 3;
+    private static final int TAG_IMAGEN = 4;
+
+    private CodecDiseno() { }
+
+    /* ------------------------------ codificar ----------------------------- */
+
+    /** Codifica las zonas, comprimiendo el cuerpo si compensa. */
+    public static byte[] codificar(List<? extends ElementoDiseno> zonas) {
+        return codificar(zonas, true);
+    }
+
+    /**
+     * @param comprimir {@code false} para obtener siempre el cuerpo sin
+     *                  comprimir (p. ej. para calcular una huella estable)
+     */
+    public static byte[] codificar(List<? extends ElementoDiseno> zonas, boolean comprimir) {
+        ByteArrayOutputStream cuerpo = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream out = new DataOutputStream(cuerpo);
+            escribirLista(out, zonas);
+        } catch (IOException ex) {   // imposible: todo es en memoria
+            throw new UncheckedIOException(ex);
+        }
+
+        byte[] datos = cuerpo.toByteArray();
+        int flags = 0;
+        if (comprimir && datos.length >= UMBRAL_COMPRESION) {
+            byte[] comprimido = deflate(datos);
+            if (comprimido.length < datos.length) {
+                datos = comprimido;
+                flags = FLAG_DEFLATE;
+            }
+        }
+
+        byte[] resultado = new byte[datos.length + 2];
+        resultado[0] = (byte) VERSION;
+        resultado[1] = (byte) flags;
+        System.arraycopy(datos, 0, resultado, 2, datos.length);
+        return resultado;
+    }
+
+    private static void escribirLista(DataOutputStream out, List<? extends ElementoDiseno> elementos) throws IOException {
+        escribirVarint(out, elementos.size());
+        for (ElementoDiseno e : elementos) escribirElemento(out, e);
+    }
+
+    private static void escribirElemento(DataOutputStream out, ElementoDiseno e) throws IOException {
+        switch (e) {
+            case GrupoElementosDiseno g -> {
+                ZonaDiseno zona = ZonaDiseno.deLayout(g);
+                if (zona != null) {
+                    out.writeByte(TAG_ZONA);
+                    escribirVarint(out, zona.id());
+                } else {
+                    out.writeByte(TAG_GRUPO);
+                    escribirCadena(out, g.getNombreGrupo());
+                    out.writeDouble(g.getLayoutX());
+                    out.writeDouble(g.getLayoutY());
+                    out.writeDouble(g.getPrefWidth());
+                    out.writeDouble(g.getPrefHeight());
+                    out.writeDouble(g.getAjusteX());
+                    out.writeDouble(g.getAjusteY());
+                    out.writeDouble(g.getEscalaContenido());
+                    escribirCadena(out, g.getAlineacion() != null ? g.getAlineacion().name() : null);
+                }
+                escribirLista(out, g.getElementos());
+            }
+            case ElementoTexto t -> {
+                out.writeByte(TAG_TEXTO);
+                escribirCadena(out, t.getTexto());
+                escribirCadena(out, t.getFuente());
+                escribirCadena(out, t.getColor());
+                out.writeDouble(t.obtenerPrecioAdicional());
+            }
+            case ElementoImagen i -> {
+                out.writeByte(TAG_IMAGEN);
+                escribirCadena(out, i.getUrlImagen());
+                escribirCadena(out, i.getDescripcion());
+                out.writeDouble(i.obtenerPrecioAdicional());
+            }
+            default -> throw new IllegalArgumentException("Elemento de diseño no soportado: " + e.getClass().getName());
+        }
+    }
+
+    /**
+     * @return SHA-256 en hexadecimal de la codificación sin comprimir: dos
+     *         diseños iguales tienen siempre la misma huella
+     */
+    public static String huella(List<? extends ElementoDiseno> zonas) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(codificar(zonas, false));
+            return HexFormat.of().formatHex(hash);
+        } catch (NoSuchAlgorithmException ex) {   // SHA-256 es obligatorio en toda JVM
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /* ----------------------------- decodificar ---------------------------- */
+
+    /**
+     * @return las zonas codificadas; inmutables, como todo el árbol de diseño
+     * @throws IllegalArgumentException si los datos no son válidos o la
+     *                                  versión no está soportada
+     */
+    public static List<GrupoElementosDiseno> decodificar(byte[] datos) {
+        if (datos == null || datos.length < 2) throw new IllegalArgumentException("Personalización vacía o truncada");
+        int version = datos[0] & 0xFF;
+        if (version != VERSION) throw new IllegalArgumentException("Versión de personalización no soportada: " + version);
+        int flags = datos[1] & 0xFF;
+
+        InputStream cuerpo = new ByteArrayInputStream(datos, 2, datos.length - 2);
+        Inflater inflater = null;
+        if ((flags & FLAG_DEFLATE) != 0) {
+            inflater = new Inflater();
+            cuerpo = new LimiteEntrada(new InflaterInputStream(cuerpo, inflater), MAX_DESCOMPRIMIDO);
+        }
+        try (DataInputStream in = new DataInputStream(cuerpo)) {
+            List<ElementoDiseno> elementos = leerLista(in);
+            // Leer hasta el final obliga también a validar el checksum de zlib
+            if (in.read() != -1) throw new IOException("Datos sobrantes tras el diseño");
+            List<GrupoElementosDiseno> zonas = new ArrayList<>(elementos.size());
+            for (ElementoDiseno e : elementos) {
+                if (e instanceof GrupoElementosDiseno g) zonas.add(g);
+            }
+            return List.copyOf(zonas);
+        } catch (IOException | RuntimeException ex) {
+            throw new IllegalArgumentException("Personalización corrupta", ex);
+        } finally {
+            if (inflater != null) inflater.end();
+        }
+    }
+
+    private static List<ElementoDiseno> leerLista(DataInputStream in) throws IOException {
+        int n = leerVarint(in);
+        List<ElementoDiseno> elementos = new ArrayList<>(Math.min(n, 64));
+        for (int i = 0; i < n; i++) elementos.add(leerElemento(in));
+        return elementos;
+    }
+
+    private static ElementoDiseno leerElemento(DataInputStream in) throws IOException {
+        int tag = in.readUnsignedByte();
+        return switch (tag) {
+            case TAG_ZONA -> {
+                int id = leerVarint(in);
+                ZonaDiseno zona = ZonaDiseno.porId(id);
+                if (zona == null) throw new IOException("Zona de diseño desconocida: " + id);
+                yield zona.plantilla().conElementos(leerLista(in));
+            }
+            case TAG_GRUPO -> {
+                String nombre = leerCadena(in);
+                double x = in.readDouble(), y = in.readDouble();
+                double w = in.readDouble(), h = in.readDouble();
+                double ajusteX = in.readDouble(), ajusteY = in.readDouble();
+                double escala = in.readDouble();
+                String alineacion = leerCadena(in);
+                yield GrupoElementosDiseno.de(nombre, x, y, w, h, ajusteX, ajusteY, escala,
+                        alineacion != null ? Pos.valueOf(alineacion) : null, leerLista(in));
+            }
+            case TAG_TEXTO -> new ElementoTexto(leerCadena(in), leerCadena(in), leerCadena(in), in.readDouble());
+            case TAG_IMAGEN -> new ElementoImagen(leerCadena(in), leerCadena(in), in.readDouble());
+            default -> throw new IOException("Tipo de elemento desconocido: " + tag);
+        };
+    }
+
+    /* ------------------------------ primitivas ---------------------------- */
+
+    private static void escribirVarint(DataOutputStream out, int v) throws IOException {
+        while ((v & ~0x7F) != 0) {
+            out.writeByte((v & 0x7F) | 0x80);
+            v >>>= 7;
+        }
+        out.writeByte(v);
+    }
+
+    private static int leerVarint(DataInputStream in) throws IOException {
+        int v = 0;
+        for (int desplazamiento = 0; desplazamiento < 32; desplazamiento += 7) {
+            int b = in.readUnsignedByte();
+            v |= (b & 0x7F) << desplazamiento;
+            if ((b & 0x80) == 0) return v;
+        }
+        throw new IOException("Varint demasiado largo");
+    }
+
+    private static void escribirCadena(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            escribirVarint(out, 0);
+            return;
+        }
+        byte[] utf8 = s.getBytes(StandardCharsets.UTF_8);
+        escribirVarint(out, utf8.length + 1);
+        out.write(utf8);
+    }
+
+    private static String leerCadena(DataInputStream in) throws IOException {
+        int n = leerVarint(in);
+        if (n == 0) return null;
+        if (n - 1 > MAX_DESCOMPRIMIDO) throw new IOException("Cadena demasiado larga");
+        byte[] utf8 = new byte[n - 1];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] deflate(byte[] datos) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(datos);
+            deflater.finish();
+            byte[] buffer = new byte[datos.length];
+            int n = 0;
+            while (!deflater.finished() && n < buffer.length) {
+                n += deflater.deflate(buffer, n, buffer.length - n);
+            }
+            // Si no cupo en el tamaño original, no compensa comprimir
+            return deflater.finished() ? Arrays.copyOf(buffer, n) : datos;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /* Corta la lectura descomprimida al superar el máximo (datos corruptos o maliciosos) */
+    private static final class LimiteEntrada extends FilterInputStream {
+        private long restantes;
+
+        LimiteEntrada(InputStream in, long maximo) {
+            super(in);
+            this.restantes = maximo;
+        }
+
+        @Override public int read() throws IOException {
+            if (restantes <= 0) throw new IOException("Personalización descomprimida demasiado grande");
+            int b = super.read();
+            if (b >= 0) restantes--;
+            return b;
+        }
+
+        @Override public int read(byte[] b, int off, int len) throws IOException {
+            if (restantes <= 0) throw new IOException("Personalización descomprimida demasiado grande");
+            int n = super.read(b, off, (int) Math.min(len, restantes));
+            if (n > 0) restantes -= n;
+            return n;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Codifica píxeles ARGB como PNG RGBA de 8 bits.
+ *
+ * <p>JavaFX sabe leer PNG pero no escribirlo sin {@code javafx-swing}; para
+ * las miniaturas en disco basta con este codificador mínimo (sin filtros por
+ * línea, compresión rápida).</p>
+ */
+public final class CodificadorPng {
+
+    private static final byte[] FIRMA = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+    private CodificadorPng() { }
+
+    /**
+     * @param argb  píxeles en formato {@code IntArgb}, fila a fila
+     * @param ancho ancho en píxeles
+     * @param alto  alto en píxeles
+     */
+    public static byte[] codificar(int[] argb, int ancho, int alto) {
+        if (argb.length < ancho * alto) throw new IllegalArgumentException("Faltan píxeles");
+
+        try {
+            ByteArrayOutputStream salida = new ByteArrayOutputStream(ancho * alto + 64);
+            salida.write(FIRMA);
+
+            ByteArrayOutputStream cabecera = new ByteArrayOutputStream(13);
+            DataOutputStream ihdr = new DataOutputStream(cabecera);
+            ihdr.writeInt(ancho);
+            ihdr.writeInt(alto);
+            ihdr.writeByte(8);   // bits por canal
+            ihdr.writeByte(6);   // RGBA
+            ihdr.writeByte(0);   // deflate
+            ihdr.writeByte(0);   // filtrado adaptativo estándar
+            ihdr.writeByte(0);   // sin entrelazado
+            escribirBloque(salida, "IHDR", cabecera.toByteArray());
+
+            ByteArrayOutputStream datos = new ByteArrayOutputStream(ancho * alto);
+            Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try (DeflaterOutputStream zlib = new DeflaterOutputStream(datos, deflater)) {
+                byte[] fila = new byte[1 + ancho * 4];   // fila[0] = filtro 0 (ninguno)
+                for (int y = 0; y < alto; y++) {
+                    for (int x = 0, i = 1; x < ancho; x++) {
+                        int p = argb[y * ancho + x];
+                        fila[i++] = (byte) (p >>> 16);
+                        fila[i++] = (byte) (p >>> 8);
+                        fila[i++] = (byte) p;
+                        fila[i++] = (byte) (p >>> 24);
+                    }
+                    zlib.write(fila);
+                }
+            } finally {
+                deflater.end();
+            }
+            escribirBloque(salida, "IDAT", datos.toByteArray());
+            escribirBloque(salida, "IEND", new byte[0]);
+            return salida.toByteArray();
+        } catch (IOException ex) {   // imposible: todo es en memoria
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private static void escribirBloque(ByteArrayOutputStream salida, String tipo, byte[] datos) throws IOException {
+        DataOutputStream out = new DataOutputStream(salida);
+        byte[] tipoBytes = tipo.getBytes(StandardCharsets.US_ASCII);
+        CRC32 crc = new CRC32();
+        crc.update(tipoBytes);
+        crc.update(datos);
+
+        out.writeInt(datos.length);
+        out.write(tipoBytes);
+        out.write(datos);
+        out.writeInt((int) crc.getValue());
+    }
+}
@@ -0,0 +1,170 @@
+package util;
+
+import javafx.application.Platform;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Ejecutor de las versiones asíncronas de los servicios.
+ *
+ * <p>Cada tarea corre en su propio hilo virtual, de modo que el trabajo JDBC
+ * nunca ocupa el hilo de JavaFX y bloquearse esperando una conexión del pool
+ * no cuesta un hilo de plataforma. Los futuros devueltos admiten:</p>
+ * <ul>
+ *   <li><b>timeout</b>: si la tarea supera el plazo el futuro falla con
+ *       {@link TimeoutException} y el hilo se interrumpe;</li>
+ *   <li><b>cancelación</b>: {@code futuro.cancel(true)} interrumpe el hilo
+ *       que ejecuta la tarea.</li>
+ * </ul>
+ * <p>Las escrituras no idempotentes (checkout, reposiciones, altas...) van por
+ * {@link #ejecutarEscritura}: sin timeout y sin interrupciones. Cortarlas a
+ * medias no deshace la transacción, que puede confirmarse igualmente, y
+ * interrumpir un hilo en plena E/S de H2 puede llegar a cerrar la base de
+ * datos. Si tardan, la interfaz avisa con {@link #alVencerEnFx} de que el
+ * resultado aún no se conoce, en lugar de darlas por fallidas.</p>
+ * <p>Los resultados se devuelven a la interfaz con {@link #alTerminarEnFx}.</p>
+ */
+public final class EjecutorAsincrono {
+
+    private static final Logger LOGGER = Logger.getLogger(EjecutorAsincrono.class.getName());
+
+    private static final ExecutorService HILOS_VIRTUALES = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("servicio-", 0).factory());
+
+    /* Aparte para poder cerrarlo sin interrumpir las escrituras en curso */
+    private static final ExecutorService HILOS_ESCRITURA = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("escritura-", 0).factory());
+
+    /** Ejecuta en el hilo de JavaFX; para {@code thenAcceptAsync(..., EN_FX)} y similares. */
+    public static final Executor EN_FX = Platform::runLater;
+
+    private EjecutorAsincrono() { }
+
+    /* ---------------------------- ejecución ----------------------------- */
+
+    /** Ejecuta la tarea en un hilo virtual con el timeout por defecto. */
+    public static <T> CompletableFuture<T> ejecutar(Callable<T> tarea) {
+        return ejecutar(tarea, Duration.ofMillis(AppLogic.ASINCRONO.TIMEOUT_MS));
+    }
+
+    /** Variante para tareas sin resultado. */
+    public static CompletableFuture<Void> ejecutar(Runnable tarea) {
+        return ejecutar(() -> {
+            tarea.run();
+            return null;
+        });
+    }
+
+    /**
+     * Ejecuta la tarea en un hilo virtual.
+     *
+     * @param timeout plazo máximo; al vencer el futuro falla con
+     *                {@link TimeoutException} y la tarea se interrumpe
+     */
+    public static <T> CompletableFuture<T> ejecutar(Callable<T> tarea, Duration timeout) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        Future<?> hilo = HILOS_VIRTUALES.submit(() -> {
+            try {
+                futuro.complete(tarea.call());
+            } catch (Throwable ex) {
+                futuro.completeExceptionally(ex);
+            }
+        });
+        // Cancelación o timeout: se interrumpe el hilo (no-op si ya terminó)
+        futuro.whenComplete((r, ex) -> {
+            if (ex != null) hilo.cancel(true);
+        });
+        return futuro.orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Ejecuta una escritura en un hilo virtual sin timeout: el futuro solo se
+     * completa cuando la tarea termina, con su resultado real. Cancelarlo deja
+     * de esperar el resultado pero no interrumpe la tarea.
+     */
+    public static <T> CompletableFuture<T> ejecutarEscritura(Callable<T> tarea) {
+        CompletableFuture<T> futuro = new CompletableFuture<>();
+        HILOS_ESCRITURA.execute(() -> {
+            try {
+                futuro.complete(tarea.call());
+            } catch (Throwable ex) {
+                futuro.completeExceptionally(ex);
+            }
+        });
+        return futuro;
+    }
+
+    /** Variante para escrituras sin resultado. */
+    public static CompletableFuture<Void> ejecutarEscritura(Runnable tarea) {
+        return ejecutarEscritura(() -> {
+            tarea.run();
+            return null;
+        });
+    }
+
+    /* ----------------------- vuelta a la interfaz ----------------------- */
+
+    /**
+     * Entrega el resultado del futuro en el hilo de JavaFX. Las excepciones
+     * llegan desenvueltas (sin {@link CompletionException}). Si el futuro se
+     * canceló no se llama a ninguno de los dos callbacks: quien cancela ya no
+     * espera el resultado.
+     */
+    public static <T> void alTerminarEnFx(CompletableFuture<T> futuro,
+                                          Consumer<? super T> alCompletar,
+                                          Consumer<Throwable> alFallar) {
+        futuro.whenCompleteAsync((resultado, ex) -> {
+            if (ex == null) {
+                alCompletar.accept(resultado);
+                return;
+            }
+            Throwable causa = desenvolver(ex);
+            if (!(causa instanceof CancellationException)) alFallar.accept(causa);
+        }, EN_FX);
+    }
+
+    /**
+     * Ejecuta {@code aviso} en el hilo de JavaFX si el futuro sigue pendiente
+     * pasado el timeout por defecto. No toca el futuro: pensado para avisar de
+     * que una escritura tarda y su resultado aún no se conoce.
+     */
+    public static void alVencerEnFx(CompletableFuture<?> futuro, Runnable aviso) {
+        Executor tras = CompletableFuture.delayedExecutor(AppLogic.ASINCRONO.TIMEOUT_MS, TimeUnit.MILLISECONDS, EN_FX);
+        tras.execute(() -> {
+            if (!futuro.isDone()) aviso.run();
+        });
+    }
+
+    public static Throwable desenvolver(Throwable ex) {
+        while ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            ex = ex.getCause();
+        }
+        return ex;
+    }
+
+    /* ------------------------------ cierre ------------------------------ */
+
+    /**
+     * Interrumpe las lecturas en curso y espera brevemente a que terminen. Las
+     * escrituras no se interrumpen: se les da un plazo mayor para acabar.
+     */
+    public static void shutdown() {
+        HILOS_VIRTUALES.shutdownNow();
+        HILOS_ESCRITURA.shutdown();
+        try {
+            if (!HILOS_VIRTUALES.awaitTermination(2, TimeUnit.SECONDS)) {
+                LOGGER.warning("Quedaron tareas asíncronas sin terminar al cerrar");
+            }
+            if (!HILOS_ESCRITURA.awaitTermination(AppLogic.ASINCRONO.ESPERA_ESCRITURAS_CIERRE_MS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warning("Quedaron escrituras sin terminar al cerrar");
+            }
+        } catch (InterruptedException ex) {
+            LOGGER.log(Level.WARNING, "Interrumpido esperando tareas asíncronas", ex);
+            Thread.currentThread().interrupt();
+        }
+    }
+}
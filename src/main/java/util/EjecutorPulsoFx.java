@@ -0,0 +1,64 @@
+package util;
+
+import javafx.animation.AnimationTimer;
+import javafx.application.Platform;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ejecuta tareas en el hilo de JavaFX en el siguiente pulso de renderizado.
+ *
+ * <p>A diferencia de {@code Platform.runLater}, todo lo encolado entre dos
+ * pulsos se ejecuta junto justo antes de pintar el siguiente frame. El
+ * {@link AnimationTimer} solo está activo mientras hay tareas pendientes, así
+ * que en reposo no fuerza pulsos. Se crea en el hilo de JavaFX la primera vez
+ * que hace falta: cargar esta clase no arranca el toolkit.</p>
+ */
+public final class EjecutorPulsoFx implements Executor {
+
+    private static final EjecutorPulsoFx INSTANCIA = new EjecutorPulsoFx();
+
+    private final Queue<Runnable> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean activo = new AtomicBoolean();
+
+    private AnimationTimer temporizador;   // solo se toca en el hilo de JavaFX
+
+    private EjecutorPulsoFx() { }
+
+    public static EjecutorPulsoFx obtenerInstancia() { return INSTANCIA; }
+
+    @Override
+    public void execute(Runnable tarea) {
+        pendientes.add(tarea);
+        if (activo.compareAndSet(false, true)) {
+            try {
+                Platform.runLater(this::arrancar);
+            } catch (IllegalStateException ex) {   // toolkit de JavaFX no iniciado o ya cerrado
+                pendientes.remove(tarea);
+                activo.set(false);
+                throw ex;
+            }
+        }
+    }
+
+    private void arrancar() {
+        if (temporizador == null) {
+            temporizador = new AnimationTimer() {
+                @Override
+                public void handle(long ahora) {
+                    for (Runnable tarea; (tarea = pendientes.poll()) != null; ) {
+                        tarea.run();
+                    }
+                    stop();
+                    activo.set(false);
+                    // Algo llegó entre el último poll y el set: se atiende en el próximo pulso
+                    if (!pendientes.isEmpty() && activo.compareAndSet(false, true)) start();
+                }
+            };
+        }
+        temporizador.start();
+    }
+}
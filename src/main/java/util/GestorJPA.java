@@ -1,35 +1,93 @@
 package util;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
 import jakarta.persistence.EntityManagerFactory;
 import jakarta.persistence.Persistence;
+import util.migracion.MigradorEsquema;
 
+import java.util.Map;
 import java.util.logging.Logger;
 
 /**
  * Gestor singleton del {@link EntityManagerFactory}. Encapsula la inicialización
  * y el cierre, evitando fugas de recursos.
+ *
+ * <p>Las conexiones JDBC provienen de un pool acotado de HikariCP (ver
+ * {@link AppLogic.BD}) que se entrega a Hibernate como
+ * <em>non-JTA data source</em>; así cada {@code EntityManager} toma prestada
+ * una conexión ya abierta en lugar de depender del pool interno de Hibernate,
+ * que no está pensado para producción.</p>
+ *
+ * <p>El esquema lo gestiona {@link MigradorEsquema} antes de crear la
+ * factoría; Hibernate no lo modifica.</p>
  */
 public final class GestorJPA {
 
     private static final Logger LOGGER = Logger.getLogger(GestorJPA.class.getName());
     private static final String PERSISTENCE_UNIT_NAME = "FormiumPU";
     private static EntityManagerFactory factory;
+    private static HikariDataSource dataSource;
+    private static final MonitorPoolConexiones monitorPool = new MonitorPoolConexiones();
 
     private GestorJPA() { }
 
     /** Obtiene (o crea) la instancia de {@link EntityManagerFactory}. */
     public static synchronized EntityManagerFactory getEntityManagerFactory() {
         if (factory == null) {
-            factory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME);
+            dataSource = crearPoolConexiones();
+            MigradorEsquema.migrar(dataSource);
+            factory = Persistence.createEntityManagerFactory(PERSISTENCE_UNIT_NAME, Map.of(
+                    "jakarta.persistence.nonJtaDataSource", dataSource,
+                    "hibernate.hbm2ddl.auto", AppLogic.BD.VALIDAR_ESQUEMA ? "validate" : "none"));
         }
         return factory;
     }
 
+    /**
+     * Devuelve las métricas actuales del pool: conexiones activas, inactivas,
+     * hilos esperando y latencia de adquisición. Útil para distinguir si una
+     * espera en checkout se debe a falta de conexiones.
+     */
+    public static MonitorPoolConexiones.Instantanea obtenerMetricasPool() {
+        return monitorPool.instantanea();
+    }
+
     /** Cierra la factoría; debe llamarse en {@code Application.stop()}. */
-    public static void shutdown() {
+    public static synchronized void shutdown() {
         if (factory != null && factory.isOpen()) {
             factory.close();
             LOGGER.info("EntityManagerFactory cerrado correctamente.");
         }
+        if (dataSource != null && !dataSource.isClosed()) {
+            LOGGER.info(() -> "Pool de conexiones al cierre: " + monitorPool.instantanea());
+            dataSource.close();
+        }
+    }
+
+    /* ----------------------------- helpers ----------------------------- */
+
+    private static HikariDataSource crearPoolConexiones() {
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName(AppLogic.BD.POOL_NOMBRE);
+        cfg.setJdbcUrl(AppLogic.BD.URL);
+        cfg.setUsername(AppLogic.BD.USUARIO);
+        cfg.setPassword(AppLogic.BD.PASSWORD);
+
+        cfg.setMinimumIdle(AppLogic.BD.POOL_MIN_INACTIVAS);
+        cfg.setMaximumPoolSize(AppLogic.BD.POOL_MAX);
+        cfg.setConnectionTimeout(AppLogic.BD.TIMEOUT_ADQUISICION_MS);
+        cfg.setValidationTimeout(AppLogic.BD.TIMEOUT_VALIDACION_MS);
+        cfg.setIdleTimeout(AppLogic.BD.TIEMPO_INACTIVIDAD_MAX_MS);
+        cfg.setMaxLifetime(AppLogic.BD.VIDA_MAXIMA_MS);
+
+        // Hibernate gestiona las transacciones explícitamente
+        cfg.setAutoCommit(false);
+        cfg.setMetricsTrackerFactory(monitorPool);
+        cfg.setRegisterMbeans(true);
+
+        LOGGER.info(() -> "Creando pool de conexiones '%s' (min=%d, max=%d)"
+                .formatted(AppLogic.BD.POOL_NOMBRE, AppLogic.BD.POOL_MIN_INACTIVAS, AppLogic.BD.POOL_MAX));
+        return new HikariDataSource(cfg);
     }
 }
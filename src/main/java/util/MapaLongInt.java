@@ -0,0 +1,91 @@
+package util;
+
+import java.util.Arrays;
+
+/**
+ * Mapa {@code long → int} inmutable con direccionamiento abierto (sondeo
+ * lineal) sobre arrays primitivos: sin cajas {@code Long}/{@code Integer} ni
+ * nodos por entrada.
+ *
+ * <p>Al ser inmutable se puede leer desde cualquier hilo sin sincronizar;
+ * para cambiarlo se construye uno nuevo y se publica en lugar del anterior
+ * (copia en escritura), así que solo conviene para datos que se leen mucho
+ * más de lo que cambian. {@link Long#MIN_VALUE} está reservado como marca de
+ * hueco y no puede usarse como clave.</p>
+ */
+public final class MapaLongInt {
+
+    private static final long  VACIA        = Long.MIN_VALUE;
+    private static final float CARGA_MAXIMA = 0.5f;
+
+    private final long[] claves;
+    private final int[]  valores;
+    private final int    tamano;
+    private final int    mascara;
+
+    /** @return un mapa con los pares {@code claves[i] → valores[i]}; si una clave se repite gana la última. */
+    public static MapaLongInt de(long[] claves, int[] valores) {
+        if (claves.length != valores.length) {
+            throw new IllegalArgumentException("claves y valores deben tener la misma longitud");
+        }
+        return new MapaLongInt(claves, valores);
+    }
+
+    private MapaLongInt(long[] origenClaves, int[] origenValores) {
+        int capacidad = Integer.highestOneBit(Math.max(2, (int) (origenClaves.length / CARGA_MAXIMA)) * 2 - 1);
+        claves  = new long[capacidad];
+        valores = new int[capacidad];
+        mascara = capacidad - 1;
+        Arrays.fill(claves, VACIA);
+
+        int n = 0;
+        for (int i = 0; i < origenClaves.length; i++) {
+            if (insertar(origenClaves[i], origenValores[i])) n++;
+        }
+        tamano = n;
+    }
+
+    /* ----------------------------- lectura ------------------------------ */
+
+    /** @return el valor de la clave, o {@code porDefecto} si no está. */
+    public int obtener(long clave, int porDefecto) {
+        for (int i = posicion(clave); ; i = (i + 1) & mascara) {
+            long k = claves[i];
+            if (k == clave) return valores[i];
+            if (k == VACIA) return porDefecto;
+        }
+    }
+
+    public boolean contiene(long clave) {
+        for (int i = posicion(clave); ; i = (i + 1) & mascara) {
+            long k = claves[i];
+            if (k == clave) return true;
+            if (k == VACIA) return false;
+        }
+    }
+
+    public int tamano() { return tamano; }
+
+    /* ----------------------------- helpers ------------------------------ */
+
+    /* Solo durante la construcción. @return true si la clave era nueva. */
+    private boolean insertar(long clave, int valor) {
+        if (clave == VACIA) throw new IllegalArgumentException("Clave reservada: " + clave);
+        for (int i = posicion(clave); ; i = (i + 1) & mascara) {
+            if (claves[i] == VACIA) {
+                claves[i]  = clave;
+                valores[i] = valor;
+                return true;
+            }
+            if (claves[i] == clave) {
+                valores[i] = valor;
+                return false;
+            }
+        }
+    }
+
+    private int posicion(long clave) {
+        long h = clave * 0x9E3779B97F4A7C15L;   // mezcla de Fibonacci
+        return (int) (h ^ (h >>> 32)) & mascara;
+    }
+}
@@ -0,0 +1,95 @@
+package util;
+
+import com.zaxxer.hikari.metrics.IMetricsTracker;
+import com.zaxxer.hikari.metrics.MetricsTrackerFactory;
+import com.zaxxer.hikari.metrics.PoolStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recolector de métricas del pool de conexiones.
+ *
+ * <p>HikariCP invoca al {@link IMetricsTracker} en cada préstamo de conexión;
+ * aquí solo se acumulan contadores sin bloqueo ({@link LongAdder}) para no
+ * penalizar el camino caliente. Las cifras de ocupación (activas, inactivas,
+ * hilos en espera) se leen bajo demanda del {@link PoolStats} del pool.</p>
+ */
+public final class MonitorPoolConexiones implements MetricsTrackerFactory {
+
+    private final LongAdder       adquisiciones    = new LongAdder();
+    private final LongAdder       nanosAdquisicion = new LongAdder();
+    private final LongAccumulator nanosMaximo      = new LongAccumulator(Math::max, 0L);
+    private final LongAdder       timeouts         = new LongAdder();
+
+    private volatile PoolStats estadisticasPool;
+
+    MonitorPoolConexiones() { }
+
+    /* ----------------------- MetricsTrackerFactory ----------------------- */
+
+    @Override
+    public IMetricsTracker create(String poolName, PoolStats poolStats) {
+        this.estadisticasPool = poolStats;
+        return new IMetricsTracker() {
+            @Override public void recordConnectionAcquiredNanos(long nanos) {
+                adquisiciones.increment();
+                nanosAdquisicion.add(nanos);
+                nanosMaximo.accumulate(nanos);
+            }
+
+            @Override public void recordConnectionTimeout() {
+                timeouts.increment();
+            }
+        };
+    }
+
+    /* ------------------------------ lectura ------------------------------ */
+
+    /** @return fotografía coherente (no atómica) del estado del pool. */
+    Instantanea instantanea() {
+        PoolStats ps = estadisticasPool;
+        long total   = adquisiciones.sum();
+        long nanos   = nanosAdquisicion.sum();
+        return new Instantanea(
+                ps == null ? 0 : ps.getActiveConnections(),
+                ps == null ? 0 : ps.getIdleConnections(),
+                ps == null ? 0 : ps.getPendingThreads(),
+                ps == null ? 0 : ps.getTotalConnections(),
+                total,
+                total == 0 ? 0 : nanosAMs(nanos / total),
+                nanosAMs(nanosMaximo.get()),
+                timeouts.sum());
+    }
+
+    private static double nanosAMs(long nanos) {
+        return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /* ---------------------------- value object --------------------------- */
+
+    /**
+     * Estado del pool en un instante dado.
+     *
+     * @param activas              conexiones prestadas en este momento
+     * @param inactivas            conexiones libres en el pool
+     * @param enEspera             hilos bloqueados esperando una conexión
+     * @param total                conexiones físicas abiertas
+     * @param adquisiciones        préstamos realizados desde el arranque
+     * @param latenciaMediaMs      tiempo medio de adquisición
+     * @param latenciaMaximaMs     peor tiempo de adquisición observado
+     * @param timeoutsAdquisicion  préstamos que agotaron el timeout
+     */
+    public record Instantanea(int activas, int inactivas, int enEspera, int total,
+                              long adquisiciones, double latenciaMediaMs,
+                              double latenciaMaximaMs, long timeoutsAdquisicion) {
+
+        @Override
+        public String toString() {
+            return "activas=%d, inactivas=%d, en espera=%d, total=%d, adquisiciones=%d, latencia media=%.3f ms, máxima=%.3f ms, timeouts=%d"
+                    .formatted(activas, inactivas, enEspera, total, adquisiciones,
+                            latenciaMediaMs, latenciaMaximaMs, timeoutsAdquisicion);
+        }
+    }
+}
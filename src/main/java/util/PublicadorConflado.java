@@ -0,0 +1,162 @@
+package util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * {@link Flow.Publisher} que conflaciona por clave: de las actualizaciones
+ * publicadas para una misma clave solo se entrega la última.
+ *
+ * <p>{@link #publicar} solo anota el valor y, si no había ya uno programado,
+ * programa un drenaje en el ejecutor indicado (p. ej.
+ * {@link EjecutorPulsoFx}). Cada drenaje entrega a cada suscriptor con
+ * demanda un único {@code onNext} con todas las claves cambiadas desde el
+ * anterior, así que una ráfaga de cientos de cambios llega como un solo
+ * lote. Sin demanda los cambios se siguen conflacionando hasta el próximo
+ * {@code request}.</p>
+ *
+ * @param <K> clave de conflación (p. ej. id de producto)
+ * @param <V> último valor conocido para la clave
+ */
+public final class PublicadorConflado<K, V> implements Flow.Publisher<Map<K, V>> {
+
+    private static final Logger LOGGER = Logger.getLogger(PublicadorConflado.class.getName());
+
+    private final Executor drenaje;
+    private final List<Suscripcion> suscripciones = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean programado = new AtomicBoolean();
+
+    /** @param drenaje ejecutor en el que se llama a los suscriptores */
+    public PublicadorConflado(Executor drenaje) {
+        this.drenaje = drenaje;
+    }
+
+    /* --------------------------- publicación ---------------------------- */
+
+    /** Anota el valor más reciente de la clave; no bloquea ni llama a los suscriptores. */
+    public void publicar(K clave, V valor) {
+        if (suscripciones.isEmpty()) return;
+        for (Suscripcion s : suscripciones) s.pendientes.put(clave, valor);
+        programarDrenaje();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super Map<K, V>> suscriptor) {
+        Suscripcion s = new Suscripcion(suscriptor);
+        suscripciones.add(s);
+        suscriptor.onSubscribe(s);
+    }
+
+    /**
+     * Suscribe un consumidor sin límite de demanda.
+     *
+     * @return la suscripción, para {@link Flow.Subscription#cancel() cancelarla}
+     */
+    public Flow.Subscription suscribir(Consumer<? super Map<K, V>> alRecibir) {
+        Flow.Subscription[] suscripcion = new Flow.Subscription[1];
+        subscribe(new Flow.Subscriber<>() {
+            @Override public void onSubscribe(Flow.Subscription s) {
+                suscripcion[0] = s;
+                s.request(Long.MAX_VALUE);
+            }
+            @Override public void onNext(Map<K, V> lote)  { alRecibir.accept(lote); }
+            @Override public void onError(Throwable ex)   {
+                LOGGER.log(Level.WARNING, "Suscripción al flujo conflado terminada por error", ex);
+            }
+            @Override public void onComplete()            { }
+        });
+        return suscripcion[0];
+    }
+
+    /** Completa a todos los suscriptores; lo pendiente sin entregar se pierde. */
+    public void cerrar() {
+        for (Suscripcion s : suscripciones) {
+            suscripciones.remove(s);
+            s.suscriptor.onComplete();
+        }
+    }
+
+    /* ----------------------------- drenaje ------------------------------ */
+
+    private void programarDrenaje() {
+        if (!programado.compareAndSet(false, true)) return;
+        try {
+            drenaje.execute(this::drenar);
+        } catch (RuntimeException ex) {
+            programado.set(false);
+            LOGGER.log(Level.FINE, "No se pudo programar el drenaje", ex);
+        }
+    }
+
+    private void drenar() {
+        programado.set(false);
+        boolean quedan = false;
+        for (Suscripcion s : suscripciones) {
+            s.entregar();
+            quedan |= s.listaParaEntregar();
+        }
+        if (quedan) programarDrenaje();
+    }
+
+    /* --------------------------- suscripción ---------------------------- */
+
+    private final class Suscripcion implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super Map<K, V>> suscriptor;
+        private final Map<K, V> pendientes = new ConcurrentHashMap<>();
+        private final AtomicLong demanda = new AtomicLong();
+
+        Suscripcion(Flow.Subscriber<? super Map<K, V>> suscriptor) {
+            this.suscriptor = suscriptor;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                cancel();
+                suscriptor.onError(new IllegalArgumentException("request(" + n + "): la demanda debe ser positiva"));
+                return;
+            }
+            demanda.accumulateAndGet(n, (a, b) -> a + b < 0 ? Long.MAX_VALUE : a + b);
+            if (!pendientes.isEmpty()) programarDrenaje();
+        }
+
+        @Override
+        public void cancel() {
+            suscripciones.remove(this);
+            pendientes.clear();
+        }
+
+        boolean listaParaEntregar() {
+            return demanda.get() > 0 && !pendientes.isEmpty() && suscripciones.contains(this);
+        }
+
+        void entregar() {
+            if (!listaParaEntregar()) return;
+
+            Map<K, V> lote = new HashMap<>();
+            for (Map.Entry<K, V> e : pendientes.entrySet()) {
+                // remove(k, v): si llegó un valor más nuevo mientras tanto se queda para el próximo lote
+                if (pendientes.remove(e.getKey(), e.getValue())) lote.put(e.getKey(), e.getValue());
+            }
+            if (lote.isEmpty()) return;
+
+            if (demanda.get() != Long.MAX_VALUE) demanda.decrementAndGet();
+            try {
+                suscriptor.onNext(Collections.unmodifiableMap(lote));
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Suscriptor cancelado por excepción en onNext", ex);
+                cancel();
+                suscriptor.onError(ex);
+            }
+        }
+    }
+}
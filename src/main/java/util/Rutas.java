@@ -1,7 +1,7 @@
 package util;
 
 /**
- * Localiza todos los recursos estáticos (FXML e imágenes) en un único lugar,
+ * Localiza todos los recursos estáticos (FXML, imágenes y scripts SQL) en un único lugar,
  * facilitando la refactorización y evitando literales dispersos.
  */
 public final class Rutas {
@@ -25,6 +25,11 @@ public final class Rutas {
         public static final String CAMISETA_BASE     = "/ui/resources/camisetaBlanca.png";
         public static final String CHAQUETA_BASE     = "/ui/resources/chaquetaBlanca.png";
         public static final String PANTALON_BASE     = "/ui/resources/pantalonBlanco.png";
-        public static final String ERROR_PLACEHOLDER = "https://via.placeholder.com/100?text=Error";
+        public static final String NO_DISPONIBLE     = "/ui/resources/imagenNoDisponible.png";
+    }
+
+    public static final class BD {
+        private BD() { }
+        public static final String MIGRACIONES = "/db/migracion/";
     }
 }
@@ -0,0 +1,50 @@
+package util.json;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Adaptador de un objeto JSON que separa las llaves de los campos.
+ *
+ * <p>{@link RuntimeTypeAdapterFactory} reconoce estos delegados: escribe la
+ * llave y el discriminador y luego llama a {@link #escribirCampos}; al leer,
+ * consume el discriminador y llama a {@link #leerCampos}. Así no necesita
+ * envolver el {@link JsonWriter}/{@link JsonReader} del subtipo. Admiten
+ * {@code null} por sí mismos, sin {@code nullSafe()}, para que la fábrica
+ * los siga reconociendo.</p>
+ */
+abstract class AdaptadorCampos<T> extends TypeAdapter<T> {
+
+    /** Escribe los campos de {@code valor}, sin las llaves del objeto. */
+    abstract void escribirCampos(JsonWriter out, T valor) throws IOException;
+
+    /** Lee los campos restantes del objeto abierto, sin consumir la llave de cierre. */
+    abstract T leerCampos(JsonReader in) throws IOException;
+
+    @Override
+    public final void write(JsonWriter out, T valor) throws IOException {
+        if (valor == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        escribirCampos(out, valor);
+        out.endObject();
+    }
+
+    @Override
+    public final T read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        in.beginObject();
+        T valor = leerCampos(in);
+        in.endObject();
+        return valor;
+    }
+}
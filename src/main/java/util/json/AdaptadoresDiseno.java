@@ -0,0 +1,178 @@
+package util.json;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import javafx.geometry.Pos;
+import modelo.diseno.ElementoDiseno;
+import modelo.diseno.ElementoImagen;
+import modelo.diseno.ElementoTexto;
+import modelo.diseno.GrupoElementosDiseno;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Adaptadores escritos a mano para las clases concretas de
+ * {@link ElementoDiseno}: leen y escriben cada campo directamente, sin
+ * reflexión y sin encapsular los {@code double} del layout.
+ *
+ * <p>Producen exactamente el mismo JSON que los adaptadores reflexivos de
+ * Gson (mismos nombres y orden de campos), así que los pedidos ya guardados
+ * se siguen leyendo. El discriminador {@code "type"} lo sigue añadiendo
+ * {@link RuntimeTypeAdapterFactory}, que usa estos adaptadores como
+ * delegados; por eso esta fábrica debe registrarse <em>antes</em> que ella.</p>
+ */
+final class AdaptadoresDiseno implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<?> clase = type.getRawType();
+        if (clase == ElementoTexto.class)        return (TypeAdapter<T>) new AdaptadorTexto();
+        if (clase == ElementoImagen.class)       return (TypeAdapter<T>) new AdaptadorImagen();
+        if (clase == GrupoElementosDiseno.class) return (TypeAdapter<T>) new AdaptadorGrupo(gson.getAdapter(ElementoDiseno.class));
+        return null;
+    }
+
+    /* ------------------------------- texto ------------------------------- */
+
+    private static final class AdaptadorTexto extends AdaptadorCampos<ElementoTexto> {
+        @Override void escribirCampos(JsonWriter out, ElementoTexto t) throws IOException {
+            out.name("texto").value(t.getTexto());
+            out.name("fuente").value(t.getFuente());
+            out.name("color").value(t.getColor());
+            out.name("precioExtra").value(t.obtenerPrecioAdicional());
+        }
+
+        @Override ElementoTexto leerCampos(JsonReader in) throws IOException {
+            String texto = null, fuente = null, color = null;
+            double precio = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "texto"       -> texto  = cadena(in);
+                    case "fuente"      -> fuente = cadena(in);
+                    case "color"       -> color  = cadena(in);
+                    case "precioExtra" -> precio = numero(in);
+                    default            -> in.skipValue();
+                }
+            }
+            return new ElementoTexto(texto, fuente, color, precio);
+        }
+    }
+
+    /* ------------------------------- imagen ------------------------------ */
+
+    private static final class AdaptadorImagen extends AdaptadorCampos<ElementoImagen> {
+        @Override void escribirCampos(JsonWriter out, ElementoImagen i) throws IOException {
+            out.name("urlImagen").value(i.getUrlImagen());
+            out.name("descripcion").value(i.getDescripcion());
+            out.name("precioExtra").value(i.obtenerPrecioAdicional());
+        }
+
+        @Override ElementoImagen leerCampos(JsonReader in) throws IOException {
+            String url = null, descripcion = null;
+            double precio = 0;
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "urlImagen"   -> url         = cadena(in);
+                    case "descripcion" -> descripcion = cadena(in);
+                    case "precioExtra" -> precio      = numero(in);
+                    default            -> in.skipValue();
+                }
+            }
+            return new ElementoImagen(url, descripcion, precio);
+        }
+    }
+
+    /* ------------------------------- grupo ------------------------------- */
+
+    private static final class AdaptadorGrupo extends AdaptadorCampos<GrupoElementosDiseno> {
+        /* Adaptador polimórfico: escribe y lee el "type" de cada hijo */
+        private final TypeAdapter<ElementoDiseno> elementos;
+
+        AdaptadorGrupo(TypeAdapter<ElementoDiseno> elementos) {
+            this.elementos = elementos;
+        }
+
+        @Override void escribirCampos(JsonWriter out, GrupoElementosDiseno g) throws IOException {
+            out.name("nombreGrupo").value(g.getNombreGrupo());
+            out.name("layoutX").value(g.getLayoutX());
+            out.name("layoutY").value(g.getLayoutY());
+            out.name("prefWidth").value(g.getPrefWidth());
+            out.name("prefHeight").value(g.getPrefHeight());
+            out.name("ajusteX").value(g.getAjusteX());
+            out.name("ajusteY").value(g.getAjusteY());
+            out.name("escalaContenido").value(g.getEscalaContenido());
+            out.name("alineacion").value(g.getAlineacion() != null ? g.getAlineacion().name() : null);
+            out.name("elementos").beginArray();
+            for (ElementoDiseno e : g.getElementos()) elementos.write(out, e);
+            out.endArray();
+        }
+
+        @Override GrupoElementosDiseno leerCampos(JsonReader in) throws IOException {
+            String nombre = null;
+            double x = 0, y = 0, w = 0, h = 0, ajusteX = 0, ajusteY = 0, escala = 0;
+            Pos alineacion = Pos.CENTER;
+            List<ElementoDiseno> hijos = List.of();
+
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "nombreGrupo"     -> nombre  = cadena(in);
+                    case "layoutX"         -> x       = numero(in);
+                    case "layoutY"         -> y       = numero(in);
+                    case "prefWidth"       -> w       = numero(in);
+                    case "prefHeight"      -> h       = numero(in);
+                    case "ajusteX"         -> ajusteX = numero(in);
+                    case "ajusteY"         -> ajusteY = numero(in);
+                    case "escalaContenido" -> escala  = numero(in);
+                    case "alineacion"      -> {
+                        String pos = cadena(in);
+                        if (pos != null) alineacion = Pos.valueOf(pos);
+                    }
+                    case "elementos"       -> hijos = leerHijos(in);
+                    default                -> in.skipValue();
+                }
+            }
+            return GrupoElementosDiseno.de(nombre, x, y, w, h, ajusteX, ajusteY, escala, alineacion, hijos);
+        }
+
+        private List<ElementoDiseno> leerHijos(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return List.of();
+            }
+            List<ElementoDiseno> hijos = new ArrayList<>();
+            in.beginArray();
+            while (in.hasNext()) {
+                ElementoDiseno e = elementos.read(in);
+                if (e != null) hijos.add(e);
+            }
+            in.endArray();
+            return hijos;
+        }
+    }
+
+    /* ------------------------------ helpers ------------------------------ */
+
+    private static String cadena(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    private static double numero(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return 0;
+        }
+        return in.nextDouble();
+    }
+}
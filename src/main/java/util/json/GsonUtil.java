@@ -2,44 +2,94 @@ package util.json;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
 import modelo.diseno.ElementoDiseno;
 import modelo.diseno.ElementoImagen;
 import modelo.diseno.ElementoTexto;
 import modelo.diseno.GrupoElementosDiseno;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
 /**
  * Utilidad estática que provee una única instancia de {@link Gson}
  * configurada para (de-)serializar correctamente la jerarquía de
  * {@link ElementoDiseno} usando un campo <code>"type"</code>.
  *
- * <p>La instancia se crea de forma «lazy» y es *thread-safe*
- * gracias al bloqueo implícito sobre el método {@link #getGson()}.</p>
+ * <p>Las clases concretas del diseño usan adaptadores escritos a mano
+ * ({@link AdaptadoresDiseno}) en lugar de los reflexivos de Gson.</p>
+ *
+ * <p>La instancia se crea de forma «lazy» en la primera llamada a
+ * {@link #getGson()} (idiom <em>holder</em>: la JVM garantiza que la clase
+ * interna se inicializa una sola vez) y las llamadas posteriores no toman
+ * ningún bloqueo.</p>
  */
 public final class GsonUtil {
 
-    /** Instancia singleton de Gson configurada para los elementos de diseño. */
-    private static Gson gson;
-
     /** Bloquea la construcción; clase de utilidades. */
     private GsonUtil() { }
 
+    /** Instancia singleton de Gson configurada para los elementos de diseño. */
+    private static final class Holder {
+        static final Gson GSON = crear();
+        static final TypeAdapter<List<GrupoElementosDiseno>> ZONAS =
+                GSON.getAdapter(new TypeToken<List<GrupoElementosDiseno>>() { });
+    }
+
     /**
-     * Devuelve la instancia de {@link Gson} compartida.
-     * Si aún no existe, la construye registrando el {@link RuntimeTypeAdapterFactory}
-     * con las subclases concretas.
+     * Devuelve la instancia de {@link Gson} compartida. {@link Gson} es
+     * inmutable y seguro entre hilos, así que no hace falta sincronizar.
      */
-    public static synchronized Gson getGson() {
-        if (gson == null) {
-            RuntimeTypeAdapterFactory<ElementoDiseno> rtaFactory =
-                    RuntimeTypeAdapterFactory.of(ElementoDiseno.class, "type")
-                            .registerSubtype(GrupoElementosDiseno.class, "grupo")
-                            .registerSubtype(ElementoTexto.class,  "texto")
-                            .registerSubtype(ElementoImagen.class, "imagen");
-
-            gson = new GsonBuilder()
-                    .registerTypeAdapterFactory(rtaFactory)
-                    .create();
+    public static Gson getGson() {
+        return Holder.GSON;
+    }
+
+    /** Serializa las zonas de diseño de un producto (formato de {@code personalizacionJson}). */
+    public static String escribirZonas(List<? extends ElementoDiseno> zonas) {
+        EscritorTexto texto = new EscritorTexto();
+        Holder.GSON.toJson(zonas, texto);
+        return texto.toString();
+    }
+
+    /** Lee un {@code personalizacionJson}; {@code null} o vacío dan una lista vacía. */
+    public static List<GrupoElementosDiseno> leerZonas(String json) {
+        if (json == null || json.isEmpty()) return List.of();
+        try {
+            List<GrupoElementosDiseno> zonas = Holder.ZONAS.fromJson(json);
+            return zonas != null ? zonas : List.of();
+        } catch (IOException ex) {
+            throw new JsonParseException(ex);
         }
-        return gson;
+    }
+
+    /* Registra el {@link RuntimeTypeAdapterFactory} con las subclases concretas */
+    private static Gson crear() {
+        RuntimeTypeAdapterFactory<ElementoDiseno> rtaFactory =
+                RuntimeTypeAdapterFactory.of(ElementoDiseno.class, "type")
+                        .registerSubtype(GrupoElementosDiseno.class, "grupo")
+                        .registerSubtype(ElementoTexto.class,  "texto")
+                        .registerSubtype(ElementoImagen.class, "imagen");
+
+        // Los adaptadores concretos van antes: el polimórfico los busca como delegados
+        return new GsonBuilder()
+                .registerTypeAdapterFactory(new AdaptadoresDiseno())
+                .registerTypeAdapterFactory(rtaFactory)
+                .create();
+    }
+
+    /* {@code StringWriter} sin sincronizar: JsonWriter escribe carácter a carácter */
+    private static final class EscritorTexto extends Writer {
+        private final StringBuilder sb = new StringBuilder(512);
+
+        @Override public void write(int c)                        { sb.append((char) c); }
+        @Override public void write(char[] cbuf, int off, int len) { sb.append(cbuf, off, len); }
+        @Override public void write(String str, int off, int len)  { sb.append(str, off, off + len); }
+        @Override public Writer append(CharSequence csq)           { sb.append(csq); return this; }
+        @Override public void flush() { }
+        @Override public void close() { }
+        @Override public String toString() { return sb.toString(); }
     }
 }
@@ -1,12 +1,14 @@
 package util.json;
 
 import com.google.gson.*;
-import com.google.gson.internal.Streams;
 import com.google.gson.reflect.TypeToken;
 import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
 import com.google.gson.stream.JsonWriter;
 
 import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -16,7 +18,16 @@ import java.util.Map;
  * (p. ej. <code>{"type":"texto", ...}</code>).</p>
  *
  * <p>La implementación es una versión ligeramente adaptada del patrón
- * publicado por Jesse Wilson / Google y liberado bajo la licencia Apache 2.0.</p>
+ * publicado por Jesse Wilson / Google y liberado bajo la licencia Apache 2.0.
+ * A diferencia del original trabaja en <em>streaming</em>: al escribir emite el
+ * campo de tipo el primero, directamente sobre el {@link JsonWriter}, y al leer
+ * lo toma del {@link JsonReader} sin construir un árbol {@link JsonElement}.
+ * Solo si el discriminador no es el primer campo se almacena el objeto en un
+ * árbol para poder leerlo.</p>
+ *
+ * <p>Con delegados {@link AdaptadorCampos} la fábrica escribe y lee las llaves
+ * ella misma; con cualquier otro (p. ej. los reflexivos de Gson) envuelve el
+ * stream para inyectar u ocultar el discriminador.</p>
  *
  * @param <T> super-tipo raíz de la jerarquía
  */
@@ -24,25 +35,23 @@ public final class RuntimeTypeAdapterFactory<T> implements TypeAdapterFactory {
 
     private final Class<?> baseType;
     private final String   typeFieldName;
-    private final boolean  maintainType;
     private final Map<String, Class<?>> labelToSubtype = new LinkedHashMap<>();
     private final Map<Class<?>, String> subtypeToLabel = new LinkedHashMap<>();
 
     /* ----------------------- Fábricas de instancia ---------------------- */
 
     public static <T> RuntimeTypeAdapterFactory<T> of(Class<T> baseType, String field) {
-        return new RuntimeTypeAdapterFactory<>(baseType, field, false);
+        return new RuntimeTypeAdapterFactory<>(baseType, field);
     }
 
     public static <T> RuntimeTypeAdapterFactory<T> of(Class<T> baseType) {
         return of(baseType, "type");
     }
 
-    private RuntimeTypeAdapterFactory(Class<?> baseType, String typeFieldName, boolean maintainType) {
+    private RuntimeTypeAdapterFactory(Class<?> baseType, String typeFieldName) {
         if (baseType == null || typeFieldName == null) throw new NullPointerException();
         this.baseType      = baseType;
         this.typeFieldName = typeFieldName;
-        this.maintainType  = maintainType;
     }
 
     /* ------------------------- Registro de subtipos -------------------- */
@@ -79,19 +88,36 @@ public final class RuntimeTypeAdapterFactory<T> implements TypeAdapterFactory {
 
         return new TypeAdapter<R>() {
             @Override public R read(JsonReader in) throws IOException {
-                JsonElement json = jsonAdapter.read(in);
-                JsonObject  obj  = json.getAsJsonObject();
-                JsonElement labelEl = maintainType ? obj.get(typeFieldName) : obj.remove(typeFieldName);
-                if (labelEl == null) {
+                in.beginObject();
+                if (!in.hasNext()) {
                     throw new JsonParseException("Missing type field '" + typeFieldName + '\'');
                 }
-                String label = labelEl.getAsString();
-                @SuppressWarnings("unchecked")
-                TypeAdapter<R> delegate = (TypeAdapter<R>) labelToDelegate.get(label);
-                if (delegate == null) {
-                    throw new JsonParseException("Unknown subtype label '" + label + '\'');
+                String primero = in.nextName();
+                if (primero.equals(typeFieldName)) {
+                    // Caso habitual (lo que escribe write): el resto se lee en streaming
+                    TypeAdapter<R> delegate = delegateFor(in.nextString());
+                    if (delegate instanceof AdaptadorCampos<R> campos) {
+                        R valor = campos.leerCampos(in);
+                        in.endObject();
+                        return valor;
+                    }
+                    LectorTrasTipo resto = new LectorTrasTipo(in);
+                    R valor = delegate.read(resto);
+                    resto.comprobarCerrado();
+                    return valor;
+                }
+
+                // El discriminador no va primero: se almacena el objeto en un árbol
+                JsonObject obj = new JsonObject();
+                obj.add(primero, jsonAdapter.read(in));
+                while (in.hasNext()) obj.add(in.nextName(), jsonAdapter.read(in));
+                in.endObject();
+
+                JsonElement labelEl = obj.remove(typeFieldName);
+                if (labelEl == null) {
+                    throw new JsonParseException("Missing type field '" + typeFieldName + '\'');
                 }
-                return delegate.fromJsonTree(obj);
+                return delegateFor(labelEl.getAsString()).fromJsonTree(obj);
             }
 
             @Override public void write(JsonWriter out, R value) throws IOException {
@@ -101,24 +127,135 @@ public final class RuntimeTypeAdapterFactory<T> implements TypeAdapterFactory {
                 if (delegate == null) {
                     throw new JsonParseException("Unregistered subtype: " + srcType.getName());
                 }
-
-                JsonObject jsonObj = delegate.toJsonTree(value).getAsJsonObject();
-                if (!maintainType) {
-                    if (jsonObj.has(typeFieldName)) {
-                        throw new JsonParseException(
-                                "The field '" + typeFieldName + "' already exists in " + srcType.getName());
-                    }
-                    jsonObj = cloneWithType(jsonObj, subtypeToLabel.get(srcType));
+                String label = subtypeToLabel.get(srcType);
+                if (delegate instanceof AdaptadorCampos<R> campos) {
+                    out.beginObject();
+                    out.name(typeFieldName).value(label);
+                    campos.escribirCampos(out, value);
+                    out.endObject();
+                    return;
                 }
-                Streams.write(jsonObj, out);
+                delegate.write(new EscritorConTipo(out, typeFieldName, label, srcType), value);
             }
 
-            private JsonObject cloneWithType(JsonObject src, String label) {
-                JsonObject clone = new JsonObject();
-                clone.add(typeFieldName, new JsonPrimitive(label));
-                src.entrySet().forEach(e -> clone.add(e.getKey(), e.getValue()));
-                return clone;
+            private TypeAdapter<R> delegateFor(String label) {
+                @SuppressWarnings("unchecked")
+                TypeAdapter<R> delegate = (TypeAdapter<R>) labelToDelegate.get(label);
+                if (delegate == null) {
+                    throw new JsonParseException("Unknown subtype label '" + label + '\'');
+                }
+                return delegate;
             }
         }.nullSafe();
     }
+
+    /* ------------------------- Envoltorios de stream -------------------- */
+
+    /**
+     * Reenvía a {@code out} lo que escribe el adaptador del subtipo, añadiendo
+     * el campo de tipo justo tras abrir el objeto raíz.
+     */
+    private static final class EscritorConTipo extends JsonWriter {
+        private final JsonWriter out;
+        private final String campo, etiqueta;
+        private final Class<?> subtipo;
+        private int profundidad;
+
+        EscritorConTipo(JsonWriter out, String campo, String etiqueta, Class<?> subtipo) {
+            super(Writer.nullWriter());
+            this.out      = out;
+            this.campo    = campo;
+            this.etiqueta = etiqueta;
+            this.subtipo  = subtipo;
+            setLenient(out.isLenient());
+            setHtmlSafe(out.isHtmlSafe());
+            setSerializeNulls(out.getSerializeNulls());
+        }
+
+        @Override public JsonWriter beginObject() throws IOException {
+            out.beginObject();
+            if (profundidad++ == 0) out.name(campo).value(etiqueta);
+            return this;
+        }
+        @Override public JsonWriter endObject() throws IOException { profundidad--; out.endObject(); return this; }
+        @Override public JsonWriter beginArray() throws IOException { profundidad++; out.beginArray(); return this; }
+        @Override public JsonWriter endArray() throws IOException { profundidad--; out.endArray(); return this; }
+
+        @Override public JsonWriter name(String name) throws IOException {
+            if (profundidad == 1 && name.equals(campo)) {
+                throw new JsonParseException("The field '" + campo + "' already exists in " + subtipo.getName());
+            }
+            out.name(name);
+            return this;
+        }
+
+        @Override public JsonWriter value(String value) throws IOException { out.value(value); return this; }
+        @Override public JsonWriter jsonValue(String value) throws IOException { out.jsonValue(value); return this; }
+        @Override public JsonWriter nullValue() throws IOException { out.nullValue(); return this; }
+        @Override public JsonWriter value(boolean value) throws IOException { out.value(value); return this; }
+        @Override public JsonWriter value(Boolean value) throws IOException { out.value(value); return this; }
+        @Override public JsonWriter value(float value) throws IOException { out.value(value); return this; }
+        @Override public JsonWriter value(double value) throws IOException { out.value(value); return this; }
+        @Override public JsonWriter value(long value) throws IOException { out.value(value); return this; }
+        @Override public JsonWriter value(Number value) throws IOException { out.value(value); return this; }
+        @Override public boolean isLenient() { return out.isLenient(); }
+        @Override public void flush() throws IOException { out.flush(); }
+        @Override public void close() { /* el stream pertenece a quien llama */ }
+    }
+
+    /**
+     * Lector para el adaptador del subtipo cuando el campo de tipo ya se
+     * consumió: finge la apertura del objeto (que ya se leyó) y reenvía todo
+     * lo demás a {@code in}.
+     */
+    private static final class LectorTrasTipo extends JsonReader {
+        private final JsonReader in;
+        private boolean abierto;
+        private int profundidad;
+
+        LectorTrasTipo(JsonReader in) {
+            super(Reader.nullReader());
+            this.in = in;
+            setLenient(in.isLenient());
+        }
+
+        @Override public JsonToken peek() throws IOException {
+            return abierto ? in.peek() : JsonToken.BEGIN_OBJECT;
+        }
+
+        @Override public void beginObject() throws IOException {
+            if (!abierto) {
+                abierto = true;        // el '{' ya lo consumió el adaptador polimórfico
+            } else {
+                in.beginObject();
+            }
+            profundidad++;
+        }
+
+        @Override public void endObject() throws IOException { profundidad--; in.endObject(); }
+        @Override public void beginArray() throws IOException { abrir(); profundidad++; in.beginArray(); }
+        @Override public void endArray() throws IOException { profundidad--; in.endArray(); }
+        @Override public boolean hasNext() throws IOException { abrir(); return in.hasNext(); }
+        @Override public String nextName() throws IOException { abrir(); return in.nextName(); }
+        @Override public String nextString() throws IOException { abrir(); return in.nextString(); }
+        @Override public boolean nextBoolean() throws IOException { abrir(); return in.nextBoolean(); }
+        @Override public void nextNull() throws IOException { abrir(); in.nextNull(); }
+        @Override public double nextDouble() throws IOException { abrir(); return in.nextDouble(); }
+        @Override public long nextLong() throws IOException { abrir(); return in.nextLong(); }
+        @Override public int nextInt() throws IOException { abrir(); return in.nextInt(); }
+        @Override public void skipValue() throws IOException { abrir(); in.skipValue(); }
+        @Override public String getPath() { return in.getPath(); }
+        @Override public String getPreviousPath() { return in.getPreviousPath(); }
+        @Override public String toString() { return in.toString(); }
+        @Override public void close() { /* el stream pertenece a quien llama */ }
+
+        /* Un adaptador de subtipo siempre empieza con beginObject(); cualquier otra cosa es un error */
+        private void abrir() {
+            if (!abierto) throw new JsonParseException("Expected an object at " + in.getPath());
+        }
+
+        void comprobarCerrado() {
+            if (profundidad != 0) throw new JsonParseException("Unbalanced object at " + in.getPath());
+        }
+    }
 }
@@ -0,0 +1,86 @@
+package util.migracion;
+
+import modelo.diseno.GrupoElementosDiseno;
+import util.CodecDiseno;
+import util.json.GsonUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Añade la columna binaria de personalización y convierte a ella los
+ * pedidos guardados en JSON.
+ *
+ * <p>Las filas se recorren por bloques de id para no cargar toda la tabla.
+ * Una fila cuyo JSON no se puede leer se deja como está: {@code ItemPedido}
+ * sigue leyendo el JSON cuando la columna binaria es nula.</p>
+ */
+final class CompactarPersonalizacion implements Migracion.PasoJava {
+
+    private static final Logger LOGGER = Logger.getLogger(CompactarPersonalizacion.class.getName());
+
+    private static final int BLOQUE = 500;
+
+    private static final String SQL_PENDIENTES =
+            "SELECT id, personalizacionJson FROM ItemPedido "
+          + "WHERE id > ? AND personalizacion IS NULL AND personalizacionJson IS NOT NULL "
+          + "ORDER BY id LIMIT " + BLOQUE;
+
+    private static final String SQL_ACTUALIZAR =
+            "UPDATE ItemPedido SET personalizacion = ?, personalizacionJson = NULL WHERE id = ?";
+
+    @Override
+    public void aplicar(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("ALTER TABLE ItemPedido ADD COLUMN IF NOT EXISTS personalizacion VARBINARY(65535)");
+        }
+
+        int convertidas = 0, fallidas = 0;
+        long ultimoId = 0;
+        try (PreparedStatement leer = con.prepareStatement(SQL_PENDIENTES);
+             PreparedStatement escribir = con.prepareStatement(SQL_ACTUALIZAR)) {
+            while (true) {
+                leer.setLong(1, ultimoId);
+                int enBloque = 0;
+                try (ResultSet rs = leer.executeQuery()) {
+                    while (rs.next()) {
+                        enBloque++;
+                        ultimoId = rs.getLong(1);
+                        byte[] binario = convertir(ultimoId, rs.getString(2));
+                        if (binario == null) {
+                            fallidas++;
+                            continue;
+                        }
+                        escribir.setBytes(1, binario);
+                        escribir.setLong(2, ultimoId);
+                        escribir.addBatch();
+                        convertidas++;
+                    }
+                }
+                escribir.executeBatch();
+                if (enBloque < BLOQUE) break;
+            }
+        }
+
+        int ok = convertidas, ko = fallidas;
+        LOGGER.info(() -> "Personalizaciones convertidas a binario: %d (%d se quedan en JSON)".formatted(ok, ko));
+    }
+
+    /* ----------------------------- helpers ----------------------------- */
+
+    private static byte[] convertir(long id, String json) {
+        try {
+            List<GrupoElementosDiseno> zonas = GsonUtil.leerZonas(json);
+            return CodecDiseno.codificar(zonas);
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Personalización JSON ilegible en ItemPedido " + id, ex);
+            return null;
+        }
+    }
+}
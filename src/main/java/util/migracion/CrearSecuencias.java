@@ -0,0 +1,74 @@
+package util.migracion;
+
+import util.AppLogic;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.logging.Logger;
+
+/**
+ * Crea las secuencias de ids de las entidades numéricas.
+ *
+ * <p>Las entidades usan secuencias con bloques de
+ * {@link AppLogic.BD#BLOQUE_IDS} para que Hibernate pueda agrupar los INSERT
+ * en lotes JDBC. En una BD creada por versiones anteriores (ids
+ * {@code IDENTITY}) las tablas ya tienen filas, así que cada secuencia
+ * arranca tras el mayor id de su tabla; en una BD nueva arranca en 1.</p>
+ */
+final class CrearSecuencias implements Migracion.PasoJava {
+
+    private static final Logger LOGGER = Logger.getLogger(CrearSecuencias.class.getName());
+
+    /** Pares tabla → secuencia; deben coincidir con los {@code @SequenceGenerator}. */
+    private static final String[][] SECUENCIAS = {
+            { "productobase", "productobase_seq" },
+            { "inventario",   "inventario_seq"   },
+            { "usuarios",     "usuarios_seq"     },
+            { "itempedido",   "itempedido_seq"   },
+    };
+
+    private static final String SQL_EXISTE_SECUENCIA =
+            "SELECT COUNT(*) FROM INFORMATION_SCHEMA.SEQUENCES "
+          + "WHERE LOWER(SEQUENCE_SCHEMA) = 'public' AND LOWER(SEQUENCE_NAME) = ?";
+
+    @Override
+    public void aplicar(Connection con) throws SQLException {
+        for (String[] par : SECUENCIAS) {
+            crear(con, par[0], par[1]);
+        }
+    }
+
+    /* ----------------------------- helpers ----------------------------- */
+
+    private static void crear(Connection con, String tabla, String secuencia) throws SQLException {
+        if (existe(con, secuencia)) return;
+
+        long maxId;
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + tabla)) {
+            rs.next();
+            maxId = rs.getLong(1);
+        }
+
+        // El optimizador "pooled" toma el valor leído como tope del bloque:
+        // el primer id entregado será maxId + 1.
+        long inicio = maxId + AppLogic.BD.BLOQUE_IDS;
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE SEQUENCE %s START WITH %d INCREMENT BY %d"
+                    .formatted(secuencia, inicio, AppLogic.BD.BLOQUE_IDS));
+        }
+        LOGGER.info(() -> "Secuencia %s creada (tabla %s, último id %d)".formatted(secuencia, tabla, maxId));
+    }
+
+    private static boolean existe(Connection con, String secuencia) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(SQL_EXISTE_SECUENCIA)) {
+            ps.setString(1, secuencia);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getLong(1) > 0;
+            }
+        }
+    }
+}
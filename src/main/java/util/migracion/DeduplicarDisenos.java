@@ -0,0 +1,110 @@
+package util.migracion;
+
+import util.CodecDiseno;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HexFormat;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Crea la tabla de diseños direccionados por contenido y mueve a ella la
+ * personalización binaria de cada ítem de pedido.
+ *
+ * <p>Cada diseño se guarda una vez, con la huella de su codificación
+ * canónica, y el ítem pasa a referenciarlo. Un contenido que no se puede
+ * decodificar se conserva tal cual bajo la huella de sus bytes, para no
+ * perder datos. Al terminar se elimina la columna binaria del ítem.</p>
+ */
+final class DeduplicarDisenos implements Migracion.PasoJava {
+
+    private static final Logger LOGGER = Logger.getLogger(DeduplicarDisenos.class.getName());
+
+    private static final int BLOQUE = 500;
+
+    private static final String SQL_PENDIENTES =
+            "SELECT id, personalizacion FROM ItemPedido "
+          + "WHERE id > ? AND personalizacion IS NOT NULL "
+          + "ORDER BY id LIMIT " + BLOQUE;
+
+    private static final String SQL_GUARDAR_DISENO =
+            "MERGE INTO Diseno (huella, contenido) KEY (huella) VALUES (?, ?)";
+
+    private static final String SQL_ENLAZAR =
+            "UPDATE ItemPedido SET diseno_huella = ? WHERE id = ?";
+
+    @Override
+    public void aplicar(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute("CREATE TABLE IF NOT EXISTS Diseno ("
+                     + "huella VARCHAR(64) NOT NULL PRIMARY KEY, "
+                     + "contenido VARBINARY(65535) NOT NULL)");
+            st.execute("ALTER TABLE ItemPedido ADD COLUMN IF NOT EXISTS diseno_huella VARCHAR(64)");
+            st.execute("ALTER TABLE ItemPedido ADD CONSTRAINT IF NOT EXISTS fk_itempedido_diseno "
+                     + "FOREIGN KEY (diseno_huella) REFERENCES Diseno");
+        }
+
+        int items = 0;
+        long ultimoId = 0;
+        try (PreparedStatement leer = con.prepareStatement(SQL_PENDIENTES);
+             PreparedStatement guardar = con.prepareStatement(SQL_GUARDAR_DISENO);
+             PreparedStatement enlazar = con.prepareStatement(SQL_ENLAZAR)) {
+            while (true) {
+                leer.setLong(1, ultimoId);
+                int enBloque = 0;
+                try (ResultSet rs = leer.executeQuery()) {
+                    while (rs.next()) {
+                        enBloque++;
+                        ultimoId = rs.getLong(1);
+                        byte[] contenido = rs.getBytes(2);
+                        String huella = huella(ultimoId, contenido);
+
+                        guardar.setString(1, huella);
+                        guardar.setBytes(2, contenido);
+                        guardar.addBatch();
+                        enlazar.setString(1, huella);
+                        enlazar.setLong(2, ultimoId);
+                        enlazar.addBatch();
+                    }
+                }
+                guardar.executeBatch();   // antes que los enlaces, por la clave ajena
+                enlazar.executeBatch();
+                items += enBloque;
+                if (enBloque < BLOQUE) break;
+            }
+        }
+
+        try (Statement st = con.createStatement()) {
+            st.execute("ALTER TABLE ItemPedido DROP COLUMN IF EXISTS personalizacion");
+        }
+
+        int total = items;
+        try (Statement st = con.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM Diseno")) {
+            rs.next();
+            long disenos = rs.getLong(1);
+            LOGGER.info(() -> "Ítems con diseño: %d; diseños distintos: %d".formatted(total, disenos));
+        }
+    }
+
+    /* ----------------------------- helpers ----------------------------- */
+
+    private static String huella(long id, byte[] contenido) {
+        try {
+            return CodecDiseno.huella(CodecDiseno.decodificar(contenido));
+        } catch (IllegalArgumentException ex) {
+            LOGGER.log(Level.WARNING, "Personalización ilegible en ItemPedido " + id + "; se conserva sin normalizar", ex);
+            try {
+                return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(contenido));
+            } catch (NoSuchAlgorithmException e) {   // SHA-256 es obligatorio en toda JVM
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package util.migracion;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Paso versionado del esquema. Cada versión se aplica una sola vez y queda
+ * registrada en la tabla {@code esquema_version}.
+ *
+ * <p>Los pasos pueden ser un script SQL del classpath (ver
+ * {@link util.Rutas.BD#MIGRACIONES}) o código Java cuando la migración
+ * depende de los datos existentes.</p>
+ */
+public interface Migracion {
+
+    int version();
+
+    String descripcion();
+
+    void aplicar(Connection con) throws SQLException;
+
+    /* ------------------------------ factorías ----------------------------- */
+
+    /** Paso Java arbitrario. */
+    static Migracion java(int version, String descripcion, PasoJava paso) {
+        return new Migracion() {
+            @Override public int    version()     { return version; }
+            @Override public String descripcion() { return descripcion; }
+            @Override public void   aplicar(Connection con) throws SQLException { paso.aplicar(con); }
+        };
+    }
+
+    /**
+     * Script SQL del classpath. Las sentencias se separan por {@code ;} y
+     * las líneas que empiezan por {@code --} se ignoran.
+     */
+    static Migracion sql(int version, String descripcion, String recurso) {
+        return java(version, descripcion, con -> {
+            try (Statement st = con.createStatement()) {
+                for (String sentencia : leerSentencias(recurso)) st.execute(sentencia);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    interface PasoJava {
+        void aplicar(Connection con) throws SQLException;
+    }
+
+    /* ------------------------------- helpers ------------------------------ */
+
+    private static String[] leerSentencias(String recurso) {
+        try (InputStream in = Objects.requireNonNull(
+                Migracion.class.getResourceAsStream(recurso), "Script no encontrado: " + recurso)) {
+            String sinComentarios = new String(in.readAllBytes(), StandardCharsets.UTF_8)
+                    .lines()
+                    .filter(l -> !l.strip().startsWith("--"))
+                    .reduce("", (a, b) -> a + b + "\n");
+            return Arrays.stream(sinComentarios.split(";"))
+                    .map(String::strip)
+                    .filter(s -> !s.isEmpty())
+                    .toArray(String[]::new);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
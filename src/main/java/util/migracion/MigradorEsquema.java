@@ -0,0 +1,108 @@
+package util.migracion;
+
+import util.Rutas;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Aplica las {@link Migracion}es pendientes antes de levantar JPA.
+ *
+ * <p>Sustituye a {@code hbm2ddl=update}: en un arranque normal solo se lee
+ * la versión más alta de {@code esquema_version} y, si coincide con la
+ * última migración registrada, no se inspecciona el esquema. Cada versión
+ * se aplica y anota en su propia transacción; si una falla, el arranque se
+ * detiene y las siguientes no se intentan.</p>
+ *
+ * <p>Para añadir un cambio de esquema basta con agregar una entrada al
+ * final de {@link #MIGRACIONES} con la siguiente versión; nunca se deben
+ * editar las ya publicadas.</p>
+ */
+public final class MigradorEsquema {
+
+    private static final Logger LOGGER = Logger.getLogger(MigradorEsquema.class.getName());
+
+    /** Historial ordenado del esquema. */
+    private static final List<Migracion> MIGRACIONES = List.of(
+            Migracion.sql (1, "Esquema base",              Rutas.BD.MIGRACIONES + "V1__esquema_base.sql"),
+            Migracion.java(2, "Secuencias de ids",         new CrearSecuencias()),
+            Migracion.sql (3, "Índices secundarios",       Rutas.BD.MIGRACIONES + "V3__indices.sql"),
+            Migracion.sql (4, "Registro de stock diferido", Rutas.BD.MIGRACIONES + "V4__registro_stock.sql"),
+            Migracion.java(5, "Personalización binaria",   new CompactarPersonalizacion()),
+            Migracion.java(6, "Diseños por contenido",     new DeduplicarDisenos())
+    );
+
+    private static final String SQL_CREAR_TABLA_VERSIONES = """
+            CREATE TABLE IF NOT EXISTS esquema_version (
+                version     INTEGER      NOT NULL PRIMARY KEY,
+                descripcion VARCHAR(200) NOT NULL,
+                aplicada_en TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )""";
+
+    private MigradorEsquema() { }
+
+    /**
+     * Lleva el esquema a la última versión.
+     *
+     * @throws IllegalStateException si alguna migración falla
+     */
+    public static void migrar(DataSource ds) {
+        long t0 = System.nanoTime();
+        try (Connection con = ds.getConnection()) {
+            int actual = versionActual(con);
+            int ultima = MIGRACIONES.get(MIGRACIONES.size() - 1).version();
+            if (actual >= ultima) {
+                LOGGER.fine(() -> "Esquema al día (v" + actual + ")");
+                return;
+            }
+
+            for (Migracion m : MIGRACIONES) {
+                if (m.version() > actual) aplicar(con, m);
+            }
+            LOGGER.info(() -> "Esquema migrado de v%d a v%d en %d ms"
+                    .formatted(actual, ultima, (System.nanoTime() - t0) / 1_000_000));
+        } catch (SQLException ex) {
+            throw new IllegalStateException("No se pudo migrar el esquema de la BD", ex);
+        }
+    }
+
+    /* ----------------------------- helpers ----------------------------- */
+
+    private static int versionActual(Connection con) throws SQLException {
+        try (Statement st = con.createStatement()) {
+            st.execute(SQL_CREAR_TABLA_VERSIONES);
+            try (ResultSet rs = st.executeQuery("SELECT COALESCE(MAX(version), 0) FROM esquema_version")) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    private static void aplicar(Connection con, Migracion m) throws SQLException {
+        LOGGER.info(() -> "Aplicando migración v%d: %s".formatted(m.version(), m.descripcion()));
+        try {
+            m.aplicar(con);
+            try (PreparedStatement ps = con.prepareStatement(
+                    "INSERT INTO esquema_version (version, descripcion) VALUES (?, ?)")) {
+                ps.setInt(1, m.version());
+                ps.setString(2, m.descripcion());
+                ps.executeUpdate();
+            }
+            con.commit();
+        } catch (SQLException | RuntimeException ex) {
+            try {
+                con.rollback();
+            } catch (SQLException rb) {
+                LOGGER.log(Level.SEVERE, "Error en rollback", rb);
+            }
+            throw new SQLException("Falló la migración v" + m.version() + " (" + m.descripcion() + ")", ex);
+        }
+    }
+}
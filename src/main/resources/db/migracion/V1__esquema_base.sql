@@ -0,0 +1,79 @@
+-- Esquema inicial de Formium (equivale al que generaba hbm2ddl=update).
+-- Todas las sentencias son idempotentes: en una BD creada por versiones
+-- anteriores las tablas y claves ya existen y no se tocan.
+
+CREATE TABLE IF NOT EXISTS usuarios (
+    id            BIGINT       NOT NULL,
+    nombreUsuario VARCHAR(255) NOT NULL UNIQUE,
+    passwordHash  VARCHAR(255) NOT NULL,
+    rol           VARCHAR(255) NOT NULL CHECK (rol IN ('USER', 'ADMIN', 'SUPER_ADMIN')),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ProductoBase (
+    id          BIGINT        NOT NULL,
+    nombre      VARCHAR(255),
+    descripcion VARCHAR(1000),
+    precioBase  FLOAT(53)     NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ProductoCamiseta (
+    id    BIGINT       NOT NULL,
+    color VARCHAR(255),
+    talla VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ProductoChaqueta (
+    id       BIGINT       NOT NULL,
+    color    VARCHAR(255),
+    material VARCHAR(255),
+    talla    VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS ProductoPantalones (
+    id    BIGINT       NOT NULL,
+    color VARCHAR(255),
+    corte VARCHAR(255),
+    talla VARCHAR(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Inventario (
+    id          BIGINT  NOT NULL,
+    producto_id BIGINT  NOT NULL UNIQUE,
+    cantidad    INTEGER NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS Pedido (
+    idPedido       VARCHAR(255) NOT NULL,
+    usuario_id     BIGINT       NOT NULL,
+    direccionEnvio VARCHAR(255),
+    metodoPago     VARCHAR(255),
+    costoTotal     FLOAT(53)    NOT NULL,
+    fechaCreacion  TIMESTAMP(6),
+    estado         VARCHAR(255),
+    PRIMARY KEY (idPedido)
+);
+
+CREATE TABLE IF NOT EXISTS ItemPedido (
+    id                  BIGINT       NOT NULL,
+    pedido_id           VARCHAR(255) NOT NULL,
+    productoBase_id     BIGINT       NOT NULL,
+    cantidad            INTEGER      NOT NULL,
+    precioUnitario      FLOAT(53)    NOT NULL,
+    personalizacionJson CLOB,
+    PRIMARY KEY (id)
+);
+
+-- Mismos nombres que generaba Hibernate, para no duplicar claves existentes
+ALTER TABLE Inventario         ADD CONSTRAINT IF NOT EXISTS FKlikhlis271gt29kt86gj7xw99 FOREIGN KEY (producto_id)     REFERENCES ProductoBase;
+ALTER TABLE ItemPedido         ADD CONSTRAINT IF NOT EXISTS FKige1sp3jgvj7mi8wb2koawsxp FOREIGN KEY (pedido_id)       REFERENCES Pedido;
+ALTER TABLE ItemPedido         ADD CONSTRAINT IF NOT EXISTS FKjitj8xk7fkxng1jtnfbf67kg7 FOREIGN KEY (productoBase_id) REFERENCES ProductoBase;
+ALTER TABLE Pedido             ADD CONSTRAINT IF NOT EXISTS FKkk19cpme926jhaobvllf0aiu4 FOREIGN KEY (usuario_id)      REFERENCES usuarios;
+ALTER TABLE ProductoCamiseta   ADD CONSTRAINT IF NOT EXISTS FKbko50hqy22vwgkcwpkeqgodcy FOREIGN KEY (id)              REFERENCES ProductoBase;
+ALTER TABLE ProductoChaqueta   ADD CONSTRAINT IF NOT EXISTS FK5r5westfnetjmtlywytk0gan3 FOREIGN KEY (id)              REFERENCES ProductoBase;
+ALTER TABLE ProductoPantalones ADD CONSTRAINT IF NOT EXISTS FKnfjsrj2nlc40r98xwyf1p834 FOREIGN KEY (id)              REFERENCES ProductoBase;
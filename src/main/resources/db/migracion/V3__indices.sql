@@ -0,0 +1,12 @@
+-- Índices secundarios para las consultas calientes.
+
+-- CatalogoProductos.encontrarVariantesPorNombre
+CREATE INDEX IF NOT EXISTS idx_productobase_nombre  ON ProductoBase (nombre);
+
+-- ServicioPedido: listado general, por estado y por usuario (keyset fecha + id)
+CREATE INDEX IF NOT EXISTS idx_pedido_fecha         ON Pedido (fechaCreacion, idPedido);
+CREATE INDEX IF NOT EXISTS idx_pedido_estado_fecha  ON Pedido (estado, fechaCreacion, idPedido);
+CREATE INDEX IF NOT EXISTS idx_pedido_usuario_fecha ON Pedido (usuario_id, fechaCreacion, idPedido);
+
+-- Carga de los ítems de un pedido
+CREATE INDEX IF NOT EXISTS idx_itempedido_pedido    ON ItemPedido (pedido_id);
@@ -0,0 +1,8 @@
+-- Persistencia diferida del stock (IndiceStock): última secuencia del
+-- registro de intenciones ya aplicada a Inventario. Una sola fila.
+CREATE TABLE IF NOT EXISTS registro_stock (
+    id               INTEGER NOT NULL PRIMARY KEY,
+    ultima_secuencia BIGINT  NOT NULL
+);
+
+MERGE INTO registro_stock (id, ultima_secuencia) KEY (id) VALUES (1, 0);
@@ -0,0 +1,96 @@
+package util.json;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import modelo.diseno.ElementoDiseno;
+import modelo.diseno.ElementoImagen;
+import modelo.diseno.ElementoTexto;
+import modelo.diseno.GrupoElementosDiseno;
+import modelo.diseno.ZonaDiseno;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara los adaptadores escritos a mano de {@link GsonUtil} con los
+ * reflexivos de Gson, configurados como antes de {@link AdaptadoresDiseno}:
+ * solo {@link RuntimeTypeAdapterFactory} y un {@link TypeToken} por llamada.
+ *
+ * <p>Se ejecuta con {@code mvn -Pbenchmark test-compile exec:exec}.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BenchmarkGsonDiseno {
+
+    /** Elementos de la zona; una línea de pedido típica tiene uno o dos. */
+    @Param({ "1", "10" })
+    int elementos;
+
+    private Gson reflexivo;
+    private List<GrupoElementosDiseno> zonas;
+    private String json;
+
+    @Setup
+    public void preparar() {
+        reflexivo = new GsonBuilder()
+                .registerTypeAdapterFactory(RuntimeTypeAdapterFactory.of(ElementoDiseno.class, "type")
+                        .registerSubtype(GrupoElementosDiseno.class, "grupo")
+                        .registerSubtype(ElementoTexto.class,  "texto")
+                        .registerSubtype(ElementoImagen.class, "imagen"))
+                .create();
+
+        List<ElementoDiseno> contenido = new ArrayList<>();
+        for (int i = 0; i < elementos; i++) {
+            contenido.add(i % 2 == 0
+                    ? new ElementoTexto("Texto " + i, "Arial", "#FF0000", 2.5)
+                    : new ElementoImagen("/ui/resources/diseno" + i + ".png", "Logo " + i, 4.0));
+        }
+        zonas = List.of(ZonaDiseno.CAMISETA_FRENTE.plantilla().conElementos(contenido));
+        json = GsonUtil.escribirZonas(zonas);
+
+        // Ambos caminos deben producir el mismo JSON, si no la comparación no vale
+        String comprobacion = reflexivo.toJson(zonas);
+        if (!json.equals(comprobacion)) {
+            throw new IllegalStateException("JSON distinto:\n" + json + "\n" + comprobacion);
+        }
+    }
+
+    @Benchmark
+    public String escribirReflexivo() {
+        return reflexivo.toJson(zonas);
+    }
+
+    @Benchmark
+    public String escribirManual() {
+        return GsonUtil.escribirZonas(zonas);
+    }
+
+    @Benchmark
+    public List<GrupoElementosDiseno> leerReflexivo() {
+        Type tipo = new TypeToken<List<GrupoElementosDiseno>>() { }.getType();
+        return reflexivo.fromJson(json, tipo);
+    }
+
+    @Benchmark
+    public List<GrupoElementosDiseno> leerManual() {
+        return GsonUtil.leerZonas(json);
+    }
+}